@@ -0,0 +1,403 @@
+package benchmark.generator;
+
+import java.lang.ref.WeakReference;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import benchmark.serializer.*;
+
+/*
+ * Library access to the generated data, e.g. for feeding an in-process bulk
+ * loader without writing and parsing files. The dataset is the one of the
+ * N-Triples output for the same product count, without update dataset and
+ * test driver data.
+ *
+ *   new BsbmDataset(1000).generate(sink);  //push the triples into sink
+ *   new BsbmDataset(1000).stream()         //pull them
+ *
+ * The generator has static state, so the triples of only one dataset get
+ * generated at a time. generate() holds the generator until it is complete.
+ * A stream or iterator whose consumer lags behind gives the generator way
+ * to other datasets and later generates its dataset again, skipping the
+ * partitions it delivered already. Unless setQuiet(false) is called, the
+ * generator prints no progress messages.
+ */
+public class BsbmDataset {
+	//Number of partitions buffered ahead of the consumers
+	private static final int nrOfBufferedPartitions = 16;
+	//Number of spliterators a parallel stream may split the dataset into
+	private static final int maxNrOfConsumers = Runtime.getRuntime().availableProcessors();
+
+	private long productCount;
+	private boolean forwardChaining;
+	private boolean quiet = true;
+
+	public BsbmDataset(long productCount)
+	{
+		this(productCount, false);
+	}
+
+	public BsbmDataset(long productCount, boolean forwardChaining)
+	{
+		if(productCount<1)
+			throw new IllegalArgumentException("Product count must be positive: " + productCount);
+		this.productCount = productCount;
+		this.forwardChaining = forwardChaining;
+	}
+
+	public long getProductCount() {
+		return productCount;
+	}
+
+	public boolean isForwardChaining() {
+		return forwardChaining;
+	}
+
+	public boolean isQuiet() {
+		return quiet;
+	}
+
+	/*
+	 * With quiet false, the generator prints its progress to System.out
+	 */
+	public void setQuiet(boolean quiet) {
+		this.quiet = quiet;
+	}
+
+	/*
+	 * Generates the dataset in the calling thread and hands the triples to
+	 * sink in the order of the N-Triples output. Returns the number of triples.
+	 */
+	public long generate(TripleSink sink)
+	{
+		TripleSerializer serializer = new TripleSerializer(sink, forwardChaining);
+		Generator.generate(productCount, serializer, quiet);
+		return serializer.triplesGenerated();
+	}
+
+	/*
+	 * The triples in the order of the N-Triples output. An iterator which is
+	 * not read to the end stops the generation once it is garbage collected.
+	 */
+	public Iterator<Triple> iterator()
+	{
+		return Spliterators.iterator(spliterator());
+	}
+
+	/*
+	 * The triples get generated by a background thread in partitions: the
+	 * product types, the product features and every producer, vendor and
+	 * rating site with its products, offers or reviews. trySplit() hands out
+	 * spliterators which take turns in consuming the partitions, so parallel
+	 * consumers each get whole partitions. Only an unsplit spliterator
+	 * returns the triples in order. The generation stops once all
+	 * spliterators are garbage collected.
+	 */
+	public Spliterator<Triple> spliterator()
+	{
+		Object owner = new Object();
+		return new PartitionSpliterator(new Partitions(owner), owner);
+	}
+
+	public Stream<Triple> stream()
+	{
+		return openStream(false);
+	}
+
+	public Stream<Triple> parallelStream()
+	{
+		return openStream(true);
+	}
+
+	/*
+	 * Closing the stream stops the generation of the rest of the dataset,
+	 * like the garbage collection of an unclosed stream
+	 */
+	private Stream<Triple> openStream(boolean parallel)
+	{
+		Object owner = new Object();
+		final Partitions partitions = new Partitions(owner);
+		return StreamSupport.stream(new PartitionSpliterator(partitions, owner), parallel).onClose(new Runnable() {
+			public void run() {
+				partitions.cancel();
+			}
+		});
+	}
+
+	/*
+	 * Thrown into the generator when the consumer has stopped
+	 */
+	private static class CancelledException extends RuntimeException {
+		private static final long serialVersionUID = 1L;
+	}
+
+	/*
+	 * Thrown into the generator to give way to another dataset while the
+	 * consumer lags behind
+	 */
+	private static class PausedException extends RuntimeException {
+		private static final long serialVersionUID = 1L;
+	}
+
+	/*
+	 * The partitions of one dataset. The generation starts with the first
+	 * request of a partition. The queue is bounded, so the generator waits
+	 * for slow consumers, but not while other datasets wait for the
+	 * generator: then it stops and a later request generates the dataset
+	 * again from the first partition not delivered yet.
+	 * Only the spliterators reference the owner, the generator thread
+	 * stops when it got garbage collected.
+	 */
+	private class Partitions {
+		private final List<Triple> end = new ArrayList<Triple>(0);
+		private BlockingQueue<List<Triple>> queue = new ArrayBlockingQueue<List<Triple>>(nrOfBufferedPartitions);
+		private WeakReference<Object> owner;
+		private boolean running = false;
+		private int delivered = 0;//Partitions put into the queue by the generator threads
+		private volatile boolean cancelled = false;
+		private volatile boolean complete = false;
+		private volatile RuntimeException failure;
+		private int nrOfConsumers = 1;
+
+		Partitions(Object owner)
+		{
+			this.owner = new WeakReference<Object>(owner);
+		}
+
+		/*
+		 * Returns the next partition or null at the end of the dataset
+		 */
+		List<Triple> next()
+		{
+			try {
+				while(!complete) {
+					synchronized(this) {
+						if(!running && !cancelled && queue.isEmpty())
+							start();
+					}
+					//Polling, the generator may stop before the queue is empty
+					List<Triple> partition = queue.poll(100, TimeUnit.MILLISECONDS);
+					if(partition==null)
+						continue;
+					if(partition==end) {
+						complete = true;
+						//Wake up the other consumers
+						queue.put(end);
+						if(failure!=null)
+							throw failure;
+						return null;
+					}
+					return partition;
+				}
+				return null;
+			} catch(InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new CancellationException("Interrupted while waiting for triples");
+			}
+		}
+
+		private void start()
+		{
+			running = true;
+			final int skip = delivered;
+			Thread generator = new Thread(new Runnable() {
+				public void run() {
+					final PartitionSink sink = new PartitionSink(skip);
+					try {
+						//Every commit of the generator is a partition
+						Generator.generate(productCount, new TripleSerializer(sink, forwardChaining) {
+							public void gatherData(ObjectBundle bundle) {
+								super.gatherData(bundle);
+								sink.commit();
+							}
+						}, quiet);
+					} catch(CancelledException e) {
+						return;
+					} catch(PausedException e) {
+						synchronized(Partitions.this) {
+							running = false;
+						}
+						return;
+					} catch(RuntimeException e) {
+						failure = e;
+					} catch(Throwable e) {
+						//Also errors end the dataset, consumers must not wait forever
+						failure = new RuntimeException("Generation of the dataset failed", e);
+					}
+					try {
+						put(end, false);
+					} catch(CancelledException e) {
+					}
+				}
+			}, "BSBM-Dataset-Generator");
+			generator.setDaemon(true);
+			generator.start();
+		}
+
+		/*
+		 * Waits for space in the queue, pausable waits give way to other datasets
+		 */
+		private void put(List<Triple> partition, boolean pausable)
+		{
+			try {
+				while(!queue.offer(partition, 100, TimeUnit.MILLISECONDS)) {
+					if(cancelled || owner.get()==null)
+						throw new CancelledException();
+					if(pausable && Generator.isGenerateRequested())
+						throw new PausedException();
+				}
+			} catch(InterruptedException e) {
+				throw new CancelledException();
+			}
+		}
+
+		void cancel()
+		{
+			cancelled = true;
+			queue.clear();
+			queue.offer(end);
+		}
+
+		/*
+		 * Registers another consumer, false if there are enough already
+		 */
+		synchronized boolean addConsumer()
+		{
+			if(complete || nrOfConsumers>=maxNrOfConsumers)
+				return false;
+			nrOfConsumers++;
+			return true;
+		}
+
+		/*
+		 * Collects the triples of one bundle. After a pause the partitions
+		 * delivered before are generated again and skipped.
+		 */
+		private class PartitionSink implements TripleSink {
+			private List<Triple> partition = new ArrayList<Triple>();
+			private int skip;
+
+			PartitionSink(int skip) {
+				this.skip = skip;
+			}
+
+			public void triple(String subject, String predicate, String object) {
+				partition.add(new Triple(subject, predicate, object));
+			}
+
+			void commit() {
+				if(cancelled)
+					throw new CancelledException();
+				if(partition.isEmpty())
+					return;
+				if(skip>0) {
+					skip--;
+					partition.clear();
+					return;
+				}
+				put(partition, true);
+				delivered++;
+				partition = new ArrayList<Triple>(partition.size());
+			}
+		}
+	}
+
+	private static class PartitionSpliterator implements Spliterator<Triple> {
+		private Partitions partitions;
+		private Object owner;//Keeps the generation running
+		private List<Triple> partition = Collections.emptyList();
+		private int index = 0;
+
+		PartitionSpliterator(Partitions partitions, Object owner)
+		{
+			this.partitions = partitions;
+			this.owner = owner;
+		}
+
+		public boolean tryAdvance(Consumer<? super Triple> action) {
+			while(index==partition.size()) {
+				List<Triple> next = partitions.next();
+				if(next==null)
+					return false;
+				partition = next;
+				index = 0;
+			}
+			action.accept(partition.get(index++));
+			return true;
+		}
+
+		/*
+		 * The new spliterator consumes the same partitions, each partition
+		 * goes to one of them
+		 */
+		public Spliterator<Triple> trySplit() {
+			if(!partitions.addConsumer())
+				return null;
+			return new PartitionSpliterator(partitions, owner);
+		}
+
+		public long estimateSize() {
+			return Long.MAX_VALUE;
+		}
+
+		public int characteristics() {
+			return NONNULL | IMMUTABLE;
+		}
+	}
+
+	/*
+	 * Checks that consumers which stop early neither block other datasets
+	 * nor keep the generator running: an iterator which is still referenced,
+	 * an abandoned iterator and an unclosed stream. Run it in the directory
+	 * with the data directory of the generator.
+	 */
+	public static void main(String[] args) throws InterruptedException {
+		Iterator<Triple> referenced = new BsbmDataset(20000).iterator();
+		referenced.next();
+		checkNotBlocked("a referenced iterator");
+
+		new BsbmDataset(20000).iterator().next();
+		checkNotBlocked("an abandoned iterator");
+
+		new BsbmDataset(20000).stream().limit(10).count();
+		checkNotBlocked("an unclosed stream");
+
+		//The generation of the referenced iterator is paused, the others cancelled
+		for(int i=0;i<100 && hasGeneratorThreads();i++) {
+			System.gc();
+			Thread.sleep(100);
+		}
+		if(hasGeneratorThreads()) {
+			System.err.println("Generator threads of abandoned consumers are still running");
+			System.exit(-1);
+		}
+		System.out.println("Next triple of the referenced iterator: " + referenced.next());
+		System.out.println("All checks passed.");
+	}
+
+	private static void checkNotBlocked(String consumer) throws InterruptedException {
+		Thread check = new Thread(new Runnable() {
+			public void run() {
+				new BsbmDataset(100).stream().count();
+			}
+		});
+		check.setDaemon(true);
+		check.start();
+		check.join(60000);
+		if(check.isAlive()) {
+			System.err.println("A dataset is blocked by " + consumer);
+			System.exit(-1);
+		}
+		System.out.println("Not blocked by " + consumer + ".");
+	}
+
+	private static boolean hasGeneratorThreads() {
+		for(Thread thread : Thread.getAllStackTraces().keySet())
+			if(thread.getName().equals("BSBM-Dataset-Generator") && thread.isAlive())
+				return true;
+		return false;
+	}
+}
@@ -0,0 +1,102 @@
+package benchmark.generator;
+
+import java.io.*;
+import java.util.*;
+
+import benchmark.model.BSBMResource;
+import benchmark.serializer.SerializerState;
+
+/*
+ * State of a generation run after a commit of producer, vendor or rating site
+ * data. A run resumed from a checkpoint produces exactly the same output.
+ */
+@SuppressWarnings("serial")
+class Checkpoint implements Serializable {
+	static final int PRODUCERS = 1;
+	static final int VENDORS = 2;
+	static final int RATINGSITES = 3;
+
+	String parameters;//The parameters of the run, a resumed run must use the same
+	int phase;
+	long[] counters;//Loop counters of the phase
+	Random[] randoms;//Random number generators of the phase
+	Random[] dictionaryRandoms;
+	String[] words;//The word list in the iteration order of its HashMap
+	int[] wordCounts;
+	List<List<BSBMResource>> updateResourceData;
+	SerializerState serializerState;
+
+	/*
+	 * The HashMap itself is not saved: a deserialized HashMap may have another
+	 * capacity and iteration order, which would change the test driver data.
+	 * Inserting the words in the old iteration order rebuilds the same layout,
+	 * boxing the counts again shares the cached Integers like the original.
+	 */
+	void setWordList(HashMap<String, Integer> wordList) {
+		words = new String[wordList.size()];
+		wordCounts = new int[wordList.size()];
+		int i = 0;
+		for(Map.Entry<String, Integer> entry : wordList.entrySet()) {
+			words[i] = entry.getKey();
+			wordCounts[i] = entry.getValue();
+			i++;
+		}
+	}
+
+	HashMap<String, Integer> getWordList() {
+		HashMap<String, Integer> wordList = new HashMap<String, Integer>();
+		for(int i=0;i<words.length;i++)
+			wordList.put(words[i], wordCounts[i]);
+		return wordList;
+	}
+
+	/*
+	 * Writes the checkpoint. The old checkpoint only gets replaced
+	 * by a complete new one.
+	 */
+	void write(File file) {
+		File tmp = new File(file.getPath() + ".tmp");
+		try {
+			FileOutputStream fos = new FileOutputStream(tmp);
+			ObjectOutputStream out = new ObjectOutputStream(new BufferedOutputStream(fos));
+			out.writeObject(this);
+			out.flush();
+			fos.getFD().sync();
+			out.close();
+		} catch(IOException e) {
+			System.err.println("Could not write checkpoint " + tmp.getAbsolutePath() + "\n" + e.getMessage());
+			System.exit(-1);
+		}
+
+		if(!tmp.renameTo(file)) {
+			//Some platforms don't replace existing files on rename
+			file.delete();
+			if(!tmp.renameTo(file)) {
+				System.err.println("Could not rename checkpoint " + tmp.getAbsolutePath() + " to " + file.getName());
+				System.exit(-1);
+			}
+		}
+	}
+
+	/*
+	 * Returns the checkpoint in file or null if there is none
+	 */
+	static Checkpoint read(File file) {
+		if(!file.exists())
+			return null;
+
+		try {
+			ObjectInputStream in = new ObjectInputStream(new BufferedInputStream(new FileInputStream(file)));
+			Checkpoint checkpoint = (Checkpoint)in.readObject();
+			in.close();
+			return checkpoint;
+		} catch(IOException e) {
+			System.err.println("Could not read checkpoint " + file.getAbsolutePath() + "\n" + e.getMessage());
+			System.exit(-1);
+		} catch(ClassNotFoundException e) {
+			System.err.println("Invalid checkpoint " + file.getAbsolutePath() + "\n" + e.getMessage());
+			System.exit(-1);
+		}
+		return null;
+	}
+}
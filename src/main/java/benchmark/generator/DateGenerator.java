@@ -16,7 +16,7 @@ public class DateGenerator {
 	{
 		this.from = from.getTimeInMillis();
 		this.to = to.getTimeInMillis();
-		ranGen = new Random(seed);
+		ranGen = RandomSource.create(seed);
 	}
 	
 	/*
@@ -27,7 +27,7 @@ public class DateGenerator {
 		this.from = from.getTimeInMillis();
 		this.to = this.from + oneDayInMillis*toSpanInDays;
 
-		ranGen = new Random(seed);
+		ranGen = RandomSource.create(seed);
 	}
 	
 	/*
@@ -37,14 +37,14 @@ public class DateGenerator {
 	{
 		this.to = to.getTimeInMillis();
 		this.from = this.to - oneDayInMillis*fromSpanInDays;
-		ranGen = new Random(seed);
+		ranGen = RandomSource.create(seed);
 	}
 	
 	public DateGenerator(Long seed)
 	{
 		this.from = 0l;
 		this.to = 0l;
-		ranGen = new Random(seed);
+		ranGen = RandomSource.create(seed);
 	}
 	
 	/*
@@ -127,4 +127,15 @@ public class DateGenerator {
 		
 		return gc.getTimeInMillis();
 	}
+
+	/*
+	 * The state of the random number generator, used for checkpoints
+	 */
+	public Random getRanGen() {
+		return ranGen;
+	}
+
+	public void setRanGen(Random ranGen) {
+		this.ranGen = ranGen;
+	}
 }
@@ -0,0 +1,121 @@
+package benchmark.generator;
+
+import java.util.Random;
+
+/*
+ * xoroshiro128++ generator. Unlike java.util.Random the state is updated
+ * without atomic operations and every call gives 64 random bits, so it is
+ * faster but gives other values for the same seed. An instance must not be
+ * shared by several threads.
+ * It extends Random so the generator components and checkpoints can use
+ * both engines.
+ */
+public class FastRandom extends Random {
+	private static final long serialVersionUID = 1L;
+
+	//Set by setSeed(), which Random() calls before field initializers would run
+	private long s0;
+	private long s1;
+	private double nextNextGaussian;
+	private boolean haveNextNextGaussian;
+
+	public FastRandom(long seed)
+	{
+		super(seed);
+	}
+
+	/*
+	 * The state gets expanded from the seed with SplitMix64
+	 */
+	@Override
+	public void setSeed(long seed) {
+		long x = seed;
+		s0 = mix(x += 0x9E3779B97F4A7C15L);
+		s1 = mix(x + 0x9E3779B97F4A7C15L);
+		haveNextNextGaussian = false;
+	}
+
+	private static long mix(long z) {
+		z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+		z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+		return z ^ (z >>> 31);
+	}
+
+	@Override
+	public long nextLong() {
+		long a = s0;
+		long b = s1;
+		long result = Long.rotateLeft(a + b, 17) + a;
+		b ^= a;
+		s0 = Long.rotateLeft(a, 49) ^ b ^ (b << 21);
+		s1 = Long.rotateLeft(b, 28);
+		return result;
+	}
+
+	@Override
+	protected int next(int bits) {
+		return (int)(nextLong() >>> (64 - bits));
+	}
+
+	@Override
+	public int nextInt() {
+		return (int)(nextLong() >>> 32);
+	}
+
+	/*
+	 * Lemire's multiply and shift, with rejection of the biased values
+	 */
+	@Override
+	public int nextInt(int bound) {
+		if(bound<=0)
+			throw new IllegalArgumentException("bound must be positive");
+
+		long m = (nextLong() >>> 32) * bound;
+		long low = m & 0xFFFFFFFFL;
+		if(low<bound) {
+			long threshold = (0x100000000L - bound) % bound;
+			while(low<threshold) {
+				m = (nextLong() >>> 32) * bound;
+				low = m & 0xFFFFFFFFL;
+			}
+		}
+		return (int)(m >>> 32);
+	}
+
+	@Override
+	public double nextDouble() {
+		return (nextLong() >>> 11) * 0x1.0p-53;
+	}
+
+	@Override
+	public float nextFloat() {
+		return (nextLong() >>> 40) * 0x1.0p-24f;
+	}
+
+	@Override
+	public boolean nextBoolean() {
+		return nextLong() < 0;
+	}
+
+	/*
+	 * Polar method like Random, but not synchronized
+	 */
+	@Override
+	public double nextGaussian() {
+		if(haveNextNextGaussian) {
+			haveNextNextGaussian = false;
+			return nextNextGaussian;
+		}
+
+		double v1, v2, s;
+		do {
+			v1 = 2 * nextDouble() - 1;
+			v2 = 2 * nextDouble() - 1;
+			s = v1 * v1 + v2 * v2;
+		} while(s>=1 || s==0);
+		double multiplier = StrictMath.sqrt(-2 * StrictMath.log(s) / s);
+		nextNextGaussian = v2 * multiplier;
+		haveNextNextGaussian = true;
+		return v1 * multiplier;
+	}
+}
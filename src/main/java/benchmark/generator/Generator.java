@@ -22,17 +22,21 @@ import benchmark.model.*;
 import benchmark.serializer.*;
 
 import java.util.*;
+import java.util.concurrent.locks.ReentrantLock;
 
 import benchmark.vocabulary.*;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
 
 public class Generator {
     //Program parameters and default values
-    private static int productCount = 100;
+    private static long productCount = 100;
     private static boolean forwardChaining = false;
     private static String outputDirectory = "td_data";
     private static String outputFileName = "dataset";
@@ -45,9 +49,19 @@ public class Generator {
     private static String updateDatasetTransactionSeparator = "\n#__SEP__\n";
     private static int nrOfTransactionsInUpdateDataset = 1000;
     private static int nrOfProductsPerTransaction = 1;
-    private static int nrOfMinProductNrForUpdate = Integer.MAX_VALUE;
+    private static long nrOfMinProductNrForUpdate = Long.MAX_VALUE;
     private static Serializer updateDatasetSerializer = null;
     private static List<List<BSBMResource>> updateResourceData = null;
+    private static long[] benchmarkProductCounts = null;//Product counts of the benchmark mode
+    private static boolean testDriverDataOnly = false;//Only generate the data for the Test Driver
+    private static boolean legacyTestDriverData = false;//Also write the *.dat files of older versions
+
+    //Checkpoints for resuming an aborted generation
+    private static final int defaultCheckpointInterval = 100;
+    private static int checkpointInterval = 0;//Number of commits between two checkpoints, 0: no checkpoints
+    private static boolean resume = false;
+    private static Checkpoint checkpoint = null;//The checkpoint the generation gets resumed from
+    private static int commitsSinceCheckpoint = 0;
     private static String dictionary1File = "data/titlewords.txt";
     private static String dictionary2File = "data/titlewords.txt";
     private static String dictionary3File = "data/givennames.txt";
@@ -62,7 +76,7 @@ public class Generator {
     static final int avgOffersPerProduct = 20;
     static final int avgOffersPerVendor = productsVendorsRatio * avgOffersPerProduct;
 
-    static final Random seedGenerator = new Random(53223436L);
+    static final Random seedGenerator = new Random(53223436L);//The seeds are the same for all -rng engines
 
     static TextGenerator dictionary1;
     static TextGenerator dictionary2;
@@ -70,8 +84,8 @@ public class Generator {
 
     static GregorianCalendar today = new GregorianCalendar(2008, 5, 20);//Date of 2008-06-20
 
-    static int offerCount;
-    static int reviewCount;
+    static long offerCount;
+    static long reviewCount;
     static int productTypeCount;
     static List<Integer> maxProductTypeNrPerLevel;
 
@@ -79,12 +93,32 @@ public class Generator {
 
     private static ArrayList<ProductType> productTypeLeaves;
     private static ArrayList<ProductType> productTypeNodes;
-    public static ArrayList<Integer> producerOfProduct;//saves producer-product relationship
-    public static ArrayList<Integer> vendorOfOffer;//saves vendor-offer relationship
-    public static ArrayList<Integer> ratingsiteOfReview;//saves review-ratingSite relationship
+    public static ArrayList<Long> producerOfProduct;//saves producer-product relationship
+    public static ArrayList<Long> vendorOfOffer;//saves vendor-offer relationship
+    public static ArrayList<Long> ratingsiteOfReview;//saves review-ratingSite relationship
     private static HashMap<String, Integer> wordList;//Word list for the Test driver
 
     private static Serializer serializer;
+    private static Serializer externalSerializer = null;//Set by generate(), replaces the output format
+    private static boolean quiet = false;//No progress messages, set by generate()
+    private static final ReentrantLock generateLock = new ReentrantLock();//One generate() at a time
+
+    //Model objects which get reused after each commit, objects of the update dataset are not reused
+    private static RecordPool<Product> productRecords = new RecordPool<Product>() {
+        protected Product create() {
+            return new Product();
+        }
+    };
+    private static RecordPool<Offer> offerRecords = new RecordPool<Offer>() {
+        protected Offer create() {
+            return new Offer();
+        }
+    };
+    private static RecordPool<Review> reviewRecords = new RecordPool<Review>() {
+        protected Review create() {
+            return new Review();
+        }
+    };
 
     private static File outputDir;
 
@@ -92,8 +126,7 @@ public class Generator {
     public static void init() {
         if (generateUpdateDataset) {
             if (nrOfProductsPerTransaction * nrOfTransactionsInUpdateDataset > productCount) {
-                System.err.println("Product count not high enough to generate an update dataset of " + (nrOfProductsPerTransaction * nrOfTransactionsInUpdateDataset) + " products");
-                System.exit(-1);
+                exit("Product count not high enough to generate an update dataset of " + (nrOfProductsPerTransaction * nrOfTransactionsInUpdateDataset) + " products");
             }
             nrOfMinProductNrForUpdate = productCount - nrOfProductsPerTransaction * nrOfTransactionsInUpdateDataset + 1;
             updateDatasetSerializer = new NTriples(updateDatasetFileName, forwardChaining);
@@ -104,66 +137,197 @@ public class Generator {
         offerCount = productCount * avgOffersPerProduct;
 
         reviewCount = avgReviewsPerProduct * productCount;
+        if (legacyTestDriverData && (offerCount > Integer.MAX_VALUE || reviewCount > Integer.MAX_VALUE))
+            exit("-tdlegacy: older Test Drivers only read datasets with at most " + Integer.MAX_VALUE + " offers and reviews.");
+
+        producerOfProduct = new ArrayList<Long>();
+        producerOfProduct.add(0L);
+        vendorOfOffer = new ArrayList<Long>();
+        vendorOfOffer.add(0L);
+        ratingsiteOfReview = new ArrayList<Long>();
+        ratingsiteOfReview.add(0L);
+
+        if (externalSerializer != null)
+            serializer = externalSerializer;
+        else if (testDriverDataOnly)
+            serializer = new NullSerializer(forwardChaining);
+        else
+            serializer = getSerializer(serializerType);
+        if (serializer == null) {
+            exit("Invalid Serializer chosen.");
+        }
 
-        producerOfProduct = new ArrayList<Integer>();
-        producerOfProduct.add(0);
-        vendorOfOffer = new ArrayList<Integer>();
-        vendorOfOffer.add(0);
-        ratingsiteOfReview = new ArrayList<Integer>();
-        ratingsiteOfReview.add(0);
+        //The workers of a fan-out still serialize the objects after the commit
+        boolean reuseRecords = !(serializer instanceof FanOutSerializer);
+        productRecords.setEnabled(reuseRecords);
+        offerRecords.setEnabled(reuseRecords);
+        reviewRecords.setEnabled(reuseRecords);
 
-        serializer = getSerializer(serializerType);
-        if (serializer == null) {
-            System.err.println("Invalid Serializer chosen.");
-            System.exit(-1);
+        if (checkpointInterval > 0 && !(serializer instanceof ResumableSerializer)) {
+            exit("Checkpoints are only supported for the output formats nt and json.");
         }
 
         namedGraph = isNamedGraphSerializer();
 
+        //Data generated by generate() or -benchmark doesn't need test driver data
         outputDir = new File(outputDirectory);
-        outputDir.mkdirs();
+        if (externalSerializer == null && benchmarkProductCounts == null)
+            outputDir.mkdirs();
 
         wordList = new HashMap<String, Integer>();
 
-        dictionary1 = new TextGenerator(dictionary1File, seedGenerator.nextLong());
-        dictionary2 = new TextGenerator(dictionary2File, seedGenerator.nextLong());
-        dictionary3 = new TextGenerator(dictionary3File, seedGenerator.nextLong());
-        System.out.println("");
+        try {
+            dictionary1 = new TextGenerator(dictionary1File, seedGenerator.nextLong(), quiet);
+            dictionary2 = new TextGenerator(dictionary2File, seedGenerator.nextLong(), quiet);
+            dictionary3 = new TextGenerator(dictionary3File, seedGenerator.nextLong(), quiet);
+        } catch (IllegalArgumentException e) {
+            exit(e.getMessage());
+        }
+        log("");
+    }
+
+    /*
+     * Ends the command line generator with an error. generate() throws
+     * instead, so the JVM of the application keeps running.
+     */
+    private static void exit(String message) {
+        if (externalSerializer != null)
+            throw new IllegalStateException(message);
+        System.err.println(message);
+        System.exit(-1);
+    }
+
+    /*
+     * Progress message, unless generate() runs quiet
+     */
+    private static void log(String message) {
+        if (!quiet)
+            System.out.println(message);
     }
 
     private static boolean isNamedGraphSerializer() {
+        //Named graphs change the publisher data of the product types in td.bin
+        if (testDriverDataOnly)
+            return serializerType.equalsIgnoreCase("trig");
         if (serializer instanceof TriG)
             return true;
         else
             return false;
     }
 
+    /*
+     * Returns the serializer for one output format or, for a comma separated
+     * list like "nt,json,sql", a serializer writing all of them in one pass.
+     */
     private static Serializer getSerializer(String type) {
-        String t = type.toLowerCase();
+        String[] types = type.toLowerCase().split(",");
+        if (types.length == 1)
+            return getSerializer(types[0], outputFileName);
+
+        Set<String> seen = new HashSet<String>();
+        int nrOfSQLDumps = 0;
+        for (String t : types) {
+            if (!seen.add(t)) {
+                System.err.println("Output format " + t + " chosen more than once.");
+                return null;
+            }
+            if (t.equals("trig")) {
+                System.err.println("TriG generates a named graph model and can't be combined with other output formats.");
+                return null;
+            }
+            if (t.equals("sql") || t.equals("virt") || t.equals("monetdb"))
+                nrOfSQLDumps++;
+        }
+
+        Serializer[] serializers = new Serializer[types.length];
+        for (int i = 0; i < types.length; i++) {
+            String t = types[i];
+            //SQL dumps share their file names, so each one needs its own directory
+            String fileName = outputFileName;
+            if (nrOfSQLDumps > 1 && (t.equals("sql") || t.equals("virt") || t.equals("monetdb")))
+                fileName = outputFileName + "-" + t;
+
+            serializers[i] = getSerializer(t, fileName);
+            if (serializers[i] == null)
+                return null;
+        }
+        return new FanOutSerializer(serializers);
+    }
+
+    private static Serializer getSerializer(String t, String outputFileName) {
+        //When resuming, the existing output gets truncated to the checkpoint instead
         if (t.equals("nt"))
-            return new NTriples(outputFileName, forwardChaining, nrOfOutputFiles);
+            return new NTriples(outputFileName, forwardChaining, nrOfOutputFiles, checkpoint != null);
         else if (t.equals("json"))
-            return new JSON(outputFileName, forwardChaining, nrOfOutputFiles);
+            return new JSON(outputFileName, forwardChaining, nrOfOutputFiles, checkpoint != null);
         else if (t.equals("trig"))
             return new TriG(outputFileName + ".trig", forwardChaining);
         else if (t.equals("ttl"))
             return new Turtle(outputFileName, forwardChaining, nrOfOutputFiles);
         else if (t.equals("xml"))
-            return new XMLSerializer(outputFileName + ".xml", forwardChaining);
+            return new XMLSerializer(OutputBackend.getFileName(outputFileName, ".xml"), forwardChaining);
         else if (t.equals("sql"))
             return new SQLSerializer(outputFileName, forwardChaining, "benchmark");
         else if (t.equals("virt"))
             return new VirtSerializer(outputFileName, forwardChaining);
         else if (t.equals("monetdb"))
             return new MonetDBSerializer(outputFileName, forwardChaining, "benchmark");
+        else if (t.equals("null"))
+            return new NullSerializer(forwardChaining);
+        else if (t.equals("count-bytes"))
+            return new NullSerializer(forwardChaining, true);
         else
             return null;
     }
 
     /*
-     * Write data for the Test Driver to disk
+     * Write data for the Test Driver to disk. The files of older versions are
+     * deleted unless they are written too, so they can't get stale. td.bin is
+     * written last, the Test Driver reads older files only if they are newer.
      */
     public static void writeTestDriverData() {
+        if (legacyTestDriverData)
+            writeLegacyTestDriverData();
+        else
+            for (String name : TestDriverData.legacyFileNames)
+                new File(outputDir, name).delete();
+
+        File td = new File(outputDir, TestDriverData.fileName);
+        try {
+            TestDriverData.write(td, productCount, reviewCount, offerCount, today,
+                    productTypeCount, maxProductTypeNrPerLevel, productTypeLeaves, getTestDriverWords(),
+                    producerOfProduct, vendorOfOffer, ratingsiteOfReview);
+        } catch (IOException e) {
+            System.err.println("Could not open or create file " + td.getAbsolutePath());
+            System.err.println(e.getMessage());
+            System.exit(-1);
+        }
+    }
+
+    /*
+     * The words in the order in which the Test Driver gets them from the
+     * serialized word list of cdlw.dat, so td.bin gives the same queries
+     */
+    private static String[] getTestDriverWords() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        ObjectOutputStream out = new ObjectOutputStream(bytes);
+        out.writeObject(wordList);
+        out.close();
+        ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()));
+        try {
+            @SuppressWarnings("unchecked")
+            HashMap<String, Integer> words = (HashMap<String, Integer>) in.readObject();
+            return words.keySet().toArray(new String[0]);
+        } catch (ClassNotFoundException e) {
+            throw new IOException(e.toString());
+        }
+    }
+
+    /*
+     * Write data for the Test Driver in the format of older versions, with
+     * Integer[] relationships and int counts. init() checks that they fit.
+     */
+    private static void writeLegacyTestDriverData() {
         //Product Type hierarchy to File outputDir/pth.dat
         File pth = new File(outputDir, "pth.dat");
         ObjectOutputStream productTypeOutput;
@@ -186,7 +350,7 @@ public class Generator {
         try {
             pp.createNewFile();
             productProducerOutput = new ObjectOutputStream(new FileOutputStream(pp, false));
-            productProducerOutput.writeObject(producerOfProduct.toArray(new Integer[0]));
+            productProducerOutput.writeObject(toIntegers(producerOfProduct));
         } catch (IOException e) {
             System.err.println("Could not open or create file " + pp.getAbsolutePath());
             System.err.println(e.getMessage());
@@ -199,7 +363,7 @@ public class Generator {
         try {
             vo.createNewFile();
             offerVendorOutput = new ObjectOutputStream(new FileOutputStream(vo, false));
-            offerVendorOutput.writeObject(vendorOfOffer.toArray(new Integer[0]));
+            offerVendorOutput.writeObject(toIntegers(vendorOfOffer));
         } catch (IOException e) {
             System.err.println("Could not open or create file " + vo.getAbsolutePath());
             System.err.println(e.getMessage());
@@ -212,7 +376,7 @@ public class Generator {
         try {
             rr.createNewFile();
             reviewRatingsiteOutput = new ObjectOutputStream(new FileOutputStream(rr, false));
-            reviewRatingsiteOutput.writeObject(ratingsiteOfReview.toArray(new Integer[0]));
+            reviewRatingsiteOutput.writeObject(toIntegers(ratingsiteOfReview));
         } catch (IOException e) {
             System.err.println("Could not open or create file " + rr.getAbsolutePath());
             System.err.println(e.getMessage());
@@ -225,9 +389,9 @@ public class Generator {
         try {
             cdlw.createNewFile();
             currentDateAndLabelWordsOutput = new ObjectOutputStream(new FileOutputStream(cdlw, false));
-            currentDateAndLabelWordsOutput.writeInt(productCount);
-            currentDateAndLabelWordsOutput.writeInt(reviewCount);
-            currentDateAndLabelWordsOutput.writeInt(offerCount);
+            currentDateAndLabelWordsOutput.writeInt((int) productCount);
+            currentDateAndLabelWordsOutput.writeInt((int) reviewCount);
+            currentDateAndLabelWordsOutput.writeInt((int) offerCount);
             currentDateAndLabelWordsOutput.writeObject(today);
             currentDateAndLabelWordsOutput.writeObject(wordList);
         } catch (IOException e) {
@@ -237,6 +401,13 @@ public class Generator {
         }
     }
 
+    private static Integer[] toIntegers(List<Long> values) {
+        Integer[] ints = new Integer[values.size()];
+        for (int i = 0; i < ints.length; i++)
+            ints[i] = values.get(i).intValue();
+        return ints;
+    }
+
     /*
      * Calculate the number of levels and the branching factors
      * for the Product Type Hierarchy
@@ -275,7 +446,7 @@ public class Generator {
      * Creates the Product Types and orders them as a tree.
      */
     public static void createProductTypeHierarchy(Long[] seeds) {
-        System.out.println("Generating Product Type Hierarchy...");
+        log("Generating Product Type Hierarchy...");
         DateGenerator publishDateGen = new DateGenerator(new GregorianCalendar(2000, 05, 20), new GregorianCalendar(2000, 06, 23), seeds[0]);
         ValueGenerator valueGen = new ValueGenerator(seeds[1]);
 
@@ -354,7 +525,7 @@ public class Generator {
         if (nr != maxProductTypeNrPerLevel.get(maxProductTypeNrPerLevel.size() - 1))
             maxProductTypeNrPerLevel.add(nr);
         bundle.commitToSerializer();
-        System.out.println("Product Type Hierarchy of depth " + branchFt.length + " with " + nr + " Product Types generated.\n");
+        log("Product Type Hierarchy of depth " + branchFt.length + " with " + nr + " Product Types generated.\n");
         productTypeCount = nr;
     }
 
@@ -370,7 +541,7 @@ public class Generator {
      * Create Product Features
      */
     public static void createProductFeatures(Long[] seeds) {
-        System.out.println("Generating Product Features...");
+        log("Generating Product Features...");
         ObjectBundle bundle = new ObjectBundle(serializer);
         ValueGenerator valueGen = new ValueGenerator(seeds[0]);
         DateGenerator publishDateGen = new DateGenerator(new GregorianCalendar(2000, 05, 20), new GregorianCalendar(2000, 06, 23), seeds[1]);
@@ -476,7 +647,7 @@ public class Generator {
             pt.setFeatures(features);
         }
         bundle.commitToSerializer();
-        System.out.println((productFeatureNr - 1) + " Product Features generated.\n");
+        log((productFeatureNr - 1) + " Product Features generated.\n");
     }
 
     /*
@@ -495,13 +666,13 @@ public class Generator {
      */
     public static void generateProducerDistribution(Long[] seeds) {
         NormalDistGenerator productCountGen = new NormalDistGenerator(3, 1, avgProductsPerProducer, seeds[3]);
-        Integer productNr = 1;
+        long productNr = 1;
 
         while (productNr <= productCount) {
             //Now generate Products for this Producer
             int hasNrProducts = productCountGen.getValue();
             if (productNr + hasNrProducts - 1 > productCount)
-                hasNrProducts = productCount - productNr + 1;
+                hasNrProducts = (int) (productCount - productNr + 1);
             productNr += hasNrProducts;
             producerOfProduct.add(productNr - 1);
         }
@@ -511,17 +682,30 @@ public class Generator {
      * Creates the Producers and their Products
      */
     public static void createProducerData(Long[] seeds) {
-        System.out.println("Generating Producers and Products...");
+        log("Generating Producers and Products...");
         DateGenerator publishDateGen = new DateGenerator(new GregorianCalendar(2000, 07, 20), new GregorianCalendar(2005, 06, 23), seeds[0]);
         ValueGenerator valueGen = new ValueGenerator(seeds[1]);
         RandomBucket countryGen = createCountryGenerator(seeds[2]);
-        Random productSeedGen = new Random(seeds[4]);
+        Random productSeedGen = RandomSource.create(seeds[4]);
 
         ObjectBundle bundle = new ObjectBundle(serializer);
 
-        int productNr = 1;
+        long productNr = 1;
         int producerNr = 1;
 
+        if (checkpoint != null && checkpoint.phase > Checkpoint.PRODUCERS) {
+            log("Producers and Products have been generated before the checkpoint.\n");
+            return;
+        }
+        if (checkpoint != null && checkpoint.phase == Checkpoint.PRODUCERS) {
+            productNr = checkpoint.counters[0];
+            producerNr = (int) checkpoint.counters[1];
+            publishDateGen.setRanGen(checkpoint.randoms[0]);
+            valueGen.setRanGen(checkpoint.randoms[1]);
+            countryGen.setRanGen(checkpoint.randoms[2]);
+            productSeedGen = checkpoint.randoms[3];
+        }
+
         while (producerNr < producerOfProduct.size()) {
             //Generate Producer data
             int labelNrWords = valueGen.randomInt(1, 3);
@@ -551,22 +735,27 @@ public class Generator {
 
             bundle.add(p);
 
-            int hasNrProducts = producerOfProduct.get(producerNr) - producerOfProduct.get(producerNr - 1);
+            int hasNrProducts = (int) (producerOfProduct.get(producerNr) - producerOfProduct.get(producerNr - 1));
             createProductsOfProducer(bundle, producerNr, productNr, hasNrProducts, productSeedGen);
 
             //All data for current producer generated -> commit (Important for NG-Model).
             bundle.commitToSerializer();
+            releaseRecords();
 
             productNr += hasNrProducts;
             producerNr++;
+
+            if (isCheckpointDue())
+                writeCheckpoint(Checkpoint.PRODUCERS, new long[]{productNr, producerNr},
+                        new Random[]{publishDateGen.getRanGen(), valueGen.getRanGen(), countryGen.getRanGen(), productSeedGen});
         }
-        System.out.println((producerNr - 1) + " Producers and " + (productNr - 1) + " Products have been generated.\n");
+        log((producerNr - 1) + " Producers and " + (productNr - 1) + " Products have been generated.\n");
     }
 
     /*
      * Creates the Products of the specified producer
      */
-    private static void createProductsOfProducer(ObjectBundle bundle, Integer producer, Integer productNr, Integer hasNrProducts, Random productSeedGen) {
+    private static void createProductsOfProducer(ObjectBundle bundle, Integer producer, long productNr, Integer hasNrProducts, Random productSeedGen) {
         DateGenerator publishDateGen = new DateGenerator(new GregorianCalendar(2000, 9, 20), new GregorianCalendar(2007, 0, 23), productSeedGen.nextLong());
         //We want to record used words for product labels
         dictionary1.activateLogging(wordList);
@@ -590,7 +779,7 @@ public class Generator {
         true50.add(50, Boolean.valueOf(false));
         true50.add(50, Boolean.valueOf(true));
 
-        for (int nr = productNr; nr < productNr + hasNrProducts; nr++) {
+        for (long nr = productNr; nr < productNr + hasNrProducts; nr++) {
             //Generate Product data
             int labelNrWords = valueGen.randomInt(1, 3);
             String label = dictionary1.getRandomSentence(labelNrWords);
@@ -600,21 +789,21 @@ public class Generator {
 
             ProductType productType = productTypeLeaves.get(productTypeBroker.getValue() - 1);
 
+            // Decide if the product goes to the update dataset
+            boolean isUpdate = generateUpdateDataset && nr >= nrOfMinProductNrForUpdate;
+            Product p = isUpdate ? new Product() : productRecords.get();
+            p.set(nr, label, comment, productType, producer);
 
             int productPropertyType = (Integer) productPropertyTypeGen.getRandom();
 
             //Generating Product Properties
-            Integer[] numProperties = new Integer[6];
-            String[] textProperties = new String[6];
             for (int i = 0; i < 3; i++) {
-                numProperties[i] = numPropertyGen.getValue();
+                p.setProductPropertyNumeric(i, numPropertyGen.getValue());
                 int nrWords = valueGen.randomInt(3, 15);
-                textProperties[i] = dictionary2.getRandomSentence(nrWords);
+                p.setProductPropertyTextual(i, dictionary2.getRandomSentence(nrWords));
             }
 
             //ProductProperty4
-            numProperties[3] = null;
-            textProperties[3] = null;
             boolean hasNum = false;
             boolean hasText = false;
 
@@ -627,14 +816,12 @@ public class Generator {
             }
 
             if (hasNum)
-                numProperties[3] = numPropertyGen.getValue();
+                p.setProductPropertyNumeric(3, numPropertyGen.getValue());
 
             if (hasText)
-                textProperties[3] = dictionary2.getRandomSentence(valueGen.randomInt(3, 15));
+                p.setProductPropertyTextual(3, dictionary2.getRandomSentence(valueGen.randomInt(3, 15)));
 
             //ProductProperty5
-            numProperties[4] = null;
-            textProperties[4] = null;
             hasNum = false;
             hasText = false;
 
@@ -647,52 +834,46 @@ public class Generator {
             }
 
             if (hasNum)
-                numProperties[4] = numPropertyGen.getValue();
+                p.setProductPropertyNumeric(4, numPropertyGen.getValue());
 
             if (hasText)
-                textProperties[4] = dictionary2.getRandomSentence(valueGen.randomInt(3, 15));
+                p.setProductPropertyTextual(4, dictionary2.getRandomSentence(valueGen.randomInt(3, 15)));
 
             //ProductProperty6
-            numProperties[5] = null;
-            textProperties[5] = null;
             if (productPropertyType == 3) {
                 if ((Boolean) true50.getRandom())
-                    numProperties[5] = numPropertyGen.getValue();
+                    p.setProductPropertyNumeric(5, numPropertyGen.getValue());
                 if ((Boolean) true50.getRandom()) {
                     int nrWords = valueGen.randomInt(3, 15);
-                    textProperties[5] = dictionary2.getRandomSentence(nrWords);
+                    p.setProductPropertyTextual(5, dictionary2.getRandomSentence(nrWords));
                 }
             }
 
             //Assigning Product Features
-            Vector<Integer> features = new Vector<Integer>();
             ProductType tempPT = productType;
             while (tempPT.getParent() != null) {
                 Iterator<Integer> it = tempPT.getFeatures().iterator();
                 while (it.hasNext()) {
                     Integer feature = it.next();
                     if ((Boolean) true25.getRandom())
-                        features.add(feature);
+                        p.addFeature(feature);
                 }
 
                 tempPT = tempPT.getParent();
             }
 
-            Product p = new Product(nr, label, comment, productType, producer);
-
-            p.setProductPropertyNumeric(numProperties);
-            p.setProductPropertyTextual(textProperties);
-            p.setFeatures(features);
-
             //Generate Publisher data
             if (!namedGraph) {
                 p.setPublisher(producer);
                 p.setPublishDate(publishDateGen.randomDateInMillis());
+            } else if (isUpdate) {
+                //The update dataset has no graphs, it gets the data of the graph
+                p.setPublisher(producer);
+                p.setPublishDate(bundle.getPublishDate());
             }
 
-            // Decide if the product goes to the update dataset
-            if (generateUpdateDataset && nr >= nrOfMinProductNrForUpdate)
-                updateResourceData.get(nr - nrOfMinProductNrForUpdate).add(p);
+            if (isUpdate)
+                updateResourceData.get((int) (nr - nrOfMinProductNrForUpdate)).add(p);
             else
                 bundle.add(p);
         }
@@ -702,7 +883,7 @@ public class Generator {
     /*
      * Returns the ProducerNr of given ProductNr
      */
-    public static Integer getProducerOfProduct(Integer productNr) {
+    public static Integer getProducerOfProduct(Long productNr) {
         Integer producerNr = Collections.binarySearch(producerOfProduct, productNr);
         if (producerNr < 0)
             producerNr = -producerNr - 1;
@@ -747,12 +928,12 @@ public class Generator {
     public static void generateVendorDistribution(Long[] seeds) {
         NormalDistGenerator offerCountGenerator = new NormalDistGenerator(3, 1, avgOffersPerVendor, seeds[3]);
 
-        Integer offerNr = 1;
+        long offerNr = 1;
 
         while (offerNr <= offerCount) {
             Integer offerCountVendor = offerCountGenerator.getValue();
             if (offerNr + offerCountVendor - 1 > offerCount)
-                offerCountVendor = offerCount - offerNr + 1;
+                offerCountVendor = (int) (offerCount - offerNr + 1);
 
             offerNr += offerCountVendor;
             vendorOfOffer.add(offerNr - 1);
@@ -763,17 +944,30 @@ public class Generator {
      * Creates the Vendors
      */
     public static void createVendorData(Long[] seeds) {
-        System.out.println("Generating Vendors and their Offers...");
+        log("Generating Vendors and their Offers...");
         DateGenerator publishDateGen = new DateGenerator(new GregorianCalendar(2000, 9, 20), new GregorianCalendar(2007, 0, 23), seeds[0]);
         ValueGenerator valueGen = new ValueGenerator(seeds[1]);
         RandomBucket countryGen = createCountryGenerator(seeds[2]);
-        Random offerSeedGen = new Random(seeds[4]);
+        Random offerSeedGen = RandomSource.create(seeds[4]);
 
         ObjectBundle bundle = new ObjectBundle(serializer);
 
-        Integer offerNr = 1;
+        long offerNr = 1;
         Integer vendorNr = 1;
 
+        if (checkpoint != null && checkpoint.phase > Checkpoint.VENDORS) {
+            log("Vendors and Offers have been generated before the checkpoint.\n");
+            return;
+        }
+        if (checkpoint != null && checkpoint.phase == Checkpoint.VENDORS) {
+            offerNr = checkpoint.counters[0];
+            vendorNr = (int) checkpoint.counters[1];
+            publishDateGen.setRanGen(checkpoint.randoms[0]);
+            valueGen.setRanGen(checkpoint.randoms[1]);
+            countryGen.setRanGen(checkpoint.randoms[2]);
+            offerSeedGen = checkpoint.randoms[3];
+        }
+
         while (offerNr <= offerCount) {
             //Generate Vendor data
             int labelNrWords = valueGen.randomInt(1, 3);
@@ -804,50 +998,58 @@ public class Generator {
             bundle.add(v);
 
             //Get number of offers for this Vendor
-            Integer offerCountVendor = vendorOfOffer.get(vendorNr) - vendorOfOffer.get(vendorNr - 1);
+            Integer offerCountVendor = (int) (vendorOfOffer.get(vendorNr) - vendorOfOffer.get(vendorNr - 1));
             ;
 
             createOffersOfVendor(bundle, vendorNr, offerNr, offerCountVendor, valueGen, offerSeedGen);
 
             //All data for current producer generated -> commit (Important for NG-Model).
             bundle.commitToSerializer();
+            releaseRecords();
 
             offerNr += offerCountVendor;
             vendorNr++;
+
+            if (isCheckpointDue())
+                writeCheckpoint(Checkpoint.VENDORS, new long[]{offerNr, vendorNr},
+                        new Random[]{publishDateGen.getRanGen(), valueGen.getRanGen(), countryGen.getRanGen(), offerSeedGen});
         }
-        System.out.println((vendorNr - 1) + " Vendors and " + (offerNr - 1) + " Offers have been generated.\n");
+        log((vendorNr - 1) + " Vendors and " + (offerNr - 1) + " Offers have been generated.\n");
     }
 
     /*
      * Creates the offers for a product
      */
-    public static void createOffersOfVendor(ObjectBundle bundle, Integer vendor, Integer offerNr, Integer hasNrOffers, ValueGenerator valueGen, Random offerSeedGen) {
+    public static void createOffersOfVendor(ObjectBundle bundle, Integer vendor, long offerNr, Integer hasNrOffers, ValueGenerator valueGen, Random offerSeedGen) {
         NormalDistRangeGenerator deliveryDaysGen = new NormalDistRangeGenerator(2, 1, 21, 14.2, offerSeedGen.nextLong());
         NormalDistRangeGenerator productNrGen = new NormalDistRangeGenerator(2, 1, productCount, 4, offerSeedGen.nextLong());
         DateGenerator dateGen = new DateGenerator(offerSeedGen.nextLong());
 
-        for (int nr = offerNr; nr < offerNr + hasNrOffers; nr++) {
-            int product = productNrGen.getValue();
+        for (long nr = offerNr; nr < offerNr + hasNrOffers; nr++) {
+            long product = productNrGen.getLongValue();
             double price = valueGen.randomDouble(5, 10000);
-            Long publishDate;
+            long publishDate;
             if (namedGraph)
                 publishDate = bundle.getPublishDate();
             else
                 publishDate = dateGen.randomDateInMillis(today.getTimeInMillis() - (97 * DateGenerator.oneDayInMillis), today.getTimeInMillis());
 
-            Long validFrom = publishDate - (valueGen.randomInt(0, 90) * DateGenerator.oneDayInMillis);
-            Long validTo = publishDate + (valueGen.randomInt(7, 90) * DateGenerator.oneDayInMillis);
+            long validFrom = publishDate - (valueGen.randomInt(0, 90) * DateGenerator.oneDayInMillis);
+            long validTo = publishDate + (valueGen.randomInt(7, 90) * DateGenerator.oneDayInMillis);
             int deliveryDays = deliveryDaysGen.getValue();
             String webpage = Vendor.getVendorNS(vendor) + "Offer" + nr + "/";
 
-            Offer offer = new Offer(nr, product, vendor, price, validFrom, validTo, deliveryDays, webpage);
+            boolean isUpdate = generateUpdateDataset && product >= nrOfMinProductNrForUpdate;
+            Offer offer = isUpdate ? new Offer() : offerRecords.get();
+            offer.set(nr, product, vendor, price, validFrom, validTo, deliveryDays, webpage);
 
-            if (!namedGraph) {
+            //The update dataset has no graphs, it gets the data of the graph
+            if (!namedGraph || isUpdate) {
                 offer.setPublishDate(publishDate);
                 offer.setPublisher(vendor);
             }
-            if (generateUpdateDataset && product >= nrOfMinProductNrForUpdate)
-                updateResourceData.get(product - nrOfMinProductNrForUpdate).add(offer);
+            if (isUpdate)
+                updateResourceData.get((int) (product - nrOfMinProductNrForUpdate)).add(offer);
             else
                 bundle.add(offer);
         }
@@ -871,22 +1073,22 @@ public class Generator {
         NormalDistGenerator reviewCountPRSGen = new NormalDistGenerator(3, 1, avgReviewsPerRatingSite, seeds[6]);
         NormalDistGenerator reviewCountPPGen = new NormalDistGenerator(3, 1, avgReviewsPerPerson, seeds[7]);
 
-        Integer reviewNr = 1;
-        Integer personNr = 1;
+        long reviewNr = 1;
+        long personNr = 1;
         Integer ratingSiteNr = 1;
 
         while (reviewNr <= reviewCount) {
             //Get number of reviews for this Rating Site
             Integer reviewCountRatingSite = reviewCountPRSGen.getValue();
             if (reviewNr + reviewCountRatingSite > reviewCount)
-                reviewCountRatingSite = reviewCount - reviewNr + 1;
+                reviewCountRatingSite = (int) (reviewCount - reviewNr + 1);
 
-            Integer maxReviewForRatingSite = reviewNr + reviewCountRatingSite;
+            long maxReviewForRatingSite = reviewNr + reviewCountRatingSite;
 
             while (reviewNr < maxReviewForRatingSite) {
                 Integer reviewCountPerson = reviewCountPPGen.getValue0();
                 if (reviewNr + reviewCountPerson > maxReviewForRatingSite)
-                    reviewCountPerson = maxReviewForRatingSite - reviewNr;
+                    reviewCountPerson = (int) (maxReviewForRatingSite - reviewNr);
 
                 personNr++;
                 reviewNr += reviewCountPerson;
@@ -901,7 +1103,7 @@ public class Generator {
      * Creates the Reviewers
      */
     public static void createRatingSiteData(Long[] seeds) {
-        System.out.println("Generating RatingSite Data: Reviewers and Reviews... ");
+        log("Generating RatingSite Data: Reviewers and Reviews... ");
         DateGenerator publishDateGen = new DateGenerator(new GregorianCalendar(2008, 5, 20), new GregorianCalendar(2008, 8, 23), seeds[0]);
         ValueGenerator valueGen = new ValueGenerator(seeds[1]);
         RandomBucket countryGen = createCountryGenerator(seeds[2]);
@@ -917,17 +1119,31 @@ public class Generator {
         NormalDistGenerator reviewCountPRSGen = new NormalDistGenerator(3, 1, avgReviewsPerRatingSite, seeds[6]);
         NormalDistGenerator reviewCountPPGen = new NormalDistGenerator(3, 1, avgReviewsPerPerson, seeds[7]);
 
-        Integer reviewNr = 1;
-        Integer personNr = 1;
+        long reviewNr = 1;
+        long personNr = 1;
         Integer ratingSiteNr = 1;
 
         ObjectBundle bundle = new ObjectBundle(serializer);
 
+        if (checkpoint != null && checkpoint.phase == Checkpoint.RATINGSITES) {
+            reviewNr = checkpoint.counters[0];
+            personNr = checkpoint.counters[1];
+            ratingSiteNr = (int) checkpoint.counters[2];
+            publishDateGen.setRanGen(checkpoint.randoms[0]);
+            valueGen.setRanGen(checkpoint.randoms[1]);
+            countryGen.setRanGen(checkpoint.randoms[2]);
+            reviewDateGen.setRanGen(checkpoint.randoms[3]);
+            true70.setRanGen(checkpoint.randoms[4]);
+            productNrGen.setRanGen(checkpoint.randoms[5]);
+            reviewCountPRSGen.setRanGen(checkpoint.randoms[6]);
+            reviewCountPPGen.setRanGen(checkpoint.randoms[7]);
+        }
+
         while (reviewNr <= reviewCount) {
             //Get number of reviews for this Rating Site
             Integer reviewCountRatingSite = reviewCountPRSGen.getValue();
             if (reviewNr + reviewCountRatingSite > reviewCount)
-                reviewCountRatingSite = reviewCount - reviewNr + 1;
+                reviewCountRatingSite = (int) (reviewCount - reviewNr + 1);
 
             //Generate provenance data for this rating site
             if (namedGraph) {
@@ -940,7 +1156,7 @@ public class Generator {
                 bundle.setPublisherNum(ratingSiteNr);
             }
             //Now generate persons and reviews
-            Integer maxReviewForRatingSite = reviewNr + reviewCountRatingSite;
+            long maxReviewForRatingSite = reviewNr + reviewCountRatingSite;
 
             while (reviewNr < maxReviewForRatingSite) {
                 //Generate Person data
@@ -964,7 +1180,7 @@ public class Generator {
                 //Now generate Reviews for this Person
                 Integer reviewCountPerson = reviewCountPPGen.getValue0();
                 if (reviewNr + reviewCountPerson > maxReviewForRatingSite)
-                    reviewCountPerson = maxReviewForRatingSite - reviewNr;
+                    reviewCountPerson = (int) (maxReviewForRatingSite - reviewNr);
 
                 createReviewsOfPerson(bundle, p, reviewNr, reviewCountPerson, valueGen, reviewDateGen,
                         productNrGen, publishDateGen, true70);
@@ -974,48 +1190,56 @@ public class Generator {
 
             //All data for current producer generated -> commit (Important for NG-Model).
             bundle.commitToSerializer();
+            releaseRecords();
 
             ratingSiteNr++;
+
+            if (isCheckpointDue())
+                writeCheckpoint(Checkpoint.RATINGSITES, new long[]{reviewNr, personNr, ratingSiteNr},
+                        new Random[]{publishDateGen.getRanGen(), valueGen.getRanGen(), countryGen.getRanGen(),
+                                reviewDateGen.getRanGen(), true70.getRanGen(), productNrGen.getRanGen(),
+                                reviewCountPRSGen.getRanGen(), reviewCountPPGen.getRanGen()});
         }
-        System.out.println((ratingSiteNr - 1) + " Rating Sites with " + (personNr - 1) + " Persons and " + (reviewNr - 1) + " Reviews have been generated.\n");
+        log((ratingSiteNr - 1) + " Rating Sites with " + (personNr - 1) + " Persons and " + (reviewNr - 1) + " Reviews have been generated.\n");
     }
 
 
     /*
      * Creates the reviews for a person
      */
-    private static void createReviewsOfPerson(ObjectBundle bundle, Person person, Integer reviewNr, Integer count,
+    private static void createReviewsOfPerson(ObjectBundle bundle, Person person, long reviewNr, Integer count,
                                               ValueGenerator valueGen, DateGenerator dateGen, NormalDistRangeGenerator prodNrGen,
                                               DateGenerator publishDateGen, RandomBucket true70) {
         for (int i = 0; i < count; i++) {
-            int product = prodNrGen.getValue();
+            long product = prodNrGen.getLongValue();
             int producerOfProduct = getProducerOfProduct(product);
-            int personNr = person.getNr();
-            Long reviewDate = dateGen.randomDateInMillis(today.getTimeInMillis() - DateGenerator.oneDayInMillis * 365, today.getTimeInMillis());
+            long personNr = person.getNr();
+            long reviewDate = dateGen.randomDateInMillis(today.getTimeInMillis() - DateGenerator.oneDayInMillis * 365, today.getTimeInMillis());
             int titleCount = valueGen.randomInt(4, 15);
             String title = dictionary2.getRandomSentence(titleCount);
             int textCount = valueGen.randomInt(50, 200);
             String text = dictionary2.getRandomSentence(textCount);
             int language = ISO3166.countryCodes.get(person.getCountryCode());
 
-            Integer[] ratings = new Integer[4];
+            boolean isUpdate = generateUpdateDataset && product >= nrOfMinProductNrForUpdate;
+            Review review = isUpdate ? new Review() : reviewRecords.get();
+            review.set(reviewNr, product, personNr, reviewDate, title, text, language, producerOfProduct);
 
-            for (int j = 0; j < 4; j++)
+            for (int j = 0; j < Review.nrOfRatings; j++)
                 if ((Boolean) true70.getRandom())
-                    ratings[j] = valueGen.randomInt(1, 10);
-                else
-                    ratings[j] = null;
-
-            Review review = new Review(reviewNr, product, personNr, reviewDate, title, text, ratings, language, producerOfProduct);
+                    review.setRating(j, valueGen.randomInt(1, 10));
 
             if (!namedGraph) {
                 review.setPublishDate(publishDateGen.randomDateInMillis(reviewDate, today.getTimeInMillis()));
+            } else if (isUpdate) {
+                //The update dataset has no graphs, it gets the data of the graph
+                review.setPublishDate(bundle.getPublishDate());
             }
             //needed for qualified name
             review.setPublisher(person.getPublisher());
 
-            if (generateUpdateDataset && product >= nrOfMinProductNrForUpdate)
-                updateResourceData.get(product - nrOfMinProductNrForUpdate).add(review);
+            if (isUpdate)
+                updateResourceData.get((int) (product - nrOfMinProductNrForUpdate)).add(review);
             else
                 bundle.add(review);
 
@@ -1023,6 +1247,97 @@ public class Generator {
         }
     }
 
+    /*
+     * The serializer has consumed the committed objects, so they can be reused
+     */
+    private static void releaseRecords() {
+        productRecords.release();
+        offerRecords.release();
+        reviewRecords.release();
+    }
+
+    /*
+     * Counts the commits of the current phase, a checkpoint is due every checkpointInterval commits
+     */
+    private static boolean isCheckpointDue() {
+        if (checkpointInterval == 0)
+            return false;
+
+        commitsSinceCheckpoint++;
+        if (commitsSinceCheckpoint < checkpointInterval)
+            return false;
+
+        commitsSinceCheckpoint = 0;
+        return true;
+    }
+
+    /*
+     * Writes a checkpoint after the last commit of the given phase
+     */
+    private static void writeCheckpoint(int phase, long[] counters, Random[] randoms) {
+        Checkpoint cp = new Checkpoint();
+        cp.parameters = getCheckpointParameters();
+        cp.phase = phase;
+        cp.counters = counters;
+        cp.randoms = randoms;
+        cp.dictionaryRandoms = new Random[]{dictionary1.getRanGen(), dictionary2.getRanGen(), dictionary3.getRanGen()};
+        cp.setWordList(wordList);
+        cp.updateResourceData = updateResourceData;
+        cp.serializerState = ((ResumableSerializer) serializer).getState();
+        cp.write(getCheckpointFile());
+    }
+
+    /*
+     * Reads the checkpoint to resume from, if there is one
+     */
+    private static void readCheckpoint() {
+        checkpoint = Checkpoint.read(getCheckpointFile());
+        if (checkpoint == null) {
+            System.out.println("No checkpoint found, generating from the beginning.");
+            return;
+        }
+
+        if (!checkpoint.parameters.equals(getCheckpointParameters())) {
+            System.err.println("The checkpoint was written with different parameters:\n\t" + checkpoint.parameters);
+            System.exit(-1);
+        }
+        System.out.println("Resuming from checkpoint " + getCheckpointFile().getPath());
+    }
+
+    /*
+     * Restores the data of the phases before the checkpoint and the global state
+     * of the generator. The output of these phases is already in the output files.
+     */
+    private static void restoreCheckpoint(Long[] ptSeeds, Long[] pfSeeds) {
+        Serializer output = serializer;
+        serializer = new NullSerializer(forwardChaining);
+        createProductTypeHierarchy(ptSeeds);
+        createProductFeatures(pfSeeds);
+        serializer = output;
+
+        dictionary1.setRanGen(checkpoint.dictionaryRandoms[0]);
+        dictionary2.setRanGen(checkpoint.dictionaryRandoms[1]);
+        dictionary3.setRanGen(checkpoint.dictionaryRandoms[2]);
+        wordList = checkpoint.getWordList();
+        updateResourceData = checkpoint.updateResourceData;
+        ((ResumableSerializer) serializer).setState(checkpoint.serializerState);
+    }
+
+    private static File getCheckpointFile() {
+        return new File(outputFileName + ".checkpoint");
+    }
+
+    /*
+     * All parameters which change the generated data
+     */
+    private static String getCheckpointParameters() {
+        return "-pc " + productCount + " -s " + serializerType + (forwardChaining ? " -fc" : "") + " -nof " + nrOfOutputFiles +
+                (generateUpdateDataset ? " -ud -tc " + nrOfTransactionsInUpdateDataset + " -ppt " + nrOfProductsPerTransaction : "") +
+                " -d1 " + dictionary1File + " -d2 " + dictionary2File + " -d3 " + dictionary3File +
+                (RandomSource.getEngine().equals("legacy") ? "" : " -rng " + RandomSource.getEngine()) +
+                (ValueGenerator.getSHA1Mode().equals("compat") ? "" : " -sha1 " + ValueGenerator.getSHA1Mode());
+    }
+
     protected static void createUpdateDataset() {
         int productsInTransaction = 0;
         ObjectBundle bundle = new ObjectBundle(updateDatasetSerializer);
@@ -1047,7 +1362,7 @@ public class Generator {
                 if (args[i].equals("-s")) {
                     serializerType = args[i++ + 1];
                 } else if (args[i].equals("-pc")) {
-                    productCount = Integer.parseInt(args[i++ + 1]);
+                    productCount = Long.parseLong(args[i++ + 1]);
                 } else if (args[i].equals("-fc")) {
                     forwardChaining = true;
                 } else if (args[i].equals("-d1")) {
@@ -1072,6 +1387,45 @@ public class Generator {
                     nrOfProductsPerTransaction = Integer.parseInt(args[i++ + 1]);
                 } else if (args[i].equals("-sep")) {
                     updateDatasetTransactionSeparator = String.valueOf(args[i++ + 1]);
+                } else if (args[i].equals("-backend")) {
+                    if (!OutputBackend.setBackend(args[i++ + 1])) {
+                        System.err.println("Unknown output backend: " + args[i]);
+                        System.exit(-1);
+                    }
+                } else if (args[i].equals("-rng")) {
+                    if (!RandomSource.setEngine(args[i++ + 1])) {
+                        System.err.println("Unknown random number engine: " + args[i]);
+                        System.exit(-1);
+                    }
+                } else if (args[i].equals("-sha1")) {
+                    if (!ValueGenerator.setSHA1Mode(args[i++ + 1])) {
+                        System.err.println("Unknown SHA-1 mode: " + args[i]);
+                        System.exit(-1);
+                    }
+                } else if (args[i].equals("-bs")) {
+                    if (!OutputBackend.setBufferSizeMB(Integer.parseInt(args[i++ + 1]))) {
+                        System.err.println("Buffer size must be between 1 and " + OutputBackend.maxBufferSizeMB + " MB: " + args[i]);
+                        printUsageInfos();
+                        System.exit(-1);
+                    }
+                } else if (args[i].equals("-checkpoint")) {
+                    checkpointInterval = Integer.parseInt(args[i++ + 1]);
+                    if (checkpointInterval < 1) {
+                        System.err.println("Checkpoint interval must be at least 1: " + args[i]);
+                        printUsageInfos();
+                        System.exit(-1);
+                    }
+                } else if (args[i].equals("-resume")) {
+                    resume = true;
+                } else if (args[i].equals("-tdonly")) {
+                    testDriverDataOnly = true;
+                } else if (args[i].equals("-tdlegacy")) {
+                    legacyTestDriverData = true;
+                } else if (args[i].equals("-benchmark")) {
+                    String[] counts = args[i++ + 1].split(",");
+                    benchmarkProductCounts = new long[counts.length];
+                    for (int j = 0; j < counts.length; j++)
+                        benchmarkProductCounts[j] = Long.parseLong(counts[j]);
                 } else {
                     printUsageInfos();
                     System.exit(-1);
@@ -1093,9 +1447,11 @@ public class Generator {
     public static void printUsageInfos() {
         String output = "Usage:\n\n" +
                 "Possible options are:\n" +
-                "\t-s <output format>\n" +
-                "\t\twhere <output format>: nt (N-Triples), trig (TriG), ttl (Turtle), sql (MySQL dump), virt (Virtuoso SQL dump), monetdb (SQL), xml (XML dump), json (JSON)\n" +
+                "\t-s <output format>[,<output format>...]\n" +
+                "\t\twhere <output format>: nt (N-Triples), trig (TriG), ttl (Turtle), sql (MySQL dump), virt (Virtuoso SQL dump), monetdb (SQL), xml (XML dump), json (JSON),\n" +
+                "\t\t\tnull (no output, only resources and triples are counted), count-bytes (N-Triples formatted and discarded, bytes are counted)\n" +
                 "\t\tdefault: nt\n" +
+                "\t\tSeveral comma separated formats (e.g. nt,json,sql) are written concurrently in one generation run.\n" +
                 "\t\tNote:\tBy chosing a named graph output format like TriG,\n\t\t\ta named graph model gets generated.\n" +
                 "\t-pc <product count>\n" +
                 "\t\tdefault: 100\n" +
@@ -1113,7 +1469,9 @@ public class Generator {
                 "\t\tThe output directory for the Test Driver data\n" +
                 "\t\tdefault: td_data\n" +
                 "\t-fn <dataset file name>\n" +
-                "\t\tThe file name without the output format suffix\n" +
+                "\t\tThe file name without the output format suffix, - for stdout (only for\n" +
+                "\t\t-s nt, json, ttl or xml). Existing named pipes (e.g. dataset1.nt and dataset2.nt\n" +
+                "\t\tfor -nof 2) are fed by a writer thread each.\n" +
                 "\t\tdefault: dataset\n" +
                 "\t-ufn <update dataset file name>\n" +
                 "\t\tThe file name without the output format suffix\n" +
@@ -1127,17 +1485,148 @@ public class Generator {
                 "\t\tdefault: 1000\n" +
                 "\t-ppt <number of products per update transactions>\n" +
                 "\t\tShould be used in combination with -ud.\n" +
-                "\t\tdefault: 1\n";
+                "\t\tdefault: 1\n" +
+                "\t-backend <output backend>\n" +
+                "\t\twhere <output backend>: writer (java.io.FileWriter), channel (FileChannel with two\n" +
+                "\t\t\tdirect buffers, written in the background), mmap (memory mapped file windows,\n" +
+                "\t\t\tforced to the disk when the file is closed)\n" +
+                "\t\tdefault: channel\n" +
+                "\t-rng <random number engine>\n" +
+                "\t\twhere <random number engine>: legacy (java.util.Random, reproduces the datasets\n" +
+                "\t\t\tof earlier versions), fast (xoroshiro128++, a different dataset)\n" +
+                "\t\tdefault: legacy\n" +
+                "\t-sha1 <mode>\n" +
+                "\t\tThe SHA-1 mailbox checksums of persons: compat (leading zeros of every byte\n" +
+                "\t\t\tdropped like in earlier versions), full (40 hex digits)\n" +
+                "\t\tdefault: compat\n" +
+                "\t-bs <buffer size in MB>\n" +
+                "\t\tSize of each buffer or mapped window of the output backend, 1 to 1024.\n" +
+                "\t\tThe channel backend uses two direct buffers per output file, which grow\n" +
+                "\t\tup to this size: a large file takes up to twice the size of off-heap\n" +
+                "\t\tmemory (SQL dumps: 10 files, more with several output formats). It is\n" +
+                "\t\tlimited by -XX:MaxDirectMemorySize, by default the maximum heap size.\n" +
+                "\t\tdefault: 8\n" +
+                "\t-checkpoint <number of commits>\n" +
+                "\t\tWrite a checkpoint <dataset file name>.checkpoint every <number of commits>\n" +
+                "\t\tproducers, vendors or rating sites. Only for -s nt or json\n" +
+                "\t-resume\tResume an aborted generation from its last checkpoint.\n" +
+                "\t\tThe same options as for the aborted generation have to be used.\n" +
+                "\t-tdonly\tOnly write the Test Driver data, e.g. for a dataset generated elsewhere\n" +
+                "\t\twith the same -pc and -s. No dataset and update dataset are written.\n" +
+                "\t-tdlegacy\tAlso write the Test Driver data in the format of older Test Driver\n" +
+                "\t\tversions (pth.dat, pp.dat, vo.dat, rr.dat, cdlw.dat) besides td.bin. Only for\n" +
+                "\t\tdatasets with at most 2147483647 offers and reviews (-pc 107374182).\n" +
+                "\t\tWithout it, these files are deleted from the output directory.\n" +
+                "\t-benchmark <product count>[,<product count>...]\n" +
+                "\t\tBenchmark the generator: for every product count the dataset is generated\n" +
+                "\t\tinto the null and the count-bytes sink and triples/s and bytes/s are reported\n" +
+                "\t\tper generation phase. No files are written, -s and -pc are ignored.\n";
         System.out.print(output);
     }
 
-    /**
-     * @param args
+    /*
+     * Benchmark mode: generates the dataset for every product count into the null
+     * sink (pure generation) and the count-bytes sink (generation and formatting)
+     * and reports the throughput of every generation phase.
      */
-    public static void main(String[] args) {
-        processProgramParameters(args);
-        init();
+    private static void runBenchmark() {
+        String[] sinks = {"null", "count-bytes"};
+        String[] phases = {"seeds/distributions", "product types", "product features",
+                "producers/products", "vendors/offers", "rating sites/reviews", "serialize"};
+        List<String> report = new ArrayList<String>();
+        report.add(String.format(Locale.US, "%-12s %10s  %-21s %9s %12s %14s %14s",
+                "sink", "products", "phase", "time (s)", "triples", "triples/s", "bytes/s"));
+
+        generateUpdateDataset = false;
+        for (long pc : benchmarkProductCounts) {
+            for (String sink : sinks) {
+                //Every run generates exactly the same data
+                seedGenerator.setSeed(53223436L);
+                productCount = pc;
+                serializerType = sink;
+                init();
+                NullSerializer sinkSerializer = (NullSerializer) serializer;
+
+                long[] time = new long[phases.length + 1];
+                long[] triples = new long[phases.length + 1];
+                long[] bytes = new long[phases.length + 1];
+                int phase = 0;
+                time[phase] = System.nanoTime();
+
+                Long[] ptSeeds = generateSeedsProductType();
+                Long[] pfSeeds = generateSeedsProductFeature();
+                Long[] producerSeeds = generateSeedsProducer();
+                Long[] vendorSeeds = generateSeedsVendor();
+                Long[] rtSeeds = generateSeedsRatingSite();
+                generateProducerDistribution(producerSeeds);
+                generateVendorDistribution(vendorSeeds);
+                generateRatingSiteDistribution(rtSeeds);
+                endPhase(++phase, time, triples, bytes, sinkSerializer);
+
+                createProductTypeHierarchy(ptSeeds);
+                endPhase(++phase, time, triples, bytes, sinkSerializer);
+                createProductFeatures(pfSeeds);
+                endPhase(++phase, time, triples, bytes, sinkSerializer);
+                createProducerData(producerSeeds);
+                endPhase(++phase, time, triples, bytes, sinkSerializer);
+                createVendorData(vendorSeeds);
+                endPhase(++phase, time, triples, bytes, sinkSerializer);
+                createRatingSiteData(rtSeeds);
+                endPhase(++phase, time, triples, bytes, sinkSerializer);
+                serializer.serialize();
+                endPhase(++phase, time, triples, bytes, sinkSerializer);
+
+                for (int i = 1; i <= phases.length; i++)
+                    report.add(formatBenchmarkLine(sink, pc, phases[i - 1], time[i] - time[i - 1],
+                            triples[i] - triples[i - 1], bytes[i] - bytes[i - 1], sinkSerializer.bytesGenerated() > 0));
+                report.add(formatBenchmarkLine(sink, pc, "total", time[phases.length] - time[0],
+                        triples[phases.length], bytes[phases.length], sinkSerializer.bytesGenerated() > 0));
+            }
+        }
+
+        System.out.println();
+        for (String line : report)
+            System.out.println(line);
+    }
+
+    private static void endPhase(int phase, long[] time, long[] triples, long[] bytes, NullSerializer sink) {
+        time[phase] = System.nanoTime();
+        triples[phase] = sink.triplesGenerated();
+        bytes[phase] = sink.bytesGenerated();
+    }
+
+    private static String formatBenchmarkLine(String sink, long pc, String phase, long nanos, long triples, long bytes, boolean countsBytes) {
+        double seconds = nanos / 1000000000.0;
+        String triplesPerSecond = seconds > 0 ? String.format(Locale.US, "%.0f", triples / seconds) : "-";
+        String bytesPerSecond = countsBytes && seconds > 0 ? String.format(Locale.US, "%.0f", bytes / seconds) : "-";
+        return String.format(Locale.US, "%-12s %10d  %-21s %9.3f %12d %14s %14s",
+                sink, pc, phase, seconds, triples, triplesPerSecond, bytesPerSecond);
+    }
+
+    /*
+     * The dataset gets written to stdout, so all messages go to stderr
+     */
+    private static void useStdout() {
+        String type = serializerType.toLowerCase();
+        if (!type.equals("nt") && !type.equals("json") && !type.equals("ttl") && !type.equals("xml")) {
+            System.err.println("Only the output formats nt, json, ttl and xml can be written to stdout.");
+            System.exit(-1);
+        }
+        if (nrOfOutputFiles > 1) {
+            System.err.println("Stdout is only one output file, use named pipes for -nof " + nrOfOutputFiles + ".");
+            System.exit(-1);
+        }
+        if (checkpointInterval > 0 || resume) {
+            System.err.println("Checkpoints are not supported for stdout.");
+            System.exit(-1);
+        }
+        System.setOut(System.err);
+    }
 
+    /*
+     * Generates all resources into the serializer
+     */
+    private static void generateDataset() {
         Long[] ptSeeds = generateSeedsProductType();
         Long[] pfSeeds = generateSeedsProductFeature();
         Long[] producerSeeds = generateSeedsProducer();
@@ -1148,14 +1637,113 @@ public class Generator {
         generateVendorDistribution(vendorSeeds);
         generateRatingSiteDistribution(rtSeeds);
 
-        createProductTypeHierarchy(ptSeeds);
-        createProductFeatures(pfSeeds);
+        if (checkpoint == null) {
+            createProductTypeHierarchy(ptSeeds);
+            createProductFeatures(pfSeeds);
+        } else
+            restoreCheckpoint(ptSeeds, pfSeeds);
         createProducerData(producerSeeds);
         createVendorData(vendorSeeds);
         createRatingSiteData(rtSeeds);
 
         serializer.serialize();
+    }
+
+    /*
+     * Generates only what the Test Driver data in td.bin depends on: the
+     * distributions determine the relationships, the product types and
+     * features the product type hierarchy. The producers and products are
+     * generated without output and without their texts for the product
+     * label words.
+     * Offers, reviews and persons are skipped.
+     */
+    private static void generateTestDriverData() {
+        generateUpdateDataset = false;
+        checkpointInterval = 0;
+        init();
+
+        Long[] ptSeeds = generateSeedsProductType();
+        Long[] pfSeeds = generateSeedsProductFeature();
+        Long[] producerSeeds = generateSeedsProducer();
+        Long[] vendorSeeds = generateSeedsVendor();
+        Long[] rtSeeds = generateSeedsRatingSite();
+
+        generateProducerDistribution(producerSeeds);
+        generateVendorDistribution(vendorSeeds);
+        generateRatingSiteDistribution(rtSeeds);
+
+        createProductTypeHierarchy(ptSeeds);
+        createProductFeatures(pfSeeds);
+        //Only the labels of dictionary 1 are logged
+        dictionary2.setSkipText(true);
+        createProducerData(producerSeeds);
+
         writeTestDriverData();
+        System.out.println("Test Driver data written to " + outputDir.getPath());
+    }
+
+    /*
+     * Generates the dataset of the given product count into target instead of
+     * the output files of the command line, without test driver data, update
+     * dataset and checkpoints. The generator state is static, so only one
+     * dataset gets generated at a time. Quiet generation prints no progress
+     * messages. Errors are thrown instead of ending the JVM.
+     */
+    static void generate(long pc, Serializer target, boolean quietly) {
+        generateLock.lock();
+        try {
+            //Every call generates exactly the same data
+            seedGenerator.setSeed(53223436L);
+            productCount = pc;
+            generateUpdateDataset = false;
+            checkpointInterval = 0;
+            checkpoint = null;
+            externalSerializer = target;
+            quiet = quietly;
+            init();
+            generateDataset();
+        } finally {
+            externalSerializer = null;
+            quiet = false;
+            generateLock.unlock();
+        }
+    }
+
+    /*
+     * Whether other threads wait in generate(), so a generation which waits
+     * for its consumer should give way
+     */
+    static boolean isGenerateRequested() {
+        return generateLock.hasQueuedThreads();
+    }
+
+    /**
+     * @param args
+     */
+    public static void main(String[] args) {
+        processProgramParameters(args);
+        if (benchmarkProductCounts != null) {
+            runBenchmark();
+            return;
+        }
+        if (testDriverDataOnly) {
+            generateTestDriverData();
+            return;
+        }
+        if (OutputBackend.isStdout(outputFileName))
+            useStdout();
+        if (resume) {
+            if (checkpointInterval == 0)
+                checkpointInterval = defaultCheckpointInterval;
+            readCheckpoint();
+        }
+        init();
+        generateDataset();
+        writeTestDriverData();
+
+        //The generation is complete, there is nothing left to resume
+        if (checkpointInterval > 0)
+            getCheckpointFile().delete();
 
         if (generateUpdateDataset)
             createUpdateDataset();
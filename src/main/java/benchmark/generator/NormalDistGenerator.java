@@ -14,7 +14,7 @@ public class NormalDistGenerator {
 		normal 	= new NormalDistQuick(mu,sigma);
 		this.mu = mu;
 		avg		= avgValue;
-		ranGen = new Random(seed);
+		ranGen = RandomSource.create(seed);
 	}
 	
 	//Returns 1-x
@@ -37,5 +37,15 @@ public class NormalDistGenerator {
 		
 		return (int) ((randVal / mu) * avg);
 	}
-	
+
+	/*
+	 * The state of the random number generator, used for checkpoints
+	 */
+	public Random getRanGen() {
+		return ranGen;
+	}
+
+	public void setRanGen(Random ranGen) {
+		this.ranGen = ranGen;
+	}
 }
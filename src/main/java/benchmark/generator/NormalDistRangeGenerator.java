@@ -8,25 +8,44 @@ import java.util.Random;
  */
 public class NormalDistRangeGenerator {
 	private NormalDistQuick normal;
-	private int max;
+	private long max;
 	private double normalLimit;
 	private Random ranGen;
 	
-	public NormalDistRangeGenerator(double mu, double sigma, int maxValue, double normalLimit, long seed)
+	public NormalDistRangeGenerator(double mu, double sigma, long maxValue, double normalLimit, long seed)
 	{
 		normal 	= new NormalDistQuick(mu,sigma);
 		max		= maxValue;
 		this.normalLimit = normalLimit;
-		ranGen = new Random(seed);
+		ranGen = RandomSource.create(seed);
 	}
 	
 	public int getValue()
+	{
+		return (int) getLongValue();
+	}
+	
+	/*
+	 * For ranges beyond the int range, like the product numbers
+	 */
+	public long getLongValue()
 	{
 		double randVal = normal.inverseF(ranGen.nextDouble());
 		
 		while(randVal > normalLimit || randVal < 0)
 			randVal = normal.inverseF(ranGen.nextDouble());
 		
-		return (int) ((randVal / normalLimit) * max + 1);
+		return (long) ((randVal / normalLimit) * max + 1);
+	}
+
+	/*
+	 * The state of the random number generator, used for checkpoints
+	 */
+	public Random getRanGen() {
+		return ranGen;
+	}
+
+	public void setRanGen(Random ranGen) {
+		this.ranGen = ranGen;
 	}
 }
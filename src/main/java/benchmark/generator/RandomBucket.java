@@ -25,7 +25,7 @@ public class RandomBucket {
 		objects = new Object[size];
 		index=0;
 		totalPercentage = 0.0;
-		ranGen = new Random(seed);
+		ranGen = RandomSource.create(seed);
 	}
 	
 	public void add(double percentage, Object obj)
@@ -67,4 +67,15 @@ public class RandomBucket {
 		//Should never happens, but...
 		return objects[objects.length-1];
 	}
+
+	/*
+	 * The state of the random number generator, used for checkpoints
+	 */
+	public Random getRanGen() {
+		return ranGen;
+	}
+
+	public void setRanGen(Random ranGen) {
+		this.ranGen = ranGen;
+	}
 }
@@ -0,0 +1,75 @@
+package benchmark.generator;
+
+import java.util.Locale;
+import java.util.Random;
+
+/*
+ * Creates the random number generators of all generator components.
+ * Possible engines are:
+ *   legacy: java.util.Random, the same seed gives the same dataset as before (default)
+ *   fast:   FastRandom (xoroshiro128++), a different but also reproducible dataset
+ */
+public class RandomSource {
+	private static String engine = "legacy";
+
+	/*
+	 * Returns false for an unknown engine
+	 */
+	public static boolean setEngine(String name) {
+		if(!name.equals("legacy") && !name.equals("fast"))
+			return false;
+
+		engine = name;
+		return true;
+	}
+
+	public static String getEngine() {
+		return engine;
+	}
+
+	public static Random create(long seed) {
+		return create(engine, seed);
+	}
+
+	private static Random create(String engine, long seed) {
+		if(engine.equals("fast"))
+			return new FastRandom(seed);
+		else
+			return new Random(seed);
+	}
+
+	/*
+	 * Micro benchmark of the engines: nanoseconds per call of the methods
+	 * the generator components use
+	 */
+	public static void main(String[] args) {
+		long calls = args.length > 0 ? Long.parseLong(args[0]) : 100000000L;
+		String[] engines = {"legacy", "fast"};
+		String[] methods = {"nextInt(bound)", "nextDouble()", "nextLong()"};
+
+		System.out.println(String.format(Locale.US, "%-8s %-16s %10s", "engine", "method", "ns/call"));
+		//The first round is the warm-up
+		for(int round=0;round<2;round++) {
+			for(String e : engines) {
+				for(int m=0;m<methods.length;m++) {
+					Random random = create(e, 53223436L);
+					long sink = 0;
+					long start = System.nanoTime();
+					for(long i=0;i<calls;i++) {
+						if(m==0)
+							sink += random.nextInt(1000);
+						else if(m==1)
+							sink += (long)(random.nextDouble() * 1000);
+						else
+							sink += random.nextLong();
+					}
+					long time = System.nanoTime() - start;
+					if(round==1)
+						System.out.println(String.format(Locale.US, "%-8s %-16s %10.2f", e, methods[m], (double)time / calls));
+					if(sink==42)
+						System.out.println();
+				}
+			}
+		}
+	}
+}
@@ -0,0 +1,45 @@
+package benchmark.generator;
+
+import java.util.ArrayList;
+
+/*
+ * Model objects which get reused for the next bundle once the serializer
+ * has consumed the current one. A generation run then only allocates as many
+ * objects of a kind as the largest bundle holds.
+ */
+abstract class RecordPool<T> {
+	private ArrayList<T> records = new ArrayList<T>();
+	private int used = 0;
+	private boolean enabled = true;
+
+	/*
+	 * Returns a free record, which the caller has to fill completely
+	 */
+	T get() {
+		if(!enabled)
+			return create();
+
+		if(used==records.size())
+			records.add(create());
+		return records.get(used++);
+	}
+
+	/*
+	 * All records handed out since the last release are free again
+	 */
+	void release() {
+		used = 0;
+	}
+
+	/*
+	 * A disabled pool always returns new records, e.g. for serializers
+	 * which still use the objects after the commit
+	 */
+	void setEnabled(boolean enabled) {
+		this.enabled = enabled;
+		records.clear();
+		used = 0;
+	}
+
+	protected abstract T create();
+}
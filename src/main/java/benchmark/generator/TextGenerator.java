@@ -10,6 +10,8 @@ public class TextGenerator {
 	private Random ranGen;
 	private HashMap<String,Integer> logList;//The word list for the Test Driver
 	private Vector<String> words;//For faster access, save all words in Vector-Array
+	private boolean skipText = false;
+	private boolean quiet = false;//No progress messages on System.out
 	
 	private final static int FINDSTART = 1;
 	private final static int READWORD = 2;
@@ -25,7 +27,13 @@ public class TextGenerator {
 	
 	public TextGenerator(String file, long seed)
 	{
-		ranGen = new Random(seed);
+		this(file, seed, false);
+	}
+	
+	public TextGenerator(String file, long seed, boolean quiet)
+	{
+		ranGen = RandomSource.create(seed);
+		this.quiet = quiet;
 		
 		init(file);
 	}
@@ -36,11 +44,11 @@ public class TextGenerator {
 			dictionary = new RandomAccessFile(file,"r");
 			
 		} catch(IOException e) {
-			System.err.println(e.getMessage());
-			System.exit(-1);
+			throw new IllegalArgumentException(e.getMessage(), e);
 		}
 		
-		System.out.print("Reading in " + file + ": ");
+		if(!quiet)
+			System.out.print("Reading in " + file + ": ");
 		logList = null;
 			
 		createWordList();
@@ -48,8 +56,7 @@ public class TextGenerator {
 		try {
 			dictionary.close();
 		} catch(IOException e) {
-			System.err.println(e.getMessage());
-			System.exit(-1);
+			throw new IllegalArgumentException(e.getMessage(), e);
 		}
 	}
 	
@@ -100,7 +107,8 @@ public class TextGenerator {
 				System.err.println("Couldn't get word.\n"+e.getMessage());
 			}
 		}
-		System.out.println(words.size() + " words read in.");
+		if(!quiet)
+			System.out.println(words.size() + " words read in.");
 	}
 	
 	//reads a random word from the text file
@@ -129,6 +137,9 @@ public class TextGenerator {
 	 */
 	public String getRandomSentence(int numberWords)
 	{
+		if(skipText)
+			return "";
+		
 		StringBuffer sentence = new StringBuffer();
 		
 		if(numberWords>0)
@@ -186,4 +197,23 @@ public class TextGenerator {
 	public void deactivateLogging() {
 		this.logList = null;
 	}
+	
+	/*
+	 * If set, getRandomSentence() returns empty sentences without drawing
+	 * any words. Used when the generated texts aren't needed.
+	 */
+	public void setSkipText(boolean skipText) {
+		this.skipText = skipText;
+	}
+
+	/*
+	 * The state of the random number generator, used for checkpoints
+	 */
+	public Random getRanGen() {
+		return ranGen;
+	}
+
+	public void setRanGen(Random ranGen) {
+		this.ranGen = ranGen;
+	}
 }
@@ -4,11 +4,18 @@ import java.security.*;
 import java.util.Random;
 
 public class ValueGenerator {
+	private static final char[] hexDigits = "0123456789abcdef".toCharArray();
+	//compat: leading zeros of every byte get dropped like in earlier versions, full: 40 hex digits
+	private static boolean fullSHA1 = false;
+
 	private Random ranGen;
+	private MessageDigest sha1;
+	private byte[] sha1Input = new byte[4];
+	private char[] sha1Hex = new char[40];
 	
 	public ValueGenerator(long seed)
 	{
-		ranGen = new Random(seed);
+		ranGen = RandomSource.create(seed);
 	}
 	
 	/*
@@ -28,11 +35,15 @@ public class ValueGenerator {
 	}
 	
 	/*
-	 * Returns a long value between from and to
+	 * Returns a long value between from and to (inclusive). Ranges which
+	 * fit into an int give the same values as randomInt().
 	 */
 	public long randomLong(long from, long to)
 	{
-		return (long)ranGen.nextDouble()*(to-from+1) + from;
+		if(to-from < Integer.MAX_VALUE)
+			return ranGen.nextInt((int)(to-from+1)) + from;
+
+		return (long)(ranGen.nextDouble()*(to-from+1)) + from;
 	}
 	
 	/*
@@ -50,29 +61,53 @@ public class ValueGenerator {
 			
 	}
 	
+	/*
+	 * Returns the hex encoded SHA-1 hash of a random int
+	 */
 	public String randomSHA1()
 	{
-		byte[] b = new byte[4];
 		int i = ranGen.nextInt();
 
 		for(int j=0;j<4;j++)
 		{
-			b[j] = (byte)(i % 256);
+			sha1Input[j] = (byte)(i % 256);
 			i >>= 8;
 		}
 		
-		MessageDigest md=null;
-		try{
-			md = MessageDigest.getInstance("SHA1");
-		} catch(java.security.NoSuchAlgorithmException e) { System.err.println(e.getMessage()); System.exit(-1);}
-		
-		byte[] chksum = md.digest(b);
-		StringBuffer result=new StringBuffer();
+		if(sha1==null) {
+			try{
+				sha1 = MessageDigest.getInstance("SHA1");
+			} catch(java.security.NoSuchAlgorithmException e) { throw new IllegalStateException(e.getMessage(), e); }
+		}
 		
+		byte[] chksum = sha1.digest(sha1Input);
+		int length = 0;
 		for(int j=0;j<chksum.length;j++)
-			result.append(Integer.toHexString(0xFF & chksum[j]));
+		{
+			int b = 0xFF & chksum[j];
+			if(fullSHA1 || b>=16)
+				sha1Hex[length++] = hexDigits[b >>> 4];
+			sha1Hex[length++] = hexDigits[b & 0xF];
+		}
 		
-		return result.toString();
+		return new String(sha1Hex, 0, length);
+	}
+	
+	/*
+	 * Returns false for an unknown mode
+	 */
+	public static boolean setSHA1Mode(String mode)
+	{
+		if(!mode.equals("compat") && !mode.equals("full"))
+			return false;
+
+		fullSHA1 = mode.equals("full");
+		return true;
+	}
+	
+	public static String getSHA1Mode()
+	{
+		return fullSHA1 ? "full" : "compat";
 	}
 	
 	
@@ -82,4 +117,15 @@ public class ValueGenerator {
 		
 		System.out.println(textGen.getRandomSentence(20));
 	}
+
+	/*
+	 * The state of the random number generator, used for checkpoints
+	 */
+	public Random getRanGen() {
+		return ranGen;
+	}
+
+	public void setRanGen(Random ranGen) {
+		this.ranGen = ranGen;
+	}
 }
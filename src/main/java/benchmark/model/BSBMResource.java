@@ -1,20 +1,43 @@
 package benchmark.model;
 
+import java.io.Serializable;
 
-public abstract class BSBMResource {
-	Integer publisher=null;//Nr. of publisher
-	Long publishDate=null;
+public abstract class BSBMResource implements Serializable {
+	private static final long serialVersionUID = 1L;
+	//Bits of the publisher data which is set
+	private static final byte PUBLISHER = 1;
+	private static final byte PUBLISH_DATE = 2;
 	
-	public Integer getPublisher() {
+	int publisher;//Nr. of publisher
+	long publishDate;
+	byte publisherData;
+	
+	public int getPublisher() {
 		return publisher;
 	}
-	public void setPublisher(Integer publisher) {
+	public void setPublisher(int publisher) {
 		this.publisher = publisher;
+		publisherData |= PUBLISHER;
+	}
+	public boolean hasPublisher() {
+		return (publisherData & PUBLISHER) != 0;
 	}
-	public Long getPublishDate() {
+	public long getPublishDate() {
 		return publishDate;
 	}
-	public void setPublishDate(Long publishDate) {
+	public void setPublishDate(long publishDate) {
 		this.publishDate = publishDate;
+		publisherData |= PUBLISH_DATE;
+	}
+	public boolean hasPublishDate() {
+		return (publisherData & PUBLISH_DATE) != 0;
+	}
+	/*
+	 * Clears the publisher data of a reused object
+	 */
+	protected void clearPublisherData() {
+		publisher = 0;
+		publishDate = 0;
+		publisherData = 0;
 	}
 }
@@ -0,0 +1,63 @@
+package benchmark.model;
+
+import benchmark.vocabulary.BSBM;
+
+/*
+ * Cache of the rendered namespaces and URIs of producers, vendors or rating
+ * sites. Every product, offer, review and person URI contains the namespace
+ * of its publisher, with the cache it gets rendered once per publisher
+ * instead of once per reference.
+ * The cache is direct mapped, a publisher replaces the entry of another one
+ * in the same slot. The entries are immutable, so several threads can share
+ * the cache.
+ */
+class NamespaceCache {
+	private static final int size = 1 << 14;//Power of two
+
+	private String dataFrom;
+	private String type;
+	private Entry[] entries = new Entry[size];
+
+	/*
+	 * dataFrom: the local name of the namespace without number, e.g. "dataFromProducer"
+	 * type: the local name of the publisher without number, e.g. "Producer"
+	 */
+	NamespaceCache(String dataFrom, String type)
+	{
+		this.dataFrom = dataFrom;
+		this.type = type;
+	}
+
+	Entry get(int nr)
+	{
+		int slot = nr & (size - 1);
+		Entry entry = entries[slot];
+		//The instance namespace can be changed by BSBM.setNewPrefixesAndNS()
+		if(entry==null || entry.nr!=nr || entry.instNS!=BSBM.INST_NS) {
+			entry = new Entry(nr, BSBM.INST_NS, dataFrom, type);
+			entries[slot] = entry;
+		}
+		return entry;
+	}
+
+	static class Entry {
+		final int nr;
+		final String instNS;
+		final String ns;//e.g. http://.../instances/dataFromProducer1/
+		final String nsPrefixed;//e.g. dataFromProducer1:
+		final String uriRef;//e.g. <http://.../instances/dataFromProducer1/Producer1>
+		final String jsonURIref;
+		final String prefixed;//e.g. dataFromProducer1:Producer1
+
+		Entry(int nr, String instNS, String dataFrom, String type)
+		{
+			this.nr = nr;
+			this.instNS = instNS;
+			ns = instNS + dataFrom + nr + "/";
+			nsPrefixed = dataFrom + nr + ":";
+			uriRef = "<" + ns + type + nr + ">";
+			jsonURIref = "\"type\":\"uri\",\"value\":\"" + ns + type + nr + "\"";
+			prefixed = nsPrefixed + type + nr;
+		}
+	}
+}
@@ -3,18 +3,35 @@ package benchmark.model;
 import java.util.Locale;
 
 public class Offer extends BSBMResource {
-	private int nr;
-	private Integer product;
+	private static final long serialVersionUID = 1L;
+	private long nr;
+	private long product;
 	private int vendor;
 	private double price;
 	private long validFrom;
 	private long validTo;
-	private Integer deliveryDays;
+	private int deliveryDays;
 	private String offerWebpage;
 	
-	public Offer(int nr, Integer product, int vendor, double price,
+	public Offer(long nr, long product, int vendor, double price,
 			     long validFrom, long validTo, int deliveryDays,
 			     String offerWebpage) {
+		set(nr, product, vendor, price, validFrom, validTo, deliveryDays, offerWebpage);
+	}
+	
+	/*
+	 * Empty offer, gets filled by set()
+	 */
+	public Offer() {
+	}
+	
+	/*
+	 * Sets all fields, so the object can be reused for another offer
+	 */
+	public void set(long nr, long product, int vendor, double price,
+			     long validFrom, long validTo, int deliveryDays,
+			     String offerWebpage) {
+		clearPublisherData();
 		this.nr = nr;
 		this.product = product;
 		this.vendor = vendor;
@@ -26,19 +43,19 @@ public class Offer extends BSBMResource {
 		this.offerWebpage = offerWebpage;
 	}
 	
-	public int getNr() {
+	public long getNr() {
 		return nr;
 	}
 
-	public void setNr(int nr) {
+	public void setNr(long nr) {
 		this.nr = nr;
 	}
 
-	public Integer getProduct() {
+	public long getProduct() {
 		return product;
 	}
 
-	public void setProduct(Integer product) {
+	public void setProduct(long product) {
 		this.product = product;
 	}
 
@@ -79,11 +96,11 @@ public class Offer extends BSBMResource {
 		this.validTo = validTo;
 	}
 
-	public Integer getDeliveryDays() {
+	public int getDeliveryDays() {
 		return deliveryDays;
 	}
 
-	public void setDeliveryDays(Integer deliveryDays) {
+	public void setDeliveryDays(int deliveryDays) {
 		this.deliveryDays = deliveryDays;
 	}
 
@@ -98,7 +115,7 @@ public class Offer extends BSBMResource {
 	@Override
     public String toString()
 	{
-		StringBuffer s = new StringBuffer();
+		StringBuffer s = new StringBuffer(128);
 		s.append("<");
 		s.append(Vendor.getVendorNS(vendor));
 		s.append("Offer");
@@ -109,7 +126,7 @@ public class Offer extends BSBMResource {
 
 	public String toStringJSON()
 	{
-		StringBuffer s = new StringBuffer();
+		StringBuffer s = new StringBuffer(128);
 		s.append("\"type\":\"uri\"");
 		s.append(",");
 		s.append("\"value\":\"");
@@ -121,16 +138,16 @@ public class Offer extends BSBMResource {
 	}
 	
 	public String getPrefixed() {
-		StringBuffer s = new StringBuffer();
+		StringBuffer s = new StringBuffer(128);
 		s.append(Vendor.getVendorNSprefixed(vendor));
 		s.append("Offer");
 		s.append(nr);
 		return s.toString();
 	}
 	
-	public static String getURIref(int offerNr, int vendorNr)
+	public static String getURIref(long offerNr, int vendorNr)
 	{
-		StringBuffer s = new StringBuffer();
+		StringBuffer s = new StringBuffer(128);
 		s.append("<");
 		s.append(Vendor.getVendorNS(vendorNr));
 		s.append("Offer");
@@ -1,12 +1,13 @@
 package benchmark.model;
 
 public class Person extends BSBMResource {
-	private int nr;
+	private static final long serialVersionUID = 1L;
+	private long nr;
 	private String name;
 	private String mbox_sha1sum;
 	private String countryCode;
 	
-	public Person(int nr, String name, String countryCode, String mbox_sha1)
+	public Person(long nr, String name, String countryCode, String mbox_sha1)
 	{
 		this.countryCode = countryCode;
 		this.nr = nr;
@@ -14,11 +15,11 @@ public class Person extends BSBMResource {
 		this.mbox_sha1sum = mbox_sha1;
 	}
 
-	public int getNr() {
+	public long getNr() {
 		return nr;
 	}
 
-	public void setNr(int nr) {
+	public void setNr(long nr) {
 		this.nr = nr;
 	}
 
@@ -57,9 +58,9 @@ public class Person extends BSBMResource {
         return getJSONURIref(nr, publisher);
     }
 
-	public static String getURIref(int personNr, int ratingSiteNr)
+	public static String getURIref(long personNr, int ratingSiteNr)
 	{
-		StringBuffer s = new StringBuffer();
+		StringBuffer s = new StringBuffer(128);
 		s.append("<");
 		s.append(RatingSite.getRatingSiteNS(ratingSiteNr));
 		s.append("Reviewer");
@@ -68,9 +69,9 @@ public class Person extends BSBMResource {
 		return s.toString();
 	}
 
-	public static String getJSONURIref(int personNr, int ratingSiteNr)
+	public static String getJSONURIref(long personNr, int ratingSiteNr)
 	{
-		StringBuffer s = new StringBuffer();
+		StringBuffer s = new StringBuffer(128);
 		s.append("\"type\":\"uri\"");
 		s.append(",");
 		s.append("\"value\":\"");
@@ -81,8 +82,8 @@ public class Person extends BSBMResource {
 		return s.toString();
 	}
 	
-	public static String getPrefixed(int personNr, int ratingSiteNr) {
-		StringBuffer s = new StringBuffer();
+	public static String getPrefixed(long personNr, int ratingSiteNr) {
+		StringBuffer s = new StringBuffer(128);
 		s.append(RatingSite.getRatingSiteNSprefixed(ratingSiteNr));
 		s.append("Reviewer");
 		s.append(personNr);
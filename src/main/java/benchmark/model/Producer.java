@@ -1,8 +1,8 @@
 package benchmark.model;
 
-import benchmark.vocabulary.*;
-
 public class Producer extends BSBMResource {
+	private static final long serialVersionUID = 1L;
+	private static final NamespaceCache namespaces = new NamespaceCache("dataFromProducer", "Producer");
 
 	private int nr;
 	private String label;
@@ -72,54 +72,27 @@ public class Producer extends BSBMResource {
 	
 	public static String getURIref(int producerNr)
 	{
-		StringBuffer s = new StringBuffer();
-		s.append("<");
-		s.append(getProducerNS(producerNr));
-		s.append("Producer");
-		s.append(producerNr);
-		s.append(">");
-		return s.toString();
+		return namespaces.get(producerNr).uriRef;
 	}
 
     public static String getJSONURIref(int producerNr)
     {
-        StringBuffer s = new StringBuffer();
-		s.append("\"type\":\"uri\"");
-		s.append(",");
-		s.append("\"value\":\"");
-        s.append(getProducerNS(producerNr));
-        s.append("Producer");
-        s.append(producerNr);
-		s.append("\"");
-        return s.toString();
+        return namespaces.get(producerNr).jsonURIref;
     }
 	
 
 	public static String getProducerNS(int producerNr)
 	{
-		StringBuffer s = new StringBuffer();
-		s.append(BSBM.INST_NS);
-		s.append("dataFromProducer");
-		s.append(producerNr);
-		s.append("/");
-		return s.toString();
+		return namespaces.get(producerNr).ns;
 	}
 	
 	public static String getProducerNSprefixed(int producerNr)
 	{
-		StringBuffer s = new StringBuffer();
-		s.append("dataFromProducer");
-		s.append(producerNr);
-		s.append(":");
-		return s.toString();
+		return namespaces.get(producerNr).nsPrefixed;
 	}
 	
 	public static String getPrefixed(int producerNr)
 	{
-		StringBuffer s = new StringBuffer();
-		s.append(getProducerNSprefixed(producerNr));
-		s.append("Producer");
-		s.append(producerNr);
-		return s.toString();
+		return namespaces.get(producerNr).prefixed;
 	}
 }
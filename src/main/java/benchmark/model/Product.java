@@ -3,25 +3,49 @@ package benchmark.model;
 import java.util.*;
 
 public class Product extends BSBMResource{
-	private int nr;
+	private static final long serialVersionUID = 1L;
+	public static final int nrOfProductProperties = 6;
+	
+	private long nr;
 	private String label;
 	private String comment;
 	private ProductType productType;
 	private int producer;
-	private Vector<Integer> features;
-	private Integer[] productPropertyNumerical;
-	private String[] productPropertyTextual;
+	private int[] features = new int[16];
+	private int nrOfFeatures;
+	private int[] productPropertyNumerical = new int[nrOfProductProperties];
+	private int numericMask;//Bit i is set if numeric property i exists
+	private String[] productPropertyTextual = new String[nrOfProductProperties];
+	
+	public Product(long productNr, String label, String comment, ProductType productType,
+				   int producer) {
+		set(productNr, label, comment, productType, producer);
+	}
+	
+	/*
+	 * Empty product, gets filled by set()
+	 */
+	public Product() {
+	}
 	
-	public Product(int productNr, String label, String comment, ProductType productType,
+	/*
+	 * Sets all fields and removes the features and properties, so the
+	 * object can be reused for another product
+	 */
+	public void set(long productNr, String label, String comment, ProductType productType,
 				   int producer) {
+		clearPublisherData();
 		this.producer = producer;
 		this.nr = productNr;
 		this.label = label;
 		this.comment = comment;
 		this.productType = productType;
+		nrOfFeatures = 0;
+		numericMask = 0;
+		Arrays.fill(productPropertyTextual, null);
 	}
 
-	public int getNr() {
+	public long getNr() {
 		return nr;
 	}
 
@@ -42,27 +66,83 @@ public class Product extends BSBMResource{
 	}
 
 	public Vector<Integer> getFeatures() {
-		return features;
+		Vector<Integer> result = new Vector<Integer>(nrOfFeatures);
+		for(int i=0;i<nrOfFeatures;i++)
+			result.add(features[i]);
+		return result;
 	}
 
 	public void setFeatures(Vector<Integer> features) {
-		this.features = features;
+		nrOfFeatures = 0;
+		for(Integer feature : features)
+			addFeature(feature);
+	}
+
+	public int getNrOfFeatures() {
+		return nrOfFeatures;
+	}
+
+	public int getFeature(int i) {
+		return features[i];
+	}
+
+	public void addFeature(int feature) {
+		if(nrOfFeatures==features.length)
+			features = Arrays.copyOf(features, 2 * features.length);
+		features[nrOfFeatures++] = feature;
 	}
 
+	/*
+	 * The numeric properties, null for missing ones
+	 */
 	public Integer[] getProductPropertyNumeric() {
-		return productPropertyNumerical;
+		Integer[] result = new Integer[nrOfProductProperties];
+		for(int i=0;i<nrOfProductProperties;i++)
+			if(hasProductPropertyNumeric(i))
+				result[i] = productPropertyNumerical[i];
+		return result;
 	}
 
 	public void setProductPropertyNumeric(Integer[] productPropertyNumerical) {
-		this.productPropertyNumerical = productPropertyNumerical;
+		numericMask = 0;
+		for(int i=0;i<nrOfProductProperties;i++)
+			if(productPropertyNumerical[i]!=null)
+				setProductPropertyNumeric(i, productPropertyNumerical[i]);
+	}
+
+	/*
+	 * The number of existing numeric properties
+	 */
+	public int getNrOfProductPropertiesNumeric() {
+		return Integer.bitCount(numericMask);
 	}
 
+	public boolean hasProductPropertyNumeric(int i) {
+		return (numericMask & (1 << i)) != 0;
+	}
+
+	public int getProductPropertyNumeric(int i) {
+		return productPropertyNumerical[i];
+	}
+
+	public void setProductPropertyNumeric(int i, int value) {
+		productPropertyNumerical[i] = value;
+		numericMask |= 1 << i;
+	}
+
+	/*
+	 * The textual properties, null for missing ones
+	 */
 	public String[] getProductPropertyTextual() {
 		return productPropertyTextual;
 	}
 
 	public void setProductPropertyTextual(String[] productPropertyTextual) {
-		this.productPropertyTextual = productPropertyTextual;
+		System.arraycopy(productPropertyTextual, 0, this.productPropertyTextual, 0, nrOfProductProperties);
+	}
+
+	public void setProductPropertyTextual(int i, String value) {
+		productPropertyTextual[i] = value;
 	}
 	
 	@Override
@@ -76,9 +156,9 @@ public class Product extends BSBMResource{
 		return getJSONURIref(nr, producer);
 	}
 	
-	public static String getURIref(int productNr, int producerNr)
+	public static String getURIref(long productNr, int producerNr)
 	{
-		StringBuffer s = new StringBuffer();
+		StringBuffer s = new StringBuffer(128);
 		s.append("<");
 		s.append(Producer.getProducerNS(producerNr));
 		s.append("Product");
@@ -87,9 +167,9 @@ public class Product extends BSBMResource{
 		return s.toString();
 	}
 
-	public static String getJSONURIref(int productNr, int producerNr)
+	public static String getJSONURIref(long productNr, int producerNr)
 	{
-		StringBuffer s = new StringBuffer();
+		StringBuffer s = new StringBuffer(128);
         s.append("\"type\":\"uri\"");
         s.append(",");
         s.append("\"value\":\"");
@@ -100,8 +180,8 @@ public class Product extends BSBMResource{
 		return s.toString();
 	}
 	
-	public static String getPrefixed(int productNr, int producerNr) {
-		StringBuffer s = new StringBuffer();
+	public static String getPrefixed(long productNr, int producerNr) {
+		StringBuffer s = new StringBuffer(128);
 		s.append(Producer.getProducerNSprefixed(producerNr));
 		s.append("Product");
 		s.append(productNr);
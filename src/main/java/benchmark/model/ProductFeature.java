@@ -3,6 +3,7 @@ package benchmark.model;
 import benchmark.vocabulary.BSBM;
 
 public class ProductFeature extends BSBMResource {
+	private static final long serialVersionUID = 1L;
 	private int nr;
 	private String label;
 	private String comment;
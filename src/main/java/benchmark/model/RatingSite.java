@@ -1,57 +1,30 @@
 package benchmark.model;
 
-import benchmark.vocabulary.*;
-
 public class RatingSite {
+	private static final NamespaceCache namespaces = new NamespaceCache("dataFromRatingSite", "RatingSite");
+	
 	public static String getRatingSiteNS(int ratingSiteNr)
 	{
-		StringBuffer s = new StringBuffer();
-		s.append(BSBM.INST_NS);
-		s.append("dataFromRatingSite");
-		s.append(ratingSiteNr);
-		s.append("/");
-		return s.toString();
+		return namespaces.get(ratingSiteNr).ns;
 	}
 	
 	public static String getURIref(int ratingSiteNr)
 	{
-		StringBuffer s = new StringBuffer();
-		s.append("<");
-		s.append(getRatingSiteNS(ratingSiteNr));
-		s.append("RatingSite");
-		s.append(ratingSiteNr);
-		s.append(">");
-		return s.toString();
+		return namespaces.get(ratingSiteNr).uriRef;
 	}
 
 	public static String getJSONURIref(int ratingSiteNr)
 	{
-		StringBuffer s = new StringBuffer();
-		s.append("\"type\":\"uri\"");
-		s.append(",");
-		s.append("\"value\":\"");
-		s.append(getRatingSiteNS(ratingSiteNr));
-		s.append("RatingSite");
-		s.append(ratingSiteNr);
-		s.append("\"");
-		return s.toString();
+		return namespaces.get(ratingSiteNr).jsonURIref;
 	}
 	
 	public static String getRatingSiteNSprefixed(int ratingSiteNr)
 	{
-		StringBuffer s = new StringBuffer();
-		s.append("dataFromRatingSite");
-		s.append(ratingSiteNr);
-		s.append(":");
-		return s.toString();
+		return namespaces.get(ratingSiteNr).nsPrefixed;
 	}
 	
 	public static String getPrefixed(int ratingSiteNr)
 	{
-		StringBuffer s = new StringBuffer();
-		s.append(getRatingSiteNSprefixed(ratingSiteNr));
-		s.append("RatingSite");
-		s.append(ratingSiteNr);
-		return s.toString();
+		return namespaces.get(ratingSiteNr).prefixed;
 	}
 }
@@ -1,39 +1,63 @@
 package benchmark.model;
 
 public class Review extends BSBMResource {
-	private int nr;
-	private Integer product;
-	private Integer producerOfProduct;
-	private int person;
+	private static final long serialVersionUID = 1L;
+	public static final int nrOfRatings = 4;
+	
+	private long nr;
+	private long product;
+	private int producerOfProduct;
+	private long person;
 	private long reviewDate;
 	private String title;
 	private String text;
-	private Integer[] ratings;
+	private int[] ratings = new int[nrOfRatings];
+	private int ratingMask;//Bit i is set if rating i exists
 	private int language;//Language-Byte-Code
 	
-	public Review(int nr,Integer forProductNr, int byPersonNr, long reviewDate,
+	public Review(long nr,long forProductNr, long byPersonNr, long reviewDate,
 					String title, String text, Integer[] ratings, int languageCode,
-					Integer producerOfProduct) {
+					int producerOfProduct) {
+		set(nr, forProductNr, byPersonNr, reviewDate, title, text, languageCode, producerOfProduct);
+		for(int i=0;i<nrOfRatings;i++)
+			if(ratings[i]!=null)
+				setRating(i, ratings[i]);
+	}
+	
+	/*
+	 * Empty review, gets filled by set()
+	 */
+	public Review() {
+	}
+	
+	/*
+	 * Sets all fields and removes the ratings, so the object
+	 * can be reused for another review
+	 */
+	public void set(long nr,long forProductNr, long byPersonNr, long reviewDate,
+					String title, String text, int languageCode,
+					int producerOfProduct) {
+		clearPublisherData();
 		this.nr = nr;
 		product = forProductNr;
 		person  = byPersonNr;
 		this.reviewDate = reviewDate;
 		this.title = title;
 		this.text = text;
-		this.ratings = ratings;
+		ratingMask = 0;
 		this.language = languageCode;
 		this.producerOfProduct = producerOfProduct;
 	}
 
-	public int getNr() {
+	public long getNr() {
 		return nr;
 	}
 
-	public Integer getProduct() {
+	public long getProduct() {
 		return product;
 	}
 
-	public int getPerson() {
+	public long getPerson() {
 		return person;
 	}
 
@@ -49,8 +73,35 @@ public class Review extends BSBMResource {
 		return text;
 	}
 
+	/*
+	 * The ratings, null for missing ones
+	 */
 	public Integer[] getRatings() {
-		return ratings;
+		Integer[] result = new Integer[nrOfRatings];
+		for(int i=0;i<nrOfRatings;i++)
+			if(hasRating(i))
+				result[i] = ratings[i];
+		return result;
+	}
+
+	/*
+	 * The number of existing ratings
+	 */
+	public int getNrOfRatings() {
+		return Integer.bitCount(ratingMask);
+	}
+
+	public boolean hasRating(int i) {
+		return (ratingMask & (1 << i)) != 0;
+	}
+
+	public int getRating(int i) {
+		return ratings[i];
+	}
+
+	public void setRating(int i, int value) {
+		ratings[i] = value;
+		ratingMask |= 1 << i;
 	}
 	
 	@Override
@@ -64,9 +115,9 @@ public class Review extends BSBMResource {
 		return getJSONURIref(nr, publisher);
 	}
 	
-	public static String getURIref(int reviewNr, int ratingSiteNr)
+	public static String getURIref(long reviewNr, int ratingSiteNr)
 	{
-		StringBuffer s = new StringBuffer();
+		StringBuffer s = new StringBuffer(128);
 		s.append("<");
 		s.append(RatingSite.getRatingSiteNS(ratingSiteNr));
 		s.append("Review");
@@ -75,9 +126,9 @@ public class Review extends BSBMResource {
 		return s.toString();
 	}
 
-	public static String getJSONURIref(int reviewNr, int ratingSiteNr)
+	public static String getJSONURIref(long reviewNr, int ratingSiteNr)
 	{
-		StringBuffer s = new StringBuffer();
+		StringBuffer s = new StringBuffer(128);
 		s.append("\"type\":\"uri\"");
 		s.append(",");
 		s.append("\"value\":\"");
@@ -88,9 +139,9 @@ public class Review extends BSBMResource {
 		return s.toString();
 	}
 
-	public static String getPrefixed(int reviewNr, int ratingSiteNr)
+	public static String getPrefixed(long reviewNr, int ratingSiteNr)
 	{
-		StringBuffer s = new StringBuffer();
+		StringBuffer s = new StringBuffer(128);
 		s.append(RatingSite.getRatingSiteNSprefixed(ratingSiteNr));
 		s.append("Review");
 		s.append(reviewNr);
@@ -101,11 +152,11 @@ public class Review extends BSBMResource {
 		return language;
 	}
 
-	public Integer getProducerOfProduct() {
+	public int getProducerOfProduct() {
 		return producerOfProduct;
 	}
 
-	public void setProducerOfProduct(Integer producerOfProduct) {
+	public void setProducerOfProduct(int producerOfProduct) {
 		this.producerOfProduct = producerOfProduct;
 	}
 }
@@ -0,0 +1,286 @@
+package benchmark.model;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.LongBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Calendar;
+import java.util.GregorianCalendar;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Vector;
+
+/*
+ * The data of the Test Driver in one binary file (td.bin), which replaces the
+ * serialized objects of pth.dat, pp.dat, vo.dat, rr.dat and cdlw.dat.
+ * Layout, big endian:
+ *   header: magic "BSTD", version, product, review and offer count (long),
+ *           current date (year, month, day), product type count
+ *   product type levels: number of levels, highest product type nr per level
+ *   product types: number of types, then per type its nr, the index of its
+ *           parent (-1: none) and its number of features, then all feature
+ *           ids, then the number of leaves and the index of every leaf.
+ *           Parents come before their children.
+ *   words: number of words, then per word the length and the UTF-8 bytes
+ *   relationships: the producer of product, vendor of offer and rating site
+ *           of review arrays, each its length and the long values
+ * The file is memory-mapped. The relationship arrays stay in the mapping,
+ * only the small product type and word tables become objects.
+ * Written by the generator and read by the Test Driver.
+ */
+public class TestDriverData {
+	public static final String fileName = "td.bin";
+	//The files of older versions with the same data
+	public static final List<String> legacyFileNames = Arrays.asList("pth.dat", "pp.dat", "vo.dat", "rr.dat", "cdlw.dat");
+	private static final int magic = 0x42535444;//"BSTD"
+	private static final int version = 1;
+
+	private long productCount;
+	private long reviewCount;
+	private long offerCount;
+	private GregorianCalendar currentDate;
+	private int productTypeCount;
+	private List<Integer> maxProductTypePerLevel;
+	private ProductType[] productTypeLeaves;
+	private String[] wordList;
+	private LongBuffer producerOfProduct;
+	private LongBuffer vendorOfOffer;
+	private LongBuffer ratingsiteOfReview;
+
+	private TestDriverData() {
+	}
+
+	public long getProductCount() {
+		return productCount;
+	}
+
+	public long getReviewCount() {
+		return reviewCount;
+	}
+
+	public long getOfferCount() {
+		return offerCount;
+	}
+
+	public GregorianCalendar getCurrentDate() {
+		return currentDate;
+	}
+
+	public int getProductTypeCount() {
+		return productTypeCount;
+	}
+
+	public List<Integer> getMaxProductTypePerLevel() {
+		return maxProductTypePerLevel;
+	}
+
+	public ProductType[] getProductTypeLeaves() {
+		return productTypeLeaves;
+	}
+
+	public String[] getWordList() {
+		return wordList;
+	}
+
+	public LongBuffer getProducerOfProduct() {
+		return producerOfProduct;
+	}
+
+	public LongBuffer getVendorOfOffer() {
+		return vendorOfOffer;
+	}
+
+	public LongBuffer getRatingsiteOfReview() {
+		return ratingsiteOfReview;
+	}
+
+	/*
+	 * Writes the Test Driver data. The words are written in the given order,
+	 * which is the order of the word list of the Test Driver.
+	 */
+	public static void write(File file, long productCount, long reviewCount, long offerCount, GregorianCalendar currentDate,
+			int productTypeCount, List<Integer> maxProductTypePerLevel, List<ProductType> productTypeLeaves, String[] words,
+			List<Long> producerOfProduct, List<Long> vendorOfOffer, List<Long> ratingsiteOfReview) throws IOException {
+		DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file, false), 65536));
+		try {
+			out.writeInt(magic);
+			out.writeInt(version);
+			out.writeLong(productCount);
+			out.writeLong(reviewCount);
+			out.writeLong(offerCount);
+			out.writeInt(currentDate.get(Calendar.YEAR));
+			out.writeInt(currentDate.get(Calendar.MONTH));
+			out.writeInt(currentDate.get(Calendar.DAY_OF_MONTH));
+			out.writeInt(productTypeCount);
+
+			out.writeInt(maxProductTypePerLevel.size());
+			for(Integer nr : maxProductTypePerLevel)
+				out.writeInt(nr);
+
+			//The leaves and all their ancestors, parents first
+			IdentityHashMap<ProductType, Integer> index = new IdentityHashMap<ProductType, Integer>();
+			ArrayList<ProductType> types = new ArrayList<ProductType>();
+			for(ProductType leaf : productTypeLeaves)
+				addProductType(leaf, index, types);
+			out.writeInt(types.size());
+			for(ProductType type : types) {
+				out.writeInt(type.getNr());
+				out.writeInt(type.getParent()==null ? -1 : index.get(type.getParent()));
+				out.writeInt(type.getFeatures()==null ? 0 : type.getFeatures().size());
+			}
+			for(ProductType type : types)
+				if(type.getFeatures()!=null)
+					for(Integer feature : type.getFeatures())
+						out.writeInt(feature);
+			out.writeInt(productTypeLeaves.size());
+			for(ProductType leaf : productTypeLeaves)
+				out.writeInt(index.get(leaf));
+
+			out.writeInt(words.length);
+			for(String word : words) {
+				byte[] bytes = word.getBytes(StandardCharsets.UTF_8);
+				out.writeInt(bytes.length);
+				out.write(bytes);
+			}
+
+			writeLongs(out, producerOfProduct);
+			writeLongs(out, vendorOfOffer);
+			writeLongs(out, ratingsiteOfReview);
+		} finally {
+			out.close();
+		}
+	}
+
+	private static void addProductType(ProductType type, IdentityHashMap<ProductType, Integer> index, ArrayList<ProductType> types) {
+		if(index.containsKey(type))
+			return;
+		if(type.getParent()!=null)
+			addProductType(type.getParent(), index, types);
+		index.put(type, types.size());
+		types.add(type);
+	}
+
+	private static void writeLongs(DataOutputStream out, List<Long> values) throws IOException {
+		out.writeInt(values.size());
+		for(Long value : values)
+			out.writeLong(value);
+	}
+
+	/*
+	 * Maps the Test Driver data file
+	 */
+	public static TestDriverData open(File file) throws IOException {
+		MappedByteBuffer data;
+		RandomAccessFile raf = new RandomAccessFile(file, "r");
+		try {
+			FileChannel channel = raf.getChannel();
+			if(channel.size()>Integer.MAX_VALUE)
+				throw new IOException("Test Driver data larger than 2GB");
+			data = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+		} finally {
+			raf.close();
+		}
+
+		if(data.capacity()<8 || data.getInt()!=magic)
+			throw new IOException("Not a Test Driver data file");
+		int fileVersion = data.getInt();
+		if(fileVersion!=version)
+			throw new IOException("Unsupported Test Driver data version: " + fileVersion);
+
+		TestDriverData td = new TestDriverData();
+		td.productCount = data.getLong();
+		td.reviewCount = data.getLong();
+		td.offerCount = data.getLong();
+		int year = data.getInt();
+		int month = data.getInt();
+		int day = data.getInt();
+		td.currentDate = new GregorianCalendar(year, month, day);
+		td.productTypeCount = data.getInt();
+
+		int levels = data.getInt();
+		td.maxProductTypePerLevel = new ArrayList<Integer>(levels);
+		for(int i=0;i<levels;i++)
+			td.maxProductTypePerLevel.add(data.getInt());
+
+		td.productTypeLeaves = readProductTypes(data);
+
+		td.wordList = new String[data.getInt()];
+		for(int i=0;i<td.wordList.length;i++) {
+			byte[] bytes = new byte[data.getInt()];
+			data.get(bytes);
+			td.wordList[i] = new String(bytes, StandardCharsets.UTF_8);
+		}
+
+		td.producerOfProduct = mapLongs(data);
+		td.vendorOfOffer = mapLongs(data);
+		td.ratingsiteOfReview = mapLongs(data);
+		return td;
+	}
+
+	private static ProductType[] readProductTypes(ByteBuffer data) {
+		int count = data.getInt();
+		int[] nrs = new int[count];
+		int[] parents = new int[count];
+		int[] featureCounts = new int[count];
+		for(int i=0;i<count;i++) {
+			nrs[i] = data.getInt();
+			parents[i] = data.getInt();
+			featureCounts[i] = data.getInt();
+		}
+
+		ProductType[] types = new ProductType[count];
+		for(int i=0;i<count;i++) {
+			types[i] = new ProductType(nrs[i], null, null, parents[i]<0 ? null : types[parents[i]]);
+			if(featureCounts[i]>0) {
+				Vector<Integer> features = new Vector<Integer>(featureCounts[i]);
+				for(int j=0;j<featureCounts[i];j++)
+					features.add(data.getInt());
+				types[i].setFeatures(features);
+			}
+		}
+
+		ProductType[] leaves = new ProductType[data.getInt()];
+		for(int i=0;i<leaves.length;i++)
+			leaves[i] = types[data.getInt()];
+		return leaves;
+	}
+
+	/*
+	 * View on the next long array in the mapping
+	 */
+	private static LongBuffer mapLongs(ByteBuffer data) {
+		int length = data.getInt();
+		ByteBuffer slice = data.slice();
+		slice.limit(length*8);
+		data.position(data.position() + length*8);
+		return slice.asLongBuffer();
+	}
+
+	/*
+	 * Arrays.binarySearch on a buffer of sorted longs
+	 */
+	public static int binarySearch(LongBuffer values, long key) {
+		int low = 0;
+		int high = values.limit() - 1;
+		while(low <= high) {
+			int mid = (low + high) >>> 1;
+			long midVal = values.get(mid);
+			if(midVal < key)
+				low = mid + 1;
+			else if(midVal > key)
+				high = mid - 1;
+			else
+				return mid;
+		}
+		return -(low + 1);
+	}
+}
@@ -1,8 +1,9 @@
 package benchmark.model;
 
-import benchmark.vocabulary.*;
-
 public class Vendor extends BSBMResource {
+	private static final long serialVersionUID = 1L;
+	private static final NamespaceCache namespaces = new NamespaceCache("dataFromVendor", "Vendor");
+	
 	private int nr;
 	private String label;
 	private String comment;
@@ -71,53 +72,26 @@ public class Vendor extends BSBMResource {
 	
 	public static String getURIref(int vendorNr)
 	{
-		StringBuffer s = new StringBuffer();
-		s.append("<");
-		s.append(getVendorNS(vendorNr));
-		s.append("Vendor");
-		s.append(vendorNr);
-		s.append(">");
-		return s.toString();
+		return namespaces.get(vendorNr).uriRef;
 	}
 
 	public static String getJSONURIref(int vendorNr)
 	{
-		StringBuffer s = new StringBuffer();
-		s.append("\"type\":\"uri\"");
-		s.append(",");
-		s.append("\"value\":\"");
-		s.append(getVendorNS(vendorNr));
-		s.append("Vendor");
-		s.append(vendorNr);
-        s.append("\"");
-		return s.toString();
+		return namespaces.get(vendorNr).jsonURIref;
 	}
 	
 	public static String getVendorNS(int vendorNr)
 	{
-		StringBuffer s = new StringBuffer();
-		s.append(BSBM.INST_NS);
-		s.append("dataFromVendor");
-		s.append(vendorNr);
-		s.append("/");
-		return s.toString();
+		return namespaces.get(vendorNr).ns;
 	}
 	
 	public static String getVendorNSprefixed(int vendorNr)
 	{
-		StringBuffer s = new StringBuffer();
-		s.append("dataFromVendor");
-		s.append(vendorNr);
-		s.append(":");
-		return s.toString();
+		return namespaces.get(vendorNr).nsPrefixed;
 	}
 	
 	public static String getPrefixed(int vendorNr)
 	{
-		StringBuffer s = new StringBuffer();
-		s.append(getVendorNSprefixed(vendorNr));
-		s.append("Vendor");
-		s.append(vendorNr);
-		return s.toString();
+		return namespaces.get(vendorNr).prefixed;
 	}
 }
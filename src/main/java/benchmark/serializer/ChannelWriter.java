@@ -0,0 +1,270 @@
+package benchmark.serializer;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.*;
+import java.util.concurrent.*;
+
+/*
+ * Unsynchronized Writer on a FileChannel. The text is encoded into a large
+ * direct ByteBuffer. Two buffers are used: while one gets written to the
+ * file by a background thread, the other one gets filled. The buffers start
+ * small and double with every full buffer up to the buffer size, so small
+ * files need little memory and a large file up to twice the buffer size.
+ * In mapped mode the text is encoded into memory mapped windows of the file
+ * instead, which get written back by the operating system. Only close()
+ * forces the last window to the disk.
+ */
+public class ChannelWriter extends Writer {
+	private static final int charBufferSize = 8192;
+	private static final int byteBufferSize = 3 * charBufferSize;
+	private static final int initialBufferSize = 64 * 1024;
+
+	//All writers share one thread for writing their full buffers
+	private static ExecutorService flusher = null;
+
+	private RandomAccessFile file;
+	private FileChannel channel;
+	private boolean mapped;
+	private int bufferSize;
+	private CharsetEncoder encoder;
+	private CharBuffer chars;//Text not yet encoded
+	private ByteBuffer bytes;//Encoded text not yet copied into buffer
+	private ByteBuffer buffer;//The buffer being filled
+	private ByteBuffer spare;//The buffer being written or free, null before the first one is full
+	private Future<?> pendingWrite;
+	private long bufferStart;//File position of the buffer
+	private boolean closed;
+
+	/*
+	 * Opens file for writing. If append is set, the text gets appended
+	 * to the existing file, otherwise the file gets truncated.
+	 */
+	public ChannelWriter(File file, boolean append, int bufferSize, boolean mapped) throws IOException
+	{
+		this.file = new RandomAccessFile(file, "rw");
+		if(!append)
+			this.file.setLength(0);
+		channel = this.file.getChannel();
+		bufferStart = channel.size();
+		channel.position(bufferStart);
+
+		this.bufferSize = bufferSize;
+		this.mapped = mapped;
+		encoder = Charset.defaultCharset().newEncoder()
+				.onMalformedInput(CodingErrorAction.REPLACE)
+				.onUnmappableCharacter(CodingErrorAction.REPLACE);
+		chars = CharBuffer.allocate(charBufferSize);
+		bytes = ByteBuffer.allocate(byteBufferSize);
+
+		if(mapped)
+			buffer = channel.map(FileChannel.MapMode.READ_WRITE, bufferStart, bufferSize);
+		else
+			buffer = ByteBuffer.allocateDirect(Math.min(initialBufferSize, bufferSize));
+		closed = false;
+	}
+
+	@Override
+	public void write(int c) throws IOException {
+		ensureOpen();
+		if(!chars.hasRemaining())
+			encodeChars(false);
+		chars.put((char)c);
+	}
+
+	@Override
+	public void write(char[] cbuf, int off, int len) throws IOException {
+		ensureOpen();
+		while(len>0) {
+			if(!chars.hasRemaining())
+				encodeChars(false);
+			int n = Math.min(len, chars.remaining());
+			chars.put(cbuf, off, n);
+			off += n;
+			len -= n;
+		}
+	}
+
+	@Override
+	public void write(String str, int off, int len) throws IOException {
+		ensureOpen();
+		while(len>0) {
+			if(!chars.hasRemaining())
+				encodeChars(false);
+			int n = Math.min(len, chars.remaining());
+			str.getChars(off, off + n, chars.array(), chars.arrayOffset() + chars.position());
+			chars.position(chars.position() + n);
+			off += n;
+			len -= n;
+		}
+	}
+
+	@Override
+	public Writer append(CharSequence csq) throws IOException {
+		String s = String.valueOf(csq);
+		write(s, 0, s.length());
+		return this;
+	}
+
+	/*
+	 * Encodes the collected chars. A high surrogate at the end is kept
+	 * until its low surrogate arrives.
+	 */
+	private void encodeChars(boolean endOfInput) throws IOException {
+		chars.flip();
+		while(true) {
+			CoderResult result = encoder.encode(chars, bytes, endOfInput);
+			copyBytes();
+			if(result.isUnderflow())
+				break;
+		}
+		if(endOfInput) {
+			while(encoder.flush(bytes).isOverflow())
+				copyBytes();
+			copyBytes();
+		}
+		chars.compact();
+	}
+
+	/*
+	 * Copies the encoded bytes into the buffer, the buffer gets
+	 * written whenever it is full
+	 */
+	private void copyBytes() throws IOException {
+		bytes.flip();
+		while(bytes.hasRemaining()) {
+			if(!buffer.hasRemaining())
+				nextBuffer();
+			int n = Math.min(bytes.remaining(), buffer.remaining());
+			int limit = bytes.limit();
+			bytes.limit(bytes.position() + n);
+			buffer.put(bytes);
+			bytes.limit(limit);
+		}
+		bytes.clear();
+	}
+
+	/*
+	 * Hands the full buffer to the flusher thread and continues with the
+	 * spare buffer, which gets replaced by a larger one up to the buffer
+	 * size, or maps the next window of the file
+	 */
+	private void nextBuffer() throws IOException {
+		bufferStart += buffer.position();
+		if(mapped) {
+			buffer = channel.map(FileChannel.MapMode.READ_WRITE, bufferStart, bufferSize);
+			return;
+		}
+
+		waitForPendingWrite();
+		buffer.flip();
+		pendingWrite = getFlusher().submit(new BufferWrite(channel, buffer));
+		ByteBuffer full = buffer;
+		int capacity = (int)Math.min(2L * full.capacity(), bufferSize);
+		if(spare==null || spare.capacity()<capacity)
+			spare = ByteBuffer.allocateDirect(capacity);
+		buffer = spare;
+		buffer.clear();
+		spare = full;
+	}
+
+	private void waitForPendingWrite() throws IOException {
+		if(pendingWrite==null)
+			return;
+
+		try {
+			pendingWrite.get();
+		} catch(InterruptedException e) {
+			throw new InterruptedIOException(e.getMessage());
+		} catch(ExecutionException e) {
+			if(e.getCause() instanceof IOException)
+				throw (IOException)e.getCause();
+			throw new IOException(e.getCause().toString());
+		}
+		pendingWrite = null;
+	}
+
+	/*
+	 * Writes everything to the file. In mapped mode the text is in the
+	 * file already, the window is not forced to the disk.
+	 */
+	@Override
+	public void flush() throws IOException {
+		ensureOpen();
+		encodeChars(false);
+		if(mapped)
+			return;
+
+		writeBuffer();
+	}
+
+	private void writeBuffer() throws IOException {
+		waitForPendingWrite();
+		buffer.flip();
+		while(buffer.hasRemaining())
+			channel.write(buffer);
+		bufferStart += buffer.limit();
+		buffer.clear();
+	}
+
+	@Override
+	public void close() throws IOException {
+		if(closed)
+			return;
+
+		encodeChars(true);
+		if(mapped) {
+			((MappedByteBuffer)buffer).force();
+			//Cut off the unused rest of the window
+			file.setLength(bufferStart + buffer.position());
+		}
+		else
+			writeBuffer();
+		closed = true;
+		channel.close();
+		file.close();
+	}
+
+	/*
+	 * The number of bytes in the file, including the buffered ones
+	 */
+	public long getPosition() {
+		return bufferStart + buffer.position();
+	}
+
+	private void ensureOpen() throws IOException {
+		if(closed)
+			throw new IOException("Stream closed");
+	}
+
+	private static synchronized ExecutorService getFlusher() {
+		if(flusher==null)
+			flusher = Executors.newSingleThreadExecutor(new ThreadFactory() {
+				public Thread newThread(Runnable r) {
+					Thread t = new Thread(r, "Output-Flusher");
+					t.setDaemon(true);
+					return t;
+				}
+			});
+		return flusher;
+	}
+
+	private static class BufferWrite implements Callable<Object> {
+		private FileChannel channel;
+		private ByteBuffer buffer;
+
+		BufferWrite(FileChannel channel, ByteBuffer buffer) {
+			this.channel = channel;
+			this.buffer = buffer;
+		}
+
+		public Object call() throws IOException {
+			while(buffer.hasRemaining())
+				channel.write(buffer);
+			return null;
+		}
+	}
+}
@@ -0,0 +1,51 @@
+package benchmark.serializer;
+
+import java.io.Writer;
+
+/*
+ * Writer which discards its input and only counts the number of bytes
+ * the text would take up in UTF-8.
+ */
+public class CountingWriter extends Writer {
+	private long nrBytes = 0;
+
+	@Override
+	public void write(char[] cbuf, int off, int len) {
+		for(int i=off;i<off+len;i++)
+			count(cbuf[i]);
+	}
+
+	@Override
+	public void write(String str, int off, int len) {
+		for(int i=off;i<off+len;i++)
+			count(str.charAt(i));
+	}
+
+	@Override
+	public Writer append(CharSequence csq) {
+		for(int i=0;i<csq.length();i++)
+			count(csq.charAt(i));
+		return this;
+	}
+
+	private void count(char c) {
+		if(c < 0x80)
+			nrBytes++;
+		else if(c < 0x800 || (c >= 0xD800 && c <= 0xDFFF))//a surrogate pair takes 4 bytes
+			nrBytes += 2;
+		else
+			nrBytes += 3;
+	}
+
+	@Override
+	public void flush() {
+	}
+
+	@Override
+	public void close() {
+	}
+
+	public long getNrBytes() {
+		return nrBytes;
+	}
+}
@@ -0,0 +1,110 @@
+package benchmark.serializer;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/*
+ * Composite Serializer which hands every ObjectBundle to several Serializers.
+ * Each Serializer runs on its own worker thread and is fed through a bounded
+ * queue, so the data is generated once and all formats are written concurrently.
+ */
+public class FanOutSerializer implements Serializer {
+	private static final int queueSize = 16;//Number of bundles a worker may lag behind the generator
+	private static final ObjectBundle END = new ObjectBundle(null);
+
+	private Serializer[] serializers;
+	private SerializerWorker[] workers;
+
+	public FanOutSerializer(Serializer[] serializers)
+	{
+		this.serializers = serializers;
+		workers = new SerializerWorker[serializers.length];
+		for(int i=0;i<serializers.length;i++) {
+			workers[i] = new SerializerWorker(serializers[i], i+1);
+			workers[i].start();
+		}
+	}
+
+	public void gatherData(ObjectBundle bundle) {
+		//The bundle gets reused by the generator after the commit
+		ObjectBundle copy = bundle.copy();
+		for(int i=0;i<workers.length;i++)
+			workers[i].put(copy);
+	}
+
+	public void serialize() {
+		for(int i=0;i<workers.length;i++)
+			workers[i].put(END);
+
+		for(int i=0;i<workers.length;i++) {
+			try {
+				workers[i].join();
+			} catch(InterruptedException e) {
+				System.err.println("Got interrupted. Exit.");
+				System.exit(-1);
+			}
+		}
+	}
+
+	/*
+	 * Every format counts the same triples, formats without triple
+	 * count (e.g. SQL dumps) return 0.
+	 */
+	public Long triplesGenerated() {
+		long max = 0;
+		for(int i=0;i<serializers.length;i++) {
+			Long nrTriples = serializers[i].triplesGenerated();
+			if(nrTriples!=null && nrTriples > max)
+				max = nrTriples;
+		}
+		return max;
+	}
+
+	public Serializer[] getSerializers() {
+		return serializers;
+	}
+
+	private static class SerializerWorker extends Thread {
+		private Serializer serializer;
+		private BlockingQueue<ObjectBundle> queue;
+
+		SerializerWorker(Serializer serializer, int nr) {
+			super("Serializer-" + nr);
+			this.serializer = serializer;
+			queue = new ArrayBlockingQueue<ObjectBundle>(queueSize);
+		}
+
+		/*
+		 * Blocks while the worker is queueSize bundles behind
+		 */
+		void put(ObjectBundle bundle) {
+			try {
+				queue.put(bundle);
+			} catch(InterruptedException e) {
+				System.err.println("Got interrupted. Exit.");
+				System.exit(-1);
+			}
+		}
+
+		@Override
+		public void run() {
+			try {
+				while(true) {
+					ObjectBundle bundle = queue.take();
+					if(bundle==END)
+						break;
+					serializer.gatherData(bundle);
+				}
+				serializer.serialize();
+			} catch(InterruptedException e) {
+				System.err.println("Serializer thread interrupted. Quitting...");
+				System.exit(-1);
+			} catch(RuntimeException e) {
+				//The generator would block forever on a full queue
+				System.err.println("Serializer thread " + getName() + " failed:");
+				e.printStackTrace();
+				System.exit(-1);
+			}
+		}
+	}
+}
@@ -23,31 +23,43 @@ import benchmark.generator.Generator;
 import benchmark.model.*;
 import benchmark.vocabulary.*;
 
-import java.io.FileWriter;
 import java.io.IOException;
+import java.io.Writer;
 import java.util.GregorianCalendar;
-import java.util.Iterator;
+import java.util.HashMap;
 
-public class JSON implements Serializer {
-    private FileWriter[] fileWriter;
+public class JSON implements ResumableSerializer {
+    private Writer[] fileWriter;
+    private String[] fileNames;
     private boolean forwardChaining;
     private long nrTriples;
     private int currentWriter = 0;
+    private HashMap<ProductType, String[]> typeClosures = new HashMap<ProductType, String[]>();
 
     public JSON(String file, boolean forwardChaining) {
         this(file, forwardChaining, 1);
     }
 
     public JSON(String file, boolean forwardChaining, int nrOfOutputFiles) {
+        this(file, forwardChaining, nrOfOutputFiles, false);
+    }
+
+    /*
+     * If append is set, existing files are kept and continued with setState()
+     */
+    public JSON(String file, boolean forwardChaining, int nrOfOutputFiles, boolean append) {
         int nrOfDigits = ((int) Math.log10(nrOfOutputFiles)) + 1;
         String formatString = "%0" + nrOfDigits + "d";
+        fileNames = new String[nrOfOutputFiles];
+        if (nrOfOutputFiles == 1)
+            fileNames[0] = OutputBackend.getFileName(file, ".json");
+        else
+            for (int i = 1; i <= nrOfOutputFiles; i++)
+                fileNames[i - 1] = file + String.format(formatString, i) + ".json";
         try {
-            fileWriter = new FileWriter[nrOfOutputFiles];
-            if (nrOfOutputFiles == 1)
-                fileWriter[0] = new FileWriter(file + ".json");
-            else
-                for (int i = 1; i <= nrOfOutputFiles; i++)
-                    fileWriter[i - 1] = new FileWriter(file + String.format(formatString, i) + ".json");
+            fileWriter = new Writer[nrOfOutputFiles];
+            for (int i = 0; i < nrOfOutputFiles; i++)
+                fileWriter[i] = OutputBackend.open(fileNames[i], append);
         } catch (IOException e) {
             System.err.println("Could not open File");
             System.exit(-1);
@@ -57,34 +69,58 @@ public class JSON implements Serializer {
         nrTriples = 0l;
     }
 
-    public void gatherData(ObjectBundle bundle) {
-        Iterator<BSBMResource> it = bundle.iterator();
-
-        while (it.hasNext()) {
-            BSBMResource obj = it.next();
-            try {
-                if (obj instanceof ProductType) {
-                    fileWriter[currentWriter].append(convertProductType((ProductType) obj));
-                } else if (obj instanceof Offer) {
-                    fileWriter[currentWriter].append(convertOffer((Offer) obj));
-                } else if (obj instanceof Product) {
-                    fileWriter[currentWriter].append(convertProduct((Product) obj));
-                } else if (obj instanceof Person) {
-                    fileWriter[currentWriter].append(convertPerson((Person) obj));
-                } else if (obj instanceof Producer) {
-                    fileWriter[currentWriter].append(convertProducer((Producer) obj));
-                } else if (obj instanceof ProductFeature) {
-                    fileWriter[currentWriter].append(convertProductFeature((ProductFeature) obj));
-                } else if (obj instanceof Vendor) {
-                    fileWriter[currentWriter].append(convertVendor((Vendor) obj));
-                } else if (obj instanceof Review) {
-                    fileWriter[currentWriter].append(convertReview((Review) obj));
-                }
-            } catch (IOException e) {
-                System.err.println("Could not write into File!");
-                System.err.println(e.getMessage());
-                System.exit(-1);
-            }
+    public void visitProductTypes(ResourceBatch<ProductType> productTypes) throws IOException {
+        for (int i = 0; i < productTypes.size(); i++) {
+            fileWriter[currentWriter].append(convertProductType(productTypes.get(i)));
+            currentWriter = (currentWriter + 1) % fileWriter.length;
+        }
+    }
+
+    public void visitOffers(ResourceBatch<Offer> offers) throws IOException {
+        for (int i = 0; i < offers.size(); i++) {
+            fileWriter[currentWriter].append(convertOffer(offers.get(i)));
+            currentWriter = (currentWriter + 1) % fileWriter.length;
+        }
+    }
+
+    public void visitProducts(ResourceBatch<Product> products) throws IOException {
+        for (int i = 0; i < products.size(); i++) {
+            fileWriter[currentWriter].append(convertProduct(products.get(i)));
+            currentWriter = (currentWriter + 1) % fileWriter.length;
+        }
+    }
+
+    public void visitPersons(ResourceBatch<Person> persons) throws IOException {
+        for (int i = 0; i < persons.size(); i++) {
+            fileWriter[currentWriter].append(convertPerson(persons.get(i)));
+            currentWriter = (currentWriter + 1) % fileWriter.length;
+        }
+    }
+
+    public void visitProducers(ResourceBatch<Producer> producers) throws IOException {
+        for (int i = 0; i < producers.size(); i++) {
+            fileWriter[currentWriter].append(convertProducer(producers.get(i)));
+            currentWriter = (currentWriter + 1) % fileWriter.length;
+        }
+    }
+
+    public void visitProductFeatures(ResourceBatch<ProductFeature> productFeatures) throws IOException {
+        for (int i = 0; i < productFeatures.size(); i++) {
+            fileWriter[currentWriter].append(convertProductFeature(productFeatures.get(i)));
+            currentWriter = (currentWriter + 1) % fileWriter.length;
+        }
+    }
+
+    public void visitVendors(ResourceBatch<Vendor> vendors) throws IOException {
+        for (int i = 0; i < vendors.size(); i++) {
+            fileWriter[currentWriter].append(convertVendor(vendors.get(i)));
+            currentWriter = (currentWriter + 1) % fileWriter.length;
+        }
+    }
+
+    public void visitReviews(ResourceBatch<Review> reviews) throws IOException {
+        for (int i = 0; i < reviews.size(); i++) {
+            fileWriter[currentWriter].append(convertReview(reviews.get(i)));
             currentWriter = (currentWriter + 1) % fileWriter.length;
         }
     }
@@ -159,7 +195,7 @@ public class JSON implements Serializer {
                 createURIref(BSBM.Offer)));
 
         //bsbm:product
-        int productNr = offer.getProduct();
+        long productNr = offer.getProduct();
         int producerNr = Generator.getProducerOfProduct(productNr);
         result.append(createTriple(
                 subjectURIREF,
@@ -200,7 +236,7 @@ public class JSON implements Serializer {
         result.append(createTriple(
                 subjectURIREF,
                 createURIref(BSBM.deliveryDays),
-                createDataTypeLiteral(offer.getDeliveryDays().toString(), XSD.Integer)));
+                createDataTypeLiteral(Integer.toString(offer.getDeliveryDays()), XSD.Integer)));
 
         //bsbm:offerWebpage
         result.append(createTriple(
@@ -255,14 +291,13 @@ public class JSON implements Serializer {
 
         //bsbm:productType
         if (forwardChaining) {
-            ProductType pt = product.getProductType();
-            while (pt != null) {
-                result.append(createTriple(
-                        subjectURIREF,
-                        createURIref(RDF.type),
-                        pt.toStringJSON()));
-                pt = pt.getParent();
+            String[] closure = getTypeClosure(product.getProductType());
+            for (int i = 0; i < closure.length; i++) {
+                result.append("{\"subject\":{");
+                result.append(subjectURIREF);
+                result.append(closure[i]);
             }
+            nrTriples += closure.length;
         } else {
             result.append(createTriple(
                     subjectURIREF,
@@ -277,14 +312,12 @@ public class JSON implements Serializer {
                 Producer.getJSONURIref(product.getProducer())));
 
         //bsbm:productPropertyNumeric
-        Integer[] ppn = product.getProductPropertyNumeric();
-        for (int i = 0, j = 1; i < ppn.length; i++, j++) {
-            Integer value = ppn[i];
-            if (value != null)
+        for (int i = 0, j = 1; i < Product.nrOfProductProperties; i++, j++) {
+            if (product.hasProductPropertyNumeric(i))
                 result.append(createTriple(
                         subjectURIREF,
                         createURIref(BSBM.getProductPropertyNumeric(j)),
-                        createDataTypeLiteral(value.toString(), XSD.Integer)));
+                        createDataTypeLiteral(Integer.toString(product.getProductPropertyNumeric(i)), XSD.Integer)));
         }
 
         //bsbm:productPropertyTextual
@@ -299,9 +332,8 @@ public class JSON implements Serializer {
         }
 
         //bsbm:productFeature
-        Iterator<Integer> pf = product.getFeatures().iterator();
-        while (pf.hasNext()) {
-            Integer value = pf.next();
+        for (int i = 0; i < product.getNrOfFeatures(); i++) {
+            int value = product.getFeature(i);
             result.append(createTriple(
                     subjectURIREF,
                     createURIref(BSBM.productFeature),
@@ -586,14 +618,12 @@ public class JSON implements Serializer {
                 createLanguageLiteral(review.getText(), ISO3166.language[review.getLanguage()])));
 
         //bsbm:ratingX
-        Integer[] ratings = review.getRatings();
-        for (int i = 0, j = 1; i < ratings.length; i++, j++) {
-            Integer value = ratings[i];
-            if (value != null)
+        for (int i = 0, j = 1; i < Review.nrOfRatings; i++, j++) {
+            if (review.hasRating(i))
                 result.append(createTriple(
                         subjectURIREF,
                         createURIref(BSBM.getRating(j)),
-                        createDataTypeLiteral(value.toString(), XSD.Integer)));
+                        createDataTypeLiteral(Integer.toString(review.getRating(i)), XSD.Integer)));
         }
 
         //dc:publisher
@@ -659,6 +689,24 @@ public class JSON implements Serializer {
     }
 
     //Creates a triple
+    /*
+     * The rdf:type triples (after the subject) of a product type and all its
+     * super types. They are rendered once per leaf type.
+     */
+    private String[] getTypeClosure(ProductType leaf) {
+        String[] closure = typeClosures.get(leaf);
+        if (closure == null) {
+            closure = new String[leaf.getDepth() + 1];
+            ProductType pt = leaf;
+            for (int i = 0; i < closure.length; i++) {
+                closure[i] = "},\"predicate\":{" + createURIref(RDF.type) + "},\"object\":{" + pt.toStringJSON() + "}}\n";
+                pt = pt.getParent();
+            }
+            typeClosures.put(leaf, closure);
+        }
+        return closure;
+    }
+
     private String createTriple(String subject, String predicate, String object) {
         StringBuffer result = new StringBuffer();
         result.append("{");
@@ -730,4 +778,21 @@ public class JSON implements Serializer {
     public Long triplesGenerated() {
         return nrTriples;
     }
+
+    public SerializerState getState() {
+        return new SerializerState(fileNames, fileWriter, currentWriter, nrTriples);
+    }
+
+    public void setState(SerializerState state) {
+        try {
+            for (int i = 0; i < fileWriter.length; i++)
+                fileWriter[i].close();
+        } catch (IOException e) {
+            System.err.println(e.getMessage());
+            System.exit(-1);
+        }
+        fileWriter = state.truncate(fileNames);
+        currentWriter = state.getCurrentWriter();
+        nrTriples = state.getNrTriples();
+    }
 }
@@ -1,17 +1,18 @@
 package benchmark.serializer;
 
-import java.util.Iterator;
 import benchmark.model.*;
 import benchmark.vocabulary.*;
 import benchmark.generator.*;
 import java.io.*;
 import java.util.*;
 
-public class NTriples implements Serializer {
-	private FileWriter[] fileWriter;
+public class NTriples implements ResumableSerializer {
+	private Writer[] fileWriter;
+	private String[] fileNames;
 	private boolean forwardChaining;
 	private long nrTriples;
 	private int currentWriter = 0;
+	private HashMap<ProductType, String[]> typeClosures = new HashMap<ProductType, String[]>();
 	
 	public NTriples(String file, boolean forwardChaining)
 	{
@@ -19,16 +20,27 @@ public class NTriples implements Serializer {
 	}
 	
 	public NTriples(String file, boolean forwardChaining, int nrOfOutputFiles)
+	{
+		this(file, forwardChaining, nrOfOutputFiles, false);
+	}
+	
+	/*
+	 * If append is set, existing files are kept and continued with setState()
+	 */
+	public NTriples(String file, boolean forwardChaining, int nrOfOutputFiles, boolean append)
 	{
 		int nrOfDigits = ((int)Math.log10(nrOfOutputFiles)) + 1;
 		String formatString = "%0" + nrOfDigits + "d";
+		fileNames = new String[nrOfOutputFiles];
+		if(nrOfOutputFiles==1)
+			fileNames[0] = OutputBackend.getFileName(file, ".nt");
+		else
+			for(int i=1;i<=nrOfOutputFiles;i++)
+				fileNames[i-1] = file + String.format(formatString, i) + ".nt";
 		try{
-			fileWriter = new FileWriter[nrOfOutputFiles];
-			if(nrOfOutputFiles==1)
-				fileWriter[0] = new FileWriter(file + ".nt");
-			else
-				for(int i=1;i<=nrOfOutputFiles;i++)
-					fileWriter[i-1] = new FileWriter(file + String.format(formatString, i) + ".nt");
+			fileWriter = new Writer[nrOfOutputFiles];
+			for(int i=0;i<nrOfOutputFiles;i++)
+				fileWriter[i] = OutputBackend.open(fileNames[i], append);
 		} catch(IOException e){
 			System.err.println("Could not open File");
 			System.exit(-1);
@@ -38,43 +50,68 @@ public class NTriples implements Serializer {
 		nrTriples = 0l;
 	}
 	
-	public void gatherData(ObjectBundle bundle) {
-		Iterator<BSBMResource> it = bundle.iterator();
-
-		while(it.hasNext())
-		{
-			BSBMResource obj = it.next();
-			try{
-				if(obj instanceof ProductType){
-					fileWriter[currentWriter].append(convertProductType((ProductType)obj));
-				}
-				else if(obj instanceof Offer){
-					fileWriter[currentWriter].append(convertOffer((Offer)obj));
-				}
-				else if(obj instanceof Product){
-					fileWriter[currentWriter].append(convertProduct((Product)obj));
-				}
-				else if(obj instanceof Person){
-					fileWriter[currentWriter].append(convertPerson((Person)obj));
-				}
-				else if(obj instanceof Producer){
-					fileWriter[currentWriter].append(convertProducer((Producer)obj));
-				}
-				else if(obj instanceof ProductFeature){
-					fileWriter[currentWriter].append(convertProductFeature((ProductFeature)obj));
-				}
-				else if(obj instanceof Vendor){
-					fileWriter[currentWriter].append(convertVendor((Vendor)obj));
-				}
-				else if(obj instanceof Review){
-					fileWriter[currentWriter].append(convertReview((Review)obj));
-				}
-			}
-			catch(IOException e){
-				System.err.println("Could not write into File!");
-				System.err.println(e.getMessage());
-				System.exit(-1);
-			}
+	/*
+	 * Writes the N-Triples into the given Writers instead of files
+	 */
+	public NTriples(Writer[] writers, boolean forwardChaining)
+	{
+		fileWriter = writers;
+		this.forwardChaining = forwardChaining;
+		nrTriples = 0l;
+	}
+	
+	public void visitProductTypes(ResourceBatch<ProductType> productTypes) throws IOException {
+		for(int i=0;i<productTypes.size();i++) {
+			fileWriter[currentWriter].append(convertProductType(productTypes.get(i)));
+			currentWriter = (currentWriter + 1) % fileWriter.length;
+		}
+	}
+	
+	public void visitOffers(ResourceBatch<Offer> offers) throws IOException {
+		for(int i=0;i<offers.size();i++) {
+			fileWriter[currentWriter].append(convertOffer(offers.get(i)));
+			currentWriter = (currentWriter + 1) % fileWriter.length;
+		}
+	}
+	
+	public void visitProducts(ResourceBatch<Product> products) throws IOException {
+		for(int i=0;i<products.size();i++) {
+			fileWriter[currentWriter].append(convertProduct(products.get(i)));
+			currentWriter = (currentWriter + 1) % fileWriter.length;
+		}
+	}
+	
+	public void visitPersons(ResourceBatch<Person> persons) throws IOException {
+		for(int i=0;i<persons.size();i++) {
+			fileWriter[currentWriter].append(convertPerson(persons.get(i)));
+			currentWriter = (currentWriter + 1) % fileWriter.length;
+		}
+	}
+	
+	public void visitProducers(ResourceBatch<Producer> producers) throws IOException {
+		for(int i=0;i<producers.size();i++) {
+			fileWriter[currentWriter].append(convertProducer(producers.get(i)));
+			currentWriter = (currentWriter + 1) % fileWriter.length;
+		}
+	}
+	
+	public void visitProductFeatures(ResourceBatch<ProductFeature> productFeatures) throws IOException {
+		for(int i=0;i<productFeatures.size();i++) {
+			fileWriter[currentWriter].append(convertProductFeature(productFeatures.get(i)));
+			currentWriter = (currentWriter + 1) % fileWriter.length;
+		}
+	}
+	
+	public void visitVendors(ResourceBatch<Vendor> vendors) throws IOException {
+		for(int i=0;i<vendors.size();i++) {
+			fileWriter[currentWriter].append(convertVendor(vendors.get(i)));
+			currentWriter = (currentWriter + 1) % fileWriter.length;
+		}
+	}
+	
+	public void visitReviews(ResourceBatch<Review> reviews) throws IOException {
+		for(int i=0;i<reviews.size();i++) {
+			fileWriter[currentWriter].append(convertReview(reviews.get(i)));
 			currentWriter = (currentWriter + 1) % fileWriter.length;
 		}
 	}
@@ -117,20 +154,24 @@ public class NTriples implements Serializer {
 					parentURIREF));
 		}
 		
-		//dc:publisher
-		result.append(createTriple(
-				subjectURIREF,
-				createURIref(DC.publisher),
-				createURIref(BSBM.getStandardizationInstitution(1))));
+		if(pType.hasPublisher()) {
+			//dc:publisher
+			result.append(createTriple(
+					subjectURIREF,
+					createURIref(DC.publisher),
+					createURIref(BSBM.getStandardizationInstitution(1))));
+		}
 		
-		//dc:date
-		GregorianCalendar date = new GregorianCalendar();
-		date.setTimeInMillis(pType.getPublishDate());
-		String dateString = DateGenerator.formatDate(date);
-		result.append(createTriple(
-				subjectURIREF,
-				createURIref(DC.date),
-				createDataTypeLiteral(dateString, createURIref(XSD.Date))));
+		if(pType.hasPublishDate()) {
+			//dc:date
+			GregorianCalendar date = new GregorianCalendar();
+			date.setTimeInMillis(pType.getPublishDate());
+			String dateString = DateGenerator.formatDate(date);
+			result.append(createTriple(
+					subjectURIREF,
+					createURIref(DC.date),
+					createDataTypeLiteral(dateString, createURIref(XSD.Date))));
+		}
 		
 		return result.toString();
 	}
@@ -152,7 +193,7 @@ public class NTriples implements Serializer {
 						createURIref(BSBM.Offer)));
 		
 		//bsbm:product
-		int productNr = offer.getProduct();
+		long productNr = offer.getProduct();
 		int producerNr = Generator.getProducerOfProduct(productNr); 
 		result.append(createTriple(
 				subjectURIREF,
@@ -193,7 +234,7 @@ public class NTriples implements Serializer {
 		result.append(createTriple(
 				subjectURIREF,
 				createURIref(BSBM.deliveryDays),
-				createDataTypeLiteral(offer.getDeliveryDays().toString(), createURIref(XSD.Integer))));
+				createDataTypeLiteral(Integer.toString(offer.getDeliveryDays()), createURIref(XSD.Integer))));
 		
 		//bsbm:offerWebpage
 		result.append(createTriple(
@@ -201,20 +242,24 @@ public class NTriples implements Serializer {
 				createURIref(BSBM.offerWebpage),
 				createURIref(offer.getOfferWebpage())));
 		
-		//dc:publisher
-		result.append(createTriple(
-				subjectURIREF,
-				createURIref(DC.publisher),
-				Vendor.getURIref(offer.getVendor())));
+		if(offer.hasPublisher()) {
+			//dc:publisher
+			result.append(createTriple(
+					subjectURIREF,
+					createURIref(DC.publisher),
+					Vendor.getURIref(offer.getVendor())));
+		}
 		
-		//dc:date
-		GregorianCalendar date = new GregorianCalendar();
-		date.setTimeInMillis(offer.getPublishDate());
-		String dateString = DateGenerator.formatDate(date);
-		result.append(createTriple(
-				subjectURIREF,
-				createURIref(DC.date),
-				createDataTypeLiteral(dateString, createURIref(XSD.Date))));
+		if(offer.hasPublishDate()) {
+			//dc:date
+			GregorianCalendar date = new GregorianCalendar();
+			date.setTimeInMillis(offer.getPublishDate());
+			String dateString = DateGenerator.formatDate(date);
+			result.append(createTriple(
+					subjectURIREF,
+					createURIref(DC.date),
+					createDataTypeLiteral(dateString, createURIref(XSD.Date))));
+		}
 		
 		return result.toString();
 	}
@@ -249,14 +294,12 @@ public class NTriples implements Serializer {
 		
 		//bsbm:productType
 		if(forwardChaining) {
-			ProductType pt = product.getProductType();
-			while(pt!=null) {
-				result.append(createTriple(
-						subjectURIREF,
-						createURIref(RDF.type),
-						pt.toString()));
-				pt = pt.getParent();
+			String[] closure = getTypeClosure(product.getProductType());
+			for(int i=0;i<closure.length;i++) {
+				result.append(subjectURIREF);
+				result.append(closure[i]);
 			}
+			nrTriples += closure.length;
 		}
 		else {
 			result.append(createTriple(
@@ -272,15 +315,13 @@ public class NTriples implements Serializer {
 				Producer.getURIref(product.getProducer())));
 		
 		//bsbm:productPropertyNumeric
-		Integer[] ppn = product.getProductPropertyNumeric();
-		for(int i=0,j=1;i<ppn.length;i++,j++)
+		for(int i=0,j=1;i<Product.nrOfProductProperties;i++,j++)
 		{
-			Integer value = ppn[i];
-			if(value!=null)
+			if(product.hasProductPropertyNumeric(i))
 				result.append(createTriple(
 						subjectURIREF,
 						createURIref(BSBM.getProductPropertyNumeric(j)),
-						createDataTypeLiteral(value.toString(), createURIref(XSD.Integer))));
+						createDataTypeLiteral(Integer.toString(product.getProductPropertyNumeric(i)), createURIref(XSD.Integer))));
 		}
 		
 		//bsbm:productPropertyTextual
@@ -296,30 +337,33 @@ public class NTriples implements Serializer {
 		}
 		
 		//bsbm:productFeature
-		Iterator<Integer> pf = product.getFeatures().iterator();
-		while(pf.hasNext())
+		for(int i=0;i<product.getNrOfFeatures();i++)
 		{
-			Integer value = pf.next();
+			int value = product.getFeature(i);
 			result.append(createTriple(
 					subjectURIREF,
 					createURIref(BSBM.productFeature),
 					ProductFeature.getURIref(value)));
 		}
 		
-		//dc:publisher
-		result.append(createTriple(
-				subjectURIREF,
-				createURIref(DC.publisher),
-				Producer.getURIref(product.getProducer())));
+		if(product.hasPublisher()) {
+			//dc:publisher
+			result.append(createTriple(
+					subjectURIREF,
+					createURIref(DC.publisher),
+					Producer.getURIref(product.getProducer())));
+		}
 		
-		//dc:date
-		GregorianCalendar date = new GregorianCalendar();
-		date.setTimeInMillis(product.getPublishDate());
-		String dateString = DateGenerator.formatDate(date);
-		result.append(createTriple(
-				subjectURIREF,
-				createURIref(DC.date),
-				createDataTypeLiteral(dateString, createURIref(XSD.Date))));
+		if(product.hasPublishDate()) {
+			//dc:date
+			GregorianCalendar date = new GregorianCalendar();
+			date.setTimeInMillis(product.getPublishDate());
+			String dateString = DateGenerator.formatDate(date);
+			result.append(createTriple(
+					subjectURIREF,
+					createURIref(DC.date),
+					createDataTypeLiteral(dateString, createURIref(XSD.Date))));
+		}
 		
 		return result.toString();
 	}
@@ -358,20 +402,24 @@ public class NTriples implements Serializer {
 				createURIref(BSBM.country),
 				createURIref(ISO3166.find(person.getCountryCode()))));
 		
-		//dc:publisher
-		result.append(createTriple(
-				subjectURIREF,
-				createURIref(DC.publisher),
-				RatingSite.getURIref(person.getPublisher())));
+		if(person.hasPublisher()) {
+			//dc:publisher
+			result.append(createTriple(
+					subjectURIREF,
+					createURIref(DC.publisher),
+					RatingSite.getURIref(person.getPublisher())));
+		}
 		
-		//dc:date
-		GregorianCalendar date = new GregorianCalendar();
-		date.setTimeInMillis(person.getPublishDate());
-		String dateString = DateGenerator.formatDate(date);
-		result.append(createTriple(
-				subjectURIREF,
-				createURIref(DC.date),
-				createDataTypeLiteral(dateString, createURIref(XSD.Date))));
+		if(person.hasPublishDate()) {
+			//dc:date
+			GregorianCalendar date = new GregorianCalendar();
+			date.setTimeInMillis(person.getPublishDate());
+			String dateString = DateGenerator.formatDate(date);
+			result.append(createTriple(
+					subjectURIREF,
+					createURIref(DC.date),
+					createDataTypeLiteral(dateString, createURIref(XSD.Date))));
+		}
 		
 		return result.toString();
 	}
@@ -416,20 +464,24 @@ public class NTriples implements Serializer {
 				createURIref(BSBM.country),
 				createURIref(ISO3166.find(producer.getCountryCode()))));
 		
-		//dc:publisher
-		result.append(createTriple(
-				subjectURIREF,
-				createURIref(DC.publisher),
-				producer.toString()));
+		if(producer.hasPublisher()) {
+			//dc:publisher
+			result.append(createTriple(
+					subjectURIREF,
+					createURIref(DC.publisher),
+					producer.toString()));
+		}
 		
-		//dc:date
-		GregorianCalendar date = new GregorianCalendar();
-		date.setTimeInMillis(producer.getPublishDate());
-		String dateString = DateGenerator.formatDate(date);
-		result.append(createTriple(
-				subjectURIREF,
-				createURIref(DC.date),
-				createDataTypeLiteral(dateString, createURIref(XSD.Date))));
+		if(producer.hasPublishDate()) {
+			//dc:date
+			GregorianCalendar date = new GregorianCalendar();
+			date.setTimeInMillis(producer.getPublishDate());
+			String dateString = DateGenerator.formatDate(date);
+			result.append(createTriple(
+					subjectURIREF,
+					createURIref(DC.date),
+					createDataTypeLiteral(dateString, createURIref(XSD.Date))));
+		}
 		
 		return result.toString();
 	}
@@ -462,20 +514,24 @@ public class NTriples implements Serializer {
 				createURIref(RDFS.comment),
 				createLiteral(pf.getComment())));
 		
-		//dc:publisher
-		result.append(createTriple(
-				subjectURIREF,
-				createURIref(DC.publisher),
-				createURIref(BSBM.getStandardizationInstitution(pf.getPublisher()))));
+		if(pf.hasPublisher()) {
+			//dc:publisher
+			result.append(createTriple(
+					subjectURIREF,
+					createURIref(DC.publisher),
+					createURIref(BSBM.getStandardizationInstitution(pf.getPublisher()))));
+		}
 		
-		//dc:date
-		GregorianCalendar date = new GregorianCalendar();
-		date.setTimeInMillis(pf.getPublishDate());
-		String dateString = DateGenerator.formatDate(date);
-		result.append(createTriple(
-				subjectURIREF,
-				createURIref(DC.date),
-				createDataTypeLiteral(dateString, createURIref(XSD.Date))));
+		if(pf.hasPublishDate()) {
+			//dc:date
+			GregorianCalendar date = new GregorianCalendar();
+			date.setTimeInMillis(pf.getPublishDate());
+			String dateString = DateGenerator.formatDate(date);
+			result.append(createTriple(
+					subjectURIREF,
+					createURIref(DC.date),
+					createDataTypeLiteral(dateString, createURIref(XSD.Date))));
+		}
 		
 		return result.toString();
 	}
@@ -520,20 +576,24 @@ public class NTriples implements Serializer {
 				createURIref(BSBM.country),
 				createURIref(ISO3166.find(vendor.getCountryCode()))));
 		
-		//dc:publisher
-		result.append(createTriple(
-				subjectURIREF,
-				createURIref(DC.publisher),
-				vendor.toString()));
+		if(vendor.hasPublisher()) {
+			//dc:publisher
+			result.append(createTriple(
+					subjectURIREF,
+					createURIref(DC.publisher),
+					vendor.toString()));
+		}
 		
-		//dc:date
-		GregorianCalendar date = new GregorianCalendar();
-		date.setTimeInMillis(vendor.getPublishDate());
-		String dateString = DateGenerator.formatDate(date);
-		result.append(createTriple(
-				subjectURIREF,
-				createURIref(DC.date),
-				createDataTypeLiteral(dateString, createURIref(XSD.Date))));
+		if(vendor.hasPublishDate()) {
+			//dc:date
+			GregorianCalendar date = new GregorianCalendar();
+			date.setTimeInMillis(vendor.getPublishDate());
+			String dateString = DateGenerator.formatDate(date);
+			result.append(createTriple(
+					subjectURIREF,
+					createURIref(DC.date),
+					createDataTypeLiteral(dateString, createURIref(XSD.Date))));
+		}
 		
 		return result.toString();
 	}
@@ -589,37 +649,58 @@ public class NTriples implements Serializer {
 				createLanguageLiteral(review.getText(),ISO3166.language[review.getLanguage()])));
 		
 		//bsbm:ratingX
-		Integer[] ratings = review.getRatings();
-		for(int i=0,j=1;i<ratings.length;i++,j++)
+		for(int i=0,j=1;i<Review.nrOfRatings;i++,j++)
 		{
-			Integer value = ratings[i];
-			if(value!=null)
+			if(review.hasRating(i))
 				result.append(createTriple(
 						subjectURIREF,
 						createURIref(BSBM.getRating(j)),
-						createDataTypeLiteral(value.toString(), createURIref(XSD.Integer))));
+						createDataTypeLiteral(Integer.toString(review.getRating(i)), createURIref(XSD.Integer))));
 		}
 		
-		//dc:publisher
-		result.append(createTriple(
-				subjectURIREF,
-				createURIref(DC.publisher),
-				RatingSite.getURIref(review.getPublisher())));
+		if(review.hasPublisher()) {
+			//dc:publisher
+			result.append(createTriple(
+					subjectURIREF,
+					createURIref(DC.publisher),
+					RatingSite.getURIref(review.getPublisher())));
+		}
 		
-		//dc:date
-		GregorianCalendar date = new GregorianCalendar();
-		date.setTimeInMillis(review.getPublishDate());
-		String dateString = DateGenerator.formatDate(date);
-		result.append(createTriple(
-				subjectURIREF,
-				createURIref(DC.date),
-				createDataTypeLiteral(dateString, createURIref(XSD.Date))));
+		if(review.hasPublishDate()) {
+			//dc:date
+			GregorianCalendar date = new GregorianCalendar();
+			date.setTimeInMillis(review.getPublishDate());
+			String dateString = DateGenerator.formatDate(date);
+			result.append(createTriple(
+					subjectURIREF,
+					createURIref(DC.date),
+					createDataTypeLiteral(dateString, createURIref(XSD.Date))));
+		}
 		
 		return result.toString();
 	}
 	
 
 	
+	/*
+	 * The rdf:type triples (without subject) of a product type and all its
+	 * super types. They are rendered once per leaf type.
+	 */
+	private String[] getTypeClosure(ProductType leaf)
+	{
+		String[] closure = typeClosures.get(leaf);
+		if(closure==null) {
+			closure = new String[leaf.getDepth() + 1];
+			ProductType pt = leaf;
+			for(int i=0;i<closure.length;i++) {
+				closure[i] = " " + createURIref(RDF.type) + " " + pt.toString() + " .\n";
+				pt = pt.getParent();
+			}
+			typeClosures.put(leaf, closure);
+		}
+		return closure;
+	}
+	
 	//Create Literal
 	private String createLiteral(String value)
 	{
@@ -716,4 +797,21 @@ public class NTriples implements Serializer {
 	public Long triplesGenerated() {
 		return nrTriples;
 	}
+	
+	public SerializerState getState() {
+		return new SerializerState(fileNames, fileWriter, currentWriter, nrTriples);
+	}
+	
+	public void setState(SerializerState state) {
+		try {
+			for(int i=0;i<fileWriter.length;i++)
+				fileWriter[i].close();
+		} catch(IOException e) {
+			System.err.println(e.getMessage());
+			System.exit(-1);
+		}
+		fileWriter = state.truncate(fileNames);
+		currentWriter = state.getCurrentWriter();
+		nrTriples = state.getNrTriples();
+	}
 }
@@ -0,0 +1,147 @@
+package benchmark.serializer;
+
+import java.io.IOException;
+import java.io.Writer;
+import benchmark.model.*;
+
+/*
+ * Serializer which writes nothing. It is used to measure the generator
+ * without the cost of the disk:
+ *   - without byte counting it only counts the resources and the triples
+ *     the N-Triples serializer would have written for them.
+ *   - with byte counting the data is formatted as N-Triples, but the
+ *     output is discarded and only its size in bytes is counted.
+ */
+public class NullSerializer implements Serializer {
+	private boolean forwardChaining;
+	private long nrTriples;
+	private long nrResources;
+	private CountingWriter counter;
+	private NTriples ntriples;
+
+	public NullSerializer(boolean forwardChaining)
+	{
+		this(forwardChaining, false);
+	}
+
+	public NullSerializer(boolean forwardChaining, boolean countBytes)
+	{
+		this.forwardChaining = forwardChaining;
+		nrTriples = 0l;
+		nrResources = 0l;
+		if(countBytes) {
+			counter = new CountingWriter();
+			ntriples = new NTriples(new Writer[] { counter }, forwardChaining);
+		}
+	}
+
+	public void gatherData(ObjectBundle bundle) {
+		if(ntriples!=null) {
+			nrResources += bundle.size();
+			ntriples.gatherData(bundle);
+			return;
+		}
+
+		try {
+			bundle.visit(this);
+		} catch(IOException e) {
+			//Nothing gets written
+		}
+	}
+	
+	public void visitProductTypes(ResourceBatch<ProductType> productTypes) {
+		nrResources += productTypes.size();
+		for(int i=0;i<productTypes.size();i++)
+			nrTriples += productTypes.get(i).getParent()!=null ? 6 : 5;
+	}
+	
+	public void visitProductFeatures(ResourceBatch<ProductFeature> productFeatures) {
+		nrResources += productFeatures.size();
+		nrTriples += 5l * productFeatures.size();
+	}
+	
+	public void visitProducers(ResourceBatch<Producer> producers) {
+		nrResources += producers.size();
+		nrTriples += 7l * producers.size();
+	}
+	
+	public void visitProducts(ResourceBatch<Product> products) {
+		nrResources += products.size();
+		for(int i=0;i<products.size();i++)
+			nrTriples += countProduct(products.get(i));
+	}
+	
+	public void visitVendors(ResourceBatch<Vendor> vendors) {
+		nrResources += vendors.size();
+		nrTriples += 7l * vendors.size();
+	}
+	
+	public void visitOffers(ResourceBatch<Offer> offers) {
+		nrResources += offers.size();
+		nrTriples += 10l * offers.size();
+	}
+	
+	public void visitPersons(ResourceBatch<Person> persons) {
+		nrResources += persons.size();
+		nrTriples += 6l * persons.size();
+	}
+	
+	public void visitReviews(ResourceBatch<Review> reviews) {
+		nrResources += reviews.size();
+		for(int i=0;i<reviews.size();i++)
+			nrTriples += 8 + reviews.get(i).getNrOfRatings();
+	}
+
+	/*
+	 * Same triples as NTriples.convertProduct()
+	 */
+	private long countProduct(Product product)
+	{
+		//rdf:type, rdfs:label, rdfs:comment, bsbm:producer, dc:publisher, dc:date
+		long count = 6;
+
+		if(forwardChaining)
+			count += product.getProductType().getDepth() + 1;
+		else
+			count++;
+
+		count += product.getNrOfProductPropertiesNumeric();
+		count += countNonNull(product.getProductPropertyTextual());
+		count += product.getNrOfFeatures();
+
+		return count;
+	}
+
+	private static int countNonNull(Object[] values)
+	{
+		int count = 0;
+		for(int i=0;i<values.length;i++)
+			if(values[i]!=null)
+				count++;
+		return count;
+	}
+
+	public void serialize() {
+		if(ntriples!=null)
+			ntriples.serialize();
+	}
+
+	public Long triplesGenerated() {
+		if(ntriples!=null)
+			return ntriples.triplesGenerated();
+		return nrTriples;
+	}
+
+	public long resourcesGenerated() {
+		return nrResources;
+	}
+
+	/*
+	 * Size of the N-Triples output in bytes, 0 if bytes are not counted
+	 */
+	public long bytesGenerated() {
+		if(counter!=null)
+			return counter.getNrBytes();
+		return 0;
+	}
+}
@@ -1,14 +1,35 @@
 package benchmark.serializer;
 
+import java.io.IOException;
 import java.util.*;
 import benchmark.model.*;
 
+/*
+ * The resources of one commit. The bundle is array backed and gets reused
+ * after each commit. Serializers walk it with size(), get(i) and getKind(i):
+ * the kind of each resource is determined once when it gets added.
+ */
 public class ObjectBundle {
+	//Kinds of resources
+	public static final int PRODUCT_TYPE = 0;
+	public static final int PRODUCT_FEATURE = 1;
+	public static final int PRODUCER = 2;
+	public static final int PRODUCT = 3;
+	public static final int VENDOR = 4;
+	public static final int OFFER = 5;
+	public static final int PERSON = 6;
+	public static final int REVIEW = 7;
+	public static final int OTHER = 8;
+
+	private static final int defaultCapacity = 256;
+
 	private String graphName;
 	private int publisherNum;
 	private String publisher;
 	private long publishDate;
-	private Vector<BSBMResource> objects;
+	private BSBMResource[] objects;
+	private byte[] kinds;
+	private int nrOfObjects;
 	private Serializer serializer;
 	private int maxSize;
 	private int size;
@@ -24,7 +45,8 @@ public class ObjectBundle {
 
 	public ObjectBundle(Serializer serializer)
 	{
-		objects = new Vector<BSBMResource>();
+		objects = new BSBMResource[defaultCapacity];
+		kinds = new byte[defaultCapacity];
 		maxSize = 0;
 		size = 0;
 		this.serializer = serializer;
@@ -33,7 +55,8 @@ public class ObjectBundle {
 	
 	public ObjectBundle(Serializer serializer, int maxsize)
 	{
-		objects = new Vector<BSBMResource>(maxsize);
+		objects = new BSBMResource[Math.max(maxsize, 1)];
+		kinds = new byte[objects.length];
 		maxSize = maxsize;
 		size = 0;
 		this.serializer = serializer;
@@ -42,7 +65,13 @@ public class ObjectBundle {
 	
 	public void add(BSBMResource res)
 	{
-		objects.add(res);
+		if(nrOfObjects==objects.length) {
+			objects = Arrays.copyOf(objects, 2 * objects.length);
+			kinds = Arrays.copyOf(kinds, objects.length);
+		}
+		objects[nrOfObjects] = res;
+		kinds[nrOfObjects] = (byte) getKind(res);
+		nrOfObjects++;
 		
 		//Only if maxSize is set, automatic commit active
 		if(maxSize>0)
@@ -55,7 +84,99 @@ public class ObjectBundle {
 	
 	public int size()
 	{
-		return objects.size();
+		return nrOfObjects;
+	}
+	
+	/*
+	 * The i-th resource of the bundle
+	 */
+	public BSBMResource get(int i)
+	{
+		return objects[i];
+	}
+	
+	/*
+	 * The kind of the i-th resource, e.g. PRODUCT
+	 */
+	public int getKind(int i)
+	{
+		return kinds[i];
+	}
+	
+	private static int getKind(BSBMResource res)
+	{
+		if(res instanceof ProductType)
+			return PRODUCT_TYPE;
+		else if(res instanceof ProductFeature)
+			return PRODUCT_FEATURE;
+		else if(res instanceof Producer)
+			return PRODUCER;
+		else if(res instanceof Product)
+			return PRODUCT;
+		else if(res instanceof Vendor)
+			return VENDOR;
+		else if(res instanceof Offer)
+			return OFFER;
+		else if(res instanceof Person)
+			return PERSON;
+		else if(res instanceof Review)
+			return REVIEW;
+		else
+			return OTHER;
+	}
+	
+	/*
+	 * Hands the runs of resources of the same kind to the serializer,
+	 * in the order they were added. Several serializers can visit the
+	 * same bundle at the same time.
+	 */
+	public void visit(Serializer serializer) throws IOException
+	{
+		int start = 0;
+		while(start<nrOfObjects) {
+			int kind = kinds[start];
+			int end = start + 1;
+			while(end<nrOfObjects && kinds[end]==kind)
+				end++;
+			
+			switch(kind) {
+				case PRODUCT_TYPE:
+					serializer.visitProductTypes(new ResourceBatch<ProductType>(this, start, end - start));
+					break;
+				case PRODUCT_FEATURE:
+					serializer.visitProductFeatures(new ResourceBatch<ProductFeature>(this, start, end - start));
+					break;
+				case PRODUCER:
+					serializer.visitProducers(new ResourceBatch<Producer>(this, start, end - start));
+					break;
+				case PRODUCT:
+					serializer.visitProducts(new ResourceBatch<Product>(this, start, end - start));
+					break;
+				case VENDOR:
+					serializer.visitVendors(new ResourceBatch<Vendor>(this, start, end - start));
+					break;
+				case OFFER:
+					serializer.visitOffers(new ResourceBatch<Offer>(this, start, end - start));
+					break;
+				case PERSON:
+					serializer.visitPersons(new ResourceBatch<Person>(this, start, end - start));
+					break;
+				case REVIEW:
+					serializer.visitReviews(new ResourceBatch<Review>(this, start, end - start));
+					break;
+			}
+			start = end;
+		}
+	}
+	
+	/*
+	 * Removes all resources, the bundle can be filled again
+	 */
+	public void clear()
+	{
+		Arrays.fill(objects, 0, nrOfObjects, null);
+		nrOfObjects = 0;
+		size = 0;
 	}
 
 	public String getGraphName() {
@@ -67,8 +188,7 @@ public class ObjectBundle {
 		//Only do this if Serializer is set
 		if(serializer!=null) {
 			serializer.gatherData(this);
-			size=0;
-			objects = new Vector<BSBMResource>(maxSize);
+			clear();
 			return true;
 		}else
 			return false;
@@ -77,10 +197,28 @@ public class ObjectBundle {
 	public void setGraphName(String namedGraph) {
 		this.graphName = namedGraph;
 	}
+
+	/*
+	 * Returns a detached copy of this bundle (resources and provenance data),
+	 * which stays valid after this bundle has been committed.
+	 */
+	public ObjectBundle copy()
+	{
+		ObjectBundle copy = new ObjectBundle(null);
+		copy.objects = Arrays.copyOf(objects, nrOfObjects);
+		copy.kinds = Arrays.copyOf(kinds, nrOfObjects);
+		copy.nrOfObjects = nrOfObjects;
+		copy.graphName = graphName;
+		copy.publisherNum = publisherNum;
+		copy.publisher = publisher;
+		copy.publishDate = publishDate;
+		copy.finish = finish;
+		return copy;
+	}
 	
 	public Iterator<BSBMResource> iterator()
 	{
-		return objects.iterator();
+		return Arrays.asList(objects).subList(0, nrOfObjects).iterator();
 	}
 
 
@@ -0,0 +1,91 @@
+package benchmark.serializer;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.attribute.BasicFileAttributes;
+
+/*
+ * Opens the output files of all serializers. Possible backends are:
+ *   writer:  java.io.FileWriter
+ *   channel: ChannelWriter with two direct buffers, one gets written in the
+ *            background while the other one gets filled (default). The
+ *            buffers grow up to the buffer size with the file.
+ *   mmap:    ChannelWriter writing into memory mapped windows of the file
+ * The file name "-" stands for stdout. Stdout and named pipes are always
+ * written by a StreamWriter.
+ */
+public class OutputBackend {
+	private static String backend = "channel";
+	public static final int maxBufferSizeMB = 1024;
+	private static int bufferSize = 8 * 1024 * 1024;
+
+	/*
+	 * Returns false for an unknown backend
+	 */
+	public static boolean setBackend(String name) {
+		if(!name.equals("writer") && !name.equals("channel") && !name.equals("mmap"))
+			return false;
+
+		backend = name;
+		return true;
+	}
+
+	/*
+	 * Size of each buffer or mapped window in MB, returns false if it is
+	 * not between 1 and maxBufferSizeMB
+	 */
+	public static boolean setBufferSizeMB(int size) {
+		if(size<1 || size>maxBufferSizeMB)
+			return false;
+
+		bufferSize = Math.multiplyExact(size, 1024 * 1024);
+		return true;
+	}
+
+	public static Writer open(String fileName) throws IOException {
+		return open(new File(fileName), false);
+	}
+
+	public static Writer open(String fileName, boolean append) throws IOException {
+		return open(new File(fileName), append);
+	}
+
+	public static Writer open(File file) throws IOException {
+		return open(file, false);
+	}
+
+	public static Writer open(File file, boolean append) throws IOException {
+		if(isStdout(file.getPath()))
+			return new StreamWriter(bufferSize);
+		else if(isPipe(file))
+			return new StreamWriter(file, bufferSize);
+		else if(backend.equals("writer"))
+			return new FileWriter(file, append);
+		else
+			return new ChannelWriter(file, append, bufferSize, backend.equals("mmap"));
+	}
+
+	/*
+	 * The name of an output file: file + extension, or "-" for stdout
+	 */
+	public static String getFileName(String file, String extension) {
+		if(isStdout(file))
+			return file;
+		return file + extension;
+	}
+
+	public static boolean isStdout(String fileName) {
+		return fileName.equals("-");
+	}
+
+	/*
+	 * True for an existing named pipe (or other special file)
+	 */
+	public static boolean isPipe(File file) {
+		try {
+			return Files.readAttributes(file.toPath(), BasicFileAttributes.class).isOther();
+		} catch(IOException e) {
+			return false;
+		}
+	}
+}
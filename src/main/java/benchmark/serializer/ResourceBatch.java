@@ -0,0 +1,40 @@
+package benchmark.serializer;
+
+import benchmark.model.BSBMResource;
+
+/*
+ * A run of resources of the same kind in an ObjectBundle, e.g. the offers
+ * of a vendor. The batch is a view on the bundle and only valid during the
+ * visit call it is handed to.
+ */
+public class ResourceBatch<T extends BSBMResource> {
+	private ObjectBundle bundle;
+	private int start;
+	private int size;
+
+	ResourceBatch(ObjectBundle bundle, int start, int size)
+	{
+		this.bundle = bundle;
+		this.start = start;
+		this.size = size;
+	}
+
+	public int size()
+	{
+		return size;
+	}
+
+	@SuppressWarnings("unchecked")
+	public T get(int i)
+	{
+		return (T) bundle.get(start + i);
+	}
+
+	/*
+	 * The bundle with the graph and publisher data of the resources
+	 */
+	public ObjectBundle getBundle()
+	{
+		return bundle;
+	}
+}
@@ -0,0 +1,17 @@
+package benchmark.serializer;
+
+/*
+ * Serializer whose output can be continued from a checkpoint
+ */
+public interface ResumableSerializer extends Serializer {
+	
+	/*
+	 * Flushes the output and returns the state needed to continue from this point
+	 */
+	public SerializerState getState();
+	
+	/*
+	 * Truncates the output to the given state and continues writing from there
+	 */
+	public void setState(SerializerState state);
+}
@@ -1,14 +1,12 @@
 package benchmark.serializer;
 
-import java.io.FileWriter;
+import java.io.Writer;
 import java.io.IOException;
 import java.util.GregorianCalendar;
-import java.util.Iterator;
 import java.io.File;
 
 import benchmark.generator.DateGenerator;
 import benchmark.generator.Generator;
-import benchmark.model.BSBMResource;
 import benchmark.model.Offer;
 import benchmark.model.Person;
 import benchmark.model.Producer;
@@ -38,44 +36,44 @@ public class SQLSerializer implements Serializer {
 		initTables();
 	}
 	
-	public void gatherData(ObjectBundle bundle) {
-		Iterator<BSBMResource> it = bundle.iterator();
+	public void visitProductTypes(ResourceBatch<ProductType> productTypes) throws IOException {
+		for(int i=0;i<productTypes.size();i++)
+			convertProductType(productTypes.get(i));
+	}
 	
-		try {
-			while(it.hasNext())
-			{
-				BSBMResource obj = it.next();
+	public void visitOffers(ResourceBatch<Offer> offers) throws IOException {
+		for(int i=0;i<offers.size();i++)
+			convertOffer(offers.get(i));
+	}
 	
-				if(obj instanceof ProductType){
-					convertProductType((ProductType)obj);
-				}
-				else if(obj instanceof Offer){
-					convertOffer((Offer)obj);
-				}
-				else if(obj instanceof Product){
-					convertProduct((Product)obj);
-				}
-				else if(obj instanceof Person){
-					convertPerson((Person)obj);
-				}
-				else if(obj instanceof Producer){
-					convertProducer((Producer)obj);
-				}
-				else if(obj instanceof ProductFeature){
-					convertProductFeature((ProductFeature)obj);
-				}
-				else if(obj instanceof Vendor){
-					convertVendor((Vendor)obj);
-				}
-				else if(obj instanceof Review){
-					convertReview((Review)obj);
-				}
-			}
-		}catch(IOException e){
-			System.err.println("Could not write into File!");
-			System.err.println(e.getMessage());
-			System.exit(-1);
-		}
+	public void visitProducts(ResourceBatch<Product> products) throws IOException {
+		for(int i=0;i<products.size();i++)
+			convertProduct(products.get(i));
+	}
+	
+	public void visitPersons(ResourceBatch<Person> persons) throws IOException {
+		for(int i=0;i<persons.size();i++)
+			convertPerson(persons.get(i));
+	}
+	
+	public void visitProducers(ResourceBatch<Producer> producers) throws IOException {
+		for(int i=0;i<producers.size();i++)
+			convertProducer(producers.get(i));
+	}
+	
+	public void visitProductFeatures(ResourceBatch<ProductFeature> productFeatures) throws IOException {
+		for(int i=0;i<productFeatures.size();i++)
+			convertProductFeature(productFeatures.get(i));
+	}
+	
+	public void visitVendors(ResourceBatch<Vendor> vendors) throws IOException {
+		for(int i=0;i<vendors.size();i++)
+			convertVendor(vendors.get(i));
+	}
+	
+	public void visitReviews(ResourceBatch<Review> reviews) throws IOException {
+		for(int i=0;i<reviews.size();i++)
+			convertReview(reviews.get(i));
 	}
 
 	/*
@@ -258,12 +256,10 @@ public class SQLSerializer implements Serializer {
 		
 	
 		//propertyNum
-		Integer[] ppn = product.getProductPropertyNumeric();
-		for(Integer i=0,j=1;i<ppn.length;i++,j++)
+		for(int i=0,j=1;i<Product.nrOfProductProperties;i++,j++)
 		{
-			Integer value = ppn[i];
-			if(value!=null)
-				values.append(value.toString() + ",");
+			if(product.hasProductPropertyNumeric(i))
+				values.append(product.getProductPropertyNumeric(i) + ",");
 			else
 				values.append("null,");
 		}
@@ -280,12 +276,11 @@ public class SQLSerializer implements Serializer {
 		}
 		
 		//productFeatureProduct
-		Iterator<Integer> pf = product.getFeatures().iterator();
-		while(pf.hasNext())
+		for(int i=0;i<product.getNrOfFeatures();i++)
 		{
 			StringBuffer valuesPFP = getBuffer(tables.productFeatureProductInsertCounter++, "productfeatureproduct");
 			valuesPFP.append("(");
-			Integer value = pf.next();
+			int value = product.getFeature(i);
 
 			valuesPFP.append(product.getNr());
 			valuesPFP.append("," + value);
@@ -551,11 +546,12 @@ public class SQLSerializer implements Serializer {
 		values.append("',");
 		
 		//ratings
-		Integer[] ratings = review.getRatings();
-		for(int i=0;i<ratings.length;i++)
+		for(int i=0;i<Review.nrOfRatings;i++)
 		{
-			Integer value = ratings[i];
-			values.append(value);
+			if(review.hasRating(i))
+				values.append(review.getRating(i));
+			else
+				values.append("null");
 			values.append(",");
 		}
 		
@@ -630,16 +626,16 @@ public class SQLSerializer implements Serializer {
 	}
 
 	private class SQLTables {
-		FileWriter offerDump;
-		FileWriter vendorDump;
-		FileWriter productFeatureDump;
-		FileWriter productDump;
-		FileWriter producerDump;
-		FileWriter productTypeProductDump;
-		FileWriter personDump;
-		FileWriter productTypeDump;
-		FileWriter reviewDump;
-		FileWriter productFeatureProductDump;
+		Writer offerDump;
+		Writer vendorDump;
+		Writer productFeatureDump;
+		Writer productDump;
+		Writer producerDump;
+		Writer productTypeProductDump;
+		Writer personDump;
+		Writer productTypeDump;
+		Writer reviewDump;
+		Writer productFeatureProductDump;
 		
 		int offerInsertCounter;
 		int vendorInsertCounter;
@@ -835,16 +831,16 @@ public class SQLSerializer implements Serializer {
 		tables.productFeatureProductInsertCounter=0;
 		
 		try {
-		tables.offerDump = new FileWriter(new File(outputDir, "08Offer.sql"));
-		tables.vendorDump = new FileWriter(new File(outputDir, "07Vendor.sql"));
-		tables.productFeatureDump = new FileWriter(new File(outputDir, "01ProductFeature.sql"));
-		tables.productDump = new FileWriter(new File(outputDir, "04Product.sql"));
-		tables.producerDump = new FileWriter(new File(outputDir, "03Producer.sql"));
-		tables.productTypeProductDump = new FileWriter(new File(outputDir, "05ProductTypeProduct.sql"));
-		tables.personDump = new FileWriter(new File(outputDir, "09Person.sql"));
-		tables.productTypeDump = new FileWriter(new File(outputDir, "02ProductType.sql"));
-		tables.reviewDump = new FileWriter(new File(outputDir, "10Review.sql"));
-		tables.productFeatureProductDump = new FileWriter(new File(outputDir, "06ProductFeatureProduct.sql"));
+		tables.offerDump = OutputBackend.open(new File(outputDir, "08Offer.sql"));
+		tables.vendorDump = OutputBackend.open(new File(outputDir, "07Vendor.sql"));
+		tables.productFeatureDump = OutputBackend.open(new File(outputDir, "01ProductFeature.sql"));
+		tables.productDump = OutputBackend.open(new File(outputDir, "04Product.sql"));
+		tables.producerDump = OutputBackend.open(new File(outputDir, "03Producer.sql"));
+		tables.productTypeProductDump = OutputBackend.open(new File(outputDir, "05ProductTypeProduct.sql"));
+		tables.personDump = OutputBackend.open(new File(outputDir, "09Person.sql"));
+		tables.productTypeDump = OutputBackend.open(new File(outputDir, "02ProductType.sql"));
+		tables.reviewDump = OutputBackend.open(new File(outputDir, "10Review.sql"));
+		tables.productFeatureProductDump = OutputBackend.open(new File(outputDir, "06ProductFeatureProduct.sql"));
 		
 		tables.productTypeDump.append(tables.initProductType());
 		tables.productFeatureDump.append(tables.initProductFeature());
@@ -1,8 +1,50 @@
 package benchmark.serializer;
 
+import java.io.IOException;
+import benchmark.model.*;
+
+/*
+ * A serializer converts the resources of a bundle batch by batch: the default
+ * gatherData() hands each run of resources of the same kind to the matching
+ * visit method, in the order of the bundle. Serializers which handle the
+ * whole bundle themselves override gatherData() instead, the visit methods
+ * do nothing by default.
+ */
 public interface Serializer {
 	
-	public void gatherData(ObjectBundle bundle);
+	public default void gatherData(ObjectBundle bundle) {
+		try {
+			bundle.visit(this);
+		} catch(IOException e) {
+			System.err.println("Could not write into File!");
+			System.err.println(e.getMessage());
+			System.exit(-1);
+		}
+	}
+	
+	public default void visitProductTypes(ResourceBatch<ProductType> productTypes) throws IOException {
+	}
+	
+	public default void visitProductFeatures(ResourceBatch<ProductFeature> productFeatures) throws IOException {
+	}
+	
+	public default void visitProducers(ResourceBatch<Producer> producers) throws IOException {
+	}
+	
+	public default void visitProducts(ResourceBatch<Product> products) throws IOException {
+	}
+	
+	public default void visitVendors(ResourceBatch<Vendor> vendors) throws IOException {
+	}
+	
+	public default void visitOffers(ResourceBatch<Offer> offers) throws IOException {
+	}
+	
+	public default void visitPersons(ResourceBatch<Person> persons) throws IOException {
+	}
+	
+	public default void visitReviews(ResourceBatch<Review> reviews) throws IOException {
+	}
 	
 	public void serialize();
 	
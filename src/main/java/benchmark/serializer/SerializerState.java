@@ -0,0 +1,78 @@
+package benchmark.serializer;
+
+import java.io.*;
+
+/*
+ * State of a file based serializer at a checkpoint: the length of every
+ * output file, the file which gets written next and the number of triples.
+ */
+@SuppressWarnings("serial")
+public class SerializerState implements Serializable {
+	private long[] offsets;
+	private int currentWriter;
+	private long nrTriples;
+
+	/*
+	 * Flushes the writers and records the length of their files
+	 */
+	SerializerState(String[] fileNames, Writer[] writers, int currentWriter, long nrTriples)
+	{
+		this.currentWriter = currentWriter;
+		this.nrTriples = nrTriples;
+		offsets = new long[fileNames.length];
+		try {
+			for(int i=0;i<fileNames.length;i++) {
+				writers[i].flush();
+				RandomAccessFile file = new RandomAccessFile(fileNames[i], "rw");
+				//The data has to be on disk before the checkpoint refers to it
+				file.getChannel().force(false);
+				//A memory mapped file is longer than the data written into it
+				if(writers[i] instanceof ChannelWriter)
+					offsets[i] = ((ChannelWriter)writers[i]).getPosition();
+				else
+					offsets[i] = file.length();
+				file.close();
+			}
+		} catch(IOException e) {
+			System.err.println("Could not flush output for checkpoint.\n" + e.getMessage());
+			System.exit(-1);
+		}
+	}
+
+	/*
+	 * Truncates the files to their length at the checkpoint and opens them for appending
+	 */
+	Writer[] truncate(String[] fileNames)
+	{
+		if(fileNames.length!=offsets.length) {
+			System.err.println("Checkpoint was written for " + offsets.length + " output files, not " + fileNames.length + ".");
+			System.exit(-1);
+		}
+		
+		Writer[] writers = new Writer[fileNames.length];
+		try {
+			for(int i=0;i<fileNames.length;i++) {
+				RandomAccessFile file = new RandomAccessFile(fileNames[i], "rw");
+				if(file.length()<offsets[i]) {
+					System.err.println("File " + fileNames[i] + " is shorter than at the checkpoint.");
+					System.exit(-1);
+				}
+				file.setLength(offsets[i]);
+				file.close();
+				writers[i] = OutputBackend.open(fileNames[i], true);
+			}
+		} catch(IOException e) {
+			System.err.println("Could not truncate output to checkpoint.\n" + e.getMessage());
+			System.exit(-1);
+		}
+		return writers;
+	}
+
+	public int getCurrentWriter() {
+		return currentWriter;
+	}
+
+	public long getNrTriples() {
+		return nrTriples;
+	}
+}
@@ -0,0 +1,197 @@
+package benchmark.serializer;
+
+import java.io.*;
+import java.util.concurrent.*;
+
+/*
+ * Writer for stdout and named pipes. The text is collected in large chunks,
+ * a thread of its own encodes them and writes them to the stream, so the
+ * generator continues while the consumer reads. If the consumer is slower,
+ * the generator blocks as soon as all chunks are waiting to be written.
+ * A named pipe gets opened by the thread, so opening waits for the consumer
+ * without blocking the generator.
+ */
+public class StreamWriter extends Writer {
+	private static final int nrOfChunks = 3;
+	private static final int streamBufferSize = 64 * 1024;
+
+	private final StringBuilder end = new StringBuilder(0);
+	private final StringBuilder flushRequest = new StringBuilder(0);
+	private BlockingQueue<StringBuilder> full = new ArrayBlockingQueue<StringBuilder>(nrOfChunks + 2);
+	private BlockingQueue<StringBuilder> free = new ArrayBlockingQueue<StringBuilder>(nrOfChunks);
+	private StringBuilder chunk;
+	private int chunkSize;
+	private Thread writer;
+	private volatile IOException failure;
+	private boolean closed;
+
+	/*
+	 * Writes to stdout
+	 */
+	public StreamWriter(int chunkSize)
+	{
+		this(null, chunkSize);
+	}
+
+	/*
+	 * Writes to a named pipe
+	 */
+	public StreamWriter(final File pipe, int chunkSize)
+	{
+		this.chunkSize = chunkSize;
+		for(int i=0;i<nrOfChunks;i++)
+			free.add(new StringBuilder(chunkSize));
+		chunk = take(free);
+
+		writer = new Thread(new Runnable() {
+			public void run() {
+				writeChunks(pipe);
+			}
+		}, "Output-" + (pipe==null ? "stdout" : pipe.getName()));
+		writer.setDaemon(true);
+		writer.start();
+		closed = false;
+	}
+
+	private void writeChunks(File pipe) {
+		Writer out = null;
+		try {
+			OutputStream stream = pipe==null ? new FileOutputStream(FileDescriptor.out) : new FileOutputStream(pipe);
+			out = new OutputStreamWriter(new BufferedOutputStream(stream, streamBufferSize));
+		} catch(IOException e) {
+			failure = e;
+		}
+
+		while(true) {
+			StringBuilder text = take(full);
+			if(text==end)
+				break;
+			try {
+				//After a failure the chunks are only recycled
+				if(failure==null) {
+					if(text==flushRequest)
+						out.flush();
+					else
+						out.append(text);
+				}
+			} catch(IOException e) {
+				failure = e;
+			}
+			if(text!=flushRequest) {
+				text.setLength(0);
+				free.add(text);
+			}
+		}
+
+		try {
+			if(out!=null)
+				out.close();
+		} catch(IOException e) {
+			if(failure==null)
+				failure = e;
+		}
+	}
+
+	@Override
+	public void write(int c) throws IOException {
+		ensureOpen();
+		chunk.append((char)c);
+		if(chunk.length()>=chunkSize)
+			nextChunk();
+	}
+
+	@Override
+	public void write(char[] cbuf, int off, int len) throws IOException {
+		ensureOpen();
+		chunk.append(cbuf, off, len);
+		if(chunk.length()>=chunkSize)
+			nextChunk();
+	}
+
+	@Override
+	public void write(String str, int off, int len) throws IOException {
+		ensureOpen();
+		chunk.append(str, off, off + len);
+		if(chunk.length()>=chunkSize)
+			nextChunk();
+	}
+
+	@Override
+	public Writer append(CharSequence csq) throws IOException {
+		ensureOpen();
+		chunk.append(csq);
+		if(chunk.length()>=chunkSize)
+			nextChunk();
+		return this;
+	}
+
+	/*
+	 * Hands the chunk to the writer thread, waits for a free one
+	 */
+	private void nextChunk() throws IOException {
+		put(chunk);
+		chunk = take(free);
+		checkFailure();
+	}
+
+	/*
+	 * Hands the collected text to the writer thread, which writes it and
+	 * flushes the stream. Doesn't wait until this is done.
+	 */
+	@Override
+	public void flush() throws IOException {
+		ensureOpen();
+		if(chunk.length()>0)
+			nextChunk();
+		put(flushRequest);
+		checkFailure();
+	}
+
+	/*
+	 * Waits until everything is written
+	 */
+	@Override
+	public void close() throws IOException {
+		if(closed)
+			return;
+
+		if(chunk.length()>0)
+			put(chunk);
+		put(end);
+		closed = true;
+		try {
+			writer.join();
+		} catch(InterruptedException e) {
+			throw new InterruptedIOException(e.getMessage());
+		}
+		checkFailure();
+	}
+
+	private void put(StringBuilder marker) throws IOException {
+		try {
+			full.put(marker);
+		} catch(InterruptedException e) {
+			throw new InterruptedIOException(e.getMessage());
+		}
+	}
+
+	private static StringBuilder take(BlockingQueue<StringBuilder> queue) {
+		while(true) {
+			try {
+				return queue.take();
+			} catch(InterruptedException e) {
+				//The chunks can't get lost
+			}
+		}
+	}
+
+	private void checkFailure() throws IOException {
+		if(failure!=null)
+			throw failure;
+	}
+
+	private void ensureOpen() throws IOException {
+		if(closed)
+			throw new IOException("Stream closed");
+	}
+}
@@ -1,6 +1,5 @@
 package benchmark.serializer;
 
-import java.util.Iterator;
 import benchmark.model.*;
 import benchmark.vocabulary.*;
 import benchmark.generator.*;
@@ -9,26 +8,27 @@ import java.io.*;
 import java.util.*;
 
 public class TriG implements Serializer {
-	private FileWriter dataFileWriter;
-	private FileWriter provenanceGraphWriter;
+	private Writer dataFileWriter;
+	private Writer provenanceGraphWriter;
 	private boolean forwardChaining;
 	private long nrTriples;
 	private File provenanceFile;
 	private File dataFile;
-	private FileWriter prefixFileWriter;
+	private Writer prefixFileWriter;
+	private HashMap<ProductType, String> typeClosures = new HashMap<ProductType, String>();
 	
 	public TriG(String file, boolean forwardChaining)
 	{
 		try{
 			this.provenanceFile = File.createTempFile("BSBM", ".prov");
 			this.provenanceFile.deleteOnExit();
-			this.provenanceGraphWriter = new FileWriter(provenanceFile);
+			this.provenanceGraphWriter = OutputBackend.open(provenanceFile);
 			
-			this.prefixFileWriter = new FileWriter(file);
+			this.prefixFileWriter = OutputBackend.open(file);
 			
 			this.dataFile = File.createTempFile("BSBM", ".data");
 			this.dataFile.deleteOnExit();
-			this.dataFileWriter = new FileWriter(dataFile);
+			this.dataFileWriter = OutputBackend.open(dataFile);
 			
 		} catch(IOException e){
 			System.err.println("Could not open File for writing.");
@@ -78,8 +78,6 @@ public class TriG implements Serializer {
 	
 
 	public void gatherData(ObjectBundle bundle) {
-		Iterator<BSBMResource> it = bundle.iterator();
-
 		//Write Graph and provenance data
 		try {
 			String prefix = getPrefixDefinition(bundle);
@@ -88,35 +86,7 @@ public class TriG implements Serializer {
 			
 			dataFileWriter.append(bundle.getGraphName() + "\n{\n");
 				
-			while(it.hasNext())
-			{
-				BSBMResource obj = it.next();
-	
-				if(obj instanceof ProductType){
-					dataFileWriter.append(convertProductType((ProductType)obj));
-				}
-				else if(obj instanceof Offer){
-					dataFileWriter.append(convertOffer((Offer)obj));
-				}
-				else if(obj instanceof Product){
-					dataFileWriter.append(convertProduct((Product)obj));
-				}
-				else if(obj instanceof Person){
-					dataFileWriter.append(convertPerson((Person)obj, bundle));
-				}
-				else if(obj instanceof Producer){
-					dataFileWriter.append(convertProducer((Producer)obj));
-				}
-				else if(obj instanceof ProductFeature){
-					dataFileWriter.append(convertProductFeature((ProductFeature)obj));
-				}
-				else if(obj instanceof Vendor){
-					dataFileWriter.append(convertVendor((Vendor)obj));
-				}
-				else if(obj instanceof Review){
-					dataFileWriter.append(convertReview((Review)obj, bundle));
-				}
-			}
+			bundle.visit(this);
 			dataFileWriter.append("}\n\n");
 			
 			provenanceGraphWriter.append(convertProvenanceData(bundle));
@@ -129,6 +99,46 @@ public class TriG implements Serializer {
 		}
 	}
 	
+	public void visitProductTypes(ResourceBatch<ProductType> productTypes) throws IOException {
+		for(int i=0;i<productTypes.size();i++)
+			dataFileWriter.append(convertProductType(productTypes.get(i)));
+	}
+	
+	public void visitOffers(ResourceBatch<Offer> offers) throws IOException {
+		for(int i=0;i<offers.size();i++)
+			dataFileWriter.append(convertOffer(offers.get(i)));
+	}
+	
+	public void visitProducts(ResourceBatch<Product> products) throws IOException {
+		for(int i=0;i<products.size();i++)
+			dataFileWriter.append(convertProduct(products.get(i)));
+	}
+	
+	public void visitPersons(ResourceBatch<Person> persons) throws IOException {
+		for(int i=0;i<persons.size();i++)
+			dataFileWriter.append(convertPerson(persons.get(i), persons.getBundle()));
+	}
+	
+	public void visitProducers(ResourceBatch<Producer> producers) throws IOException {
+		for(int i=0;i<producers.size();i++)
+			dataFileWriter.append(convertProducer(producers.get(i)));
+	}
+	
+	public void visitProductFeatures(ResourceBatch<ProductFeature> productFeatures) throws IOException {
+		for(int i=0;i<productFeatures.size();i++)
+			dataFileWriter.append(convertProductFeature(productFeatures.get(i)));
+	}
+	
+	public void visitVendors(ResourceBatch<Vendor> vendors) throws IOException {
+		for(int i=0;i<vendors.size();i++)
+			dataFileWriter.append(convertVendor(vendors.get(i)));
+	}
+	
+	public void visitReviews(ResourceBatch<Review> reviews) throws IOException {
+		for(int i=0;i<reviews.size();i++)
+			dataFileWriter.append(convertReview(reviews.get(i), reviews.getBundle()));
+	}
+	
 	/*
 	 * Generate Prefix-String
 	 */
@@ -236,7 +246,7 @@ public class TriG implements Serializer {
 				BSBM.prefixed("Offer")));
 		
 		//bsbm:product
-		int productNr = offer.getProduct();
+		long productNr = offer.getProduct();
 		int producerNr = Generator.getProducerOfProduct(productNr); 
 		result.append(createTriplePO(
 				BSBM.prefixed("product"),
@@ -271,7 +281,7 @@ public class TriG implements Serializer {
 		//bsbm:deliveryDays
 		result.append(createTriplePO(
 				BSBM.prefixed("deliveryDays"),
-				createDataTypeLiteral(offer.getDeliveryDays().toString(), XSD.prefixed("integer"))));
+				createDataTypeLiteral(Integer.toString(offer.getDeliveryDays()), XSD.prefixed("integer"))));
 		
 		//bsbm:offerWebpage
 		result.append(createTriplePOEnd(
@@ -310,13 +320,9 @@ public class TriG implements Serializer {
 		
 		//bsbm:productType
 		if(forwardChaining) {
-			ProductType pt = product.getProductType();
-			while(pt!=null) {
-				result.append(createTriplePO(
-						RDF.prefixed("type"),
-						pt.getPrefixed()));
-				pt = pt.getParent();
-			}
+			ProductType leaf = product.getProductType();
+			result.append(getTypeClosure(leaf));
+			nrTriples += leaf.getDepth() + 1;
 		}
 		else {
 			result.append(createTriplePO(
@@ -325,14 +331,12 @@ public class TriG implements Serializer {
 		}
 		
 		//bsbm:productPropertyNumeric
-		Integer[] ppn = product.getProductPropertyNumeric();
-		for(int i=0,j=1;i<ppn.length;i++,j++)
+		for(int i=0,j=1;i<Product.nrOfProductProperties;i++,j++)
 		{
-			Integer value = ppn[i];
-			if(value!=null)
+			if(product.hasProductPropertyNumeric(i))
 				result.append(createTriplePO(
 						BSBM.getProductPropertyNumericPrefix(j),
-						createDataTypeLiteral(value.toString(), XSD.prefixed("integer"))));
+						createDataTypeLiteral(Integer.toString(product.getProductPropertyNumeric(i)), XSD.prefixed("integer"))));
 		}
 
 		//bsbm:productPropertyTextual
@@ -347,10 +351,9 @@ public class TriG implements Serializer {
 		}
 		
 		//bsbm:productFeature
-		Iterator<Integer> pf = product.getFeatures().iterator();
-		while(pf.hasNext())
+		for(int i=0;i<product.getNrOfFeatures();i++)
 		{
-			Integer value = pf.next();
+			int value = product.getFeature(i);
 			result.append(createTriplePO(
 					BSBM.prefixed("productFeature"),
 					ProductFeature.getPrefixed(value)));
@@ -548,14 +551,12 @@ public class TriG implements Serializer {
 				createLanguageLiteral(review.getText(),ISO3166.language[review.getLanguage()])));
 		
 		//bsbm:ratingX
-		Integer[] ratings = review.getRatings();
-		for(int i=0,j=1;i<ratings.length;i++,j++)
+		for(int i=0,j=1;i<Review.nrOfRatings;i++,j++)
 		{
-			Integer value = ratings[i];
-			if(value!=null)
+			if(review.hasRating(i))
 				result.append(createTriplePO(
 						BSBM.getRatingPrefix(j),
-						createDataTypeLiteral(value.toString(), XSD.prefixed("integer"))));
+						createDataTypeLiteral(Integer.toString(review.getRating(i)), XSD.prefixed("integer"))));
 		}
 		
 		//bsbm:reviewDate
@@ -622,6 +623,30 @@ public class TriG implements Serializer {
 	/*
 	 * Create an abbreviated triple consisting of predicate and object; end with ";"
 	 */
+	/*
+	 * The rdf:type triples of a product type and all its super types.
+	 * They are rendered once per leaf type.
+	 */
+	private String getTypeClosure(ProductType leaf)
+	{
+		String closure = typeClosures.get(leaf);
+		if(closure==null) {
+			StringBuffer result = new StringBuffer();
+			ProductType pt = leaf;
+			while(pt!=null) {
+				result.append("    ");
+				result.append(RDF.prefixed("type"));
+				result.append(" ");
+				result.append(pt.getPrefixed());
+				result.append(" ;\n");
+				pt = pt.getParent();
+			}
+			closure = result.toString();
+			typeClosures.put(leaf, closure);
+		}
+		return closure;
+	}
+	
 	private String createTriplePO(String predicate, String object)
 	{
 		StringBuffer result = new StringBuffer();
@@ -0,0 +1,38 @@
+package benchmark.serializer;
+
+/*
+ * A generated triple. Subject, predicate and object are terms in N-Triples
+ * syntax, e.g. <http://...>, "label" or "2008-06-20"^^<http://...#date>.
+ */
+public final class Triple {
+	private final String subject;
+	private final String predicate;
+	private final String object;
+
+	public Triple(String subject, String predicate, String object)
+	{
+		this.subject = subject;
+		this.predicate = predicate;
+		this.object = object;
+	}
+
+	public String getSubject() {
+		return subject;
+	}
+
+	public String getPredicate() {
+		return predicate;
+	}
+
+	public String getObject() {
+		return object;
+	}
+
+	/*
+	 * The triple as N-Triples line without line break
+	 */
+	@Override
+	public String toString() {
+		return subject + " " + predicate + " " + object + " .";
+	}
+}
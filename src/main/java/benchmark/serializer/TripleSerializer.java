@@ -0,0 +1,98 @@
+package benchmark.serializer;
+
+import java.io.Writer;
+
+/*
+ * Serializer which hands the triples to a TripleSink instead of writing
+ * them into files. The triples are the ones of the N-Triples output, in
+ * the same order.
+ */
+public class TripleSerializer implements Serializer {
+	private NTriples ntriples;
+	private TripleWriter writer;
+
+	public TripleSerializer(TripleSink sink, boolean forwardChaining)
+	{
+		writer = new TripleWriter(sink);
+		ntriples = new NTriples(new Writer[] { writer }, forwardChaining);
+	}
+
+	public void gatherData(ObjectBundle bundle) {
+		ntriples.gatherData(bundle);
+	}
+
+	public void serialize() {
+		ntriples.serialize();
+	}
+
+	public Long triplesGenerated() {
+		return ntriples.triplesGenerated();
+	}
+
+	/*
+	 * Splits the N-Triples text into the terms of its triples. Subjects and
+	 * predicates are URIs, the object is the rest of the line.
+	 */
+	private static class TripleWriter extends Writer {
+		private TripleSink sink;
+		private StringBuilder line = new StringBuilder(1024);
+
+		TripleWriter(TripleSink sink) {
+			this.sink = sink;
+		}
+
+		@Override
+		public void write(char[] cbuf, int off, int len) {
+			write(new String(cbuf, off, len), 0, len);
+		}
+
+		@Override
+		public void write(String str, int off, int len) {
+			int end = off + len;
+			while(off<end) {
+				int lineEnd = str.indexOf('\n', off);
+				if(lineEnd<0 || lineEnd>=end) {
+					line.append(str, off, end);
+					return;
+				}
+				if(line.length()==0)
+					emit(str, off, lineEnd);
+				else {
+					line.append(str, off, lineEnd);
+					emit(line.toString(), 0, line.length());
+					line.setLength(0);
+				}
+				off = lineEnd + 1;
+			}
+		}
+
+		@Override
+		public Writer append(CharSequence csq) {
+			String s = String.valueOf(csq);
+			write(s, 0, s.length());
+			return this;
+		}
+
+		//A line "<s> <p> object ."
+		private void emit(String s, int start, int end) {
+			if(start==end)
+				return;
+			int p = s.indexOf(' ', start);
+			int o = s.indexOf(' ', p + 1);
+			sink.triple(s.substring(start, p), s.substring(p + 1, o), s.substring(o + 1, end - 2));
+		}
+
+		@Override
+		public void flush() {
+			if(line.length()>0) {
+				emit(line.toString(), 0, line.length());
+				line.setLength(0);
+			}
+		}
+
+		@Override
+		public void close() {
+			flush();
+		}
+	}
+}
@@ -0,0 +1,10 @@
+package benchmark.serializer;
+
+/*
+ * Receives the generated triples, e.g. the bulk loader of a store.
+ * Subject, predicate and object are terms in N-Triples syntax.
+ */
+public interface TripleSink {
+	
+	public void triple(String subject, String predicate, String object);
+}
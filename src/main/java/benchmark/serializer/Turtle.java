@@ -1,7 +1,7 @@
 package benchmark.serializer;
 
 import java.util.GregorianCalendar;
-import java.util.Iterator;
+import java.util.HashMap;
 import benchmark.model.*;
 import benchmark.vocabulary.*;
 import benchmark.generator.*;
@@ -9,11 +9,12 @@ import benchmark.generator.*;
 import java.io.*;
 
 public class Turtle implements Serializer {
-	private FileWriter[] dataFileWriter;
+	private Writer[] dataFileWriter;
 	private boolean forwardChaining;
 	private long nrTriples;
 	private boolean haveToGeneratePrefixes = true;
 	int currentWriter = 0;
+	private HashMap<ProductType, String> typeClosures = new HashMap<ProductType, String>();
 	
 	public Turtle(String file, boolean forwardChaining)
 	{
@@ -25,12 +26,12 @@ public class Turtle implements Serializer {
 		int nrOfDigits = ((int)Math.log10(nrOfOutputFiles)) + 1;
 		String formatString = "%0" + nrOfDigits + "d";
 		try{
-			dataFileWriter = new FileWriter[nrOfOutputFiles];
+			dataFileWriter = new Writer[nrOfOutputFiles];
 			if(nrOfOutputFiles==1)
-				this.dataFileWriter[0] = new FileWriter(file + ".ttl");
+				this.dataFileWriter[0] = OutputBackend.open(OutputBackend.getFileName(file, ".ttl"));
 			else
 				for(int i=1;i<=nrOfOutputFiles;i++)
-					dataFileWriter[i-1] = new FileWriter(file + String.format(formatString, i) + ".ttl");
+					dataFileWriter[i-1] = OutputBackend.open(file + String.format(formatString, i) + ".ttl");
 				
 		} catch(IOException e){
 			System.err.println("Could not open File for writing.");
@@ -119,39 +120,8 @@ public class Turtle implements Serializer {
 			generatePrefixes();
 			haveToGeneratePrefixes = false;
 		}
-		Iterator<BSBMResource> it = bundle.iterator();
-
 		try {
-			while(it.hasNext())
-			{
-				BSBMResource obj = it.next();
-	
-				if(obj instanceof ProductType){
-					dataFileWriter[currentWriter].append(convertProductType((ProductType)obj));
-				}
-				else if(obj instanceof Offer){
-					dataFileWriter[currentWriter].append(convertOffer((Offer)obj));
-				}
-				else if(obj instanceof Product){
-					dataFileWriter[currentWriter].append(convertProduct((Product)obj));
-				}
-				else if(obj instanceof Person){
-					dataFileWriter[currentWriter].append(convertPerson((Person)obj, bundle));
-				}
-				else if(obj instanceof Producer){
-					dataFileWriter[currentWriter].append(convertProducer((Producer)obj));
-				}
-				else if(obj instanceof ProductFeature){
-					dataFileWriter[currentWriter].append(convertProductFeature((ProductFeature)obj));
-				}
-				else if(obj instanceof Vendor){
-					dataFileWriter[currentWriter].append(convertVendor((Vendor)obj));
-				}
-				else if(obj instanceof Review){
-					dataFileWriter[currentWriter].append(convertReview((Review)obj, bundle));
-				}
-				currentWriter = (currentWriter + 1) % dataFileWriter.length;
-			}
+			bundle.visit(this);
 		}catch(IOException e){
 			System.err.println("Could not write into File!");
 			System.err.println(e.getMessage());
@@ -159,6 +129,62 @@ public class Turtle implements Serializer {
 		}
 	}
 	
+	public void visitProductTypes(ResourceBatch<ProductType> productTypes) throws IOException {
+		for(int i=0;i<productTypes.size();i++) {
+			dataFileWriter[currentWriter].append(convertProductType(productTypes.get(i)));
+			currentWriter = (currentWriter + 1) % dataFileWriter.length;
+		}
+	}
+	
+	public void visitOffers(ResourceBatch<Offer> offers) throws IOException {
+		for(int i=0;i<offers.size();i++) {
+			dataFileWriter[currentWriter].append(convertOffer(offers.get(i)));
+			currentWriter = (currentWriter + 1) % dataFileWriter.length;
+		}
+	}
+	
+	public void visitProducts(ResourceBatch<Product> products) throws IOException {
+		for(int i=0;i<products.size();i++) {
+			dataFileWriter[currentWriter].append(convertProduct(products.get(i)));
+			currentWriter = (currentWriter + 1) % dataFileWriter.length;
+		}
+	}
+	
+	public void visitPersons(ResourceBatch<Person> persons) throws IOException {
+		for(int i=0;i<persons.size();i++) {
+			dataFileWriter[currentWriter].append(convertPerson(persons.get(i), persons.getBundle()));
+			currentWriter = (currentWriter + 1) % dataFileWriter.length;
+		}
+	}
+	
+	public void visitProducers(ResourceBatch<Producer> producers) throws IOException {
+		for(int i=0;i<producers.size();i++) {
+			dataFileWriter[currentWriter].append(convertProducer(producers.get(i)));
+			currentWriter = (currentWriter + 1) % dataFileWriter.length;
+		}
+	}
+	
+	public void visitProductFeatures(ResourceBatch<ProductFeature> productFeatures) throws IOException {
+		for(int i=0;i<productFeatures.size();i++) {
+			dataFileWriter[currentWriter].append(convertProductFeature(productFeatures.get(i)));
+			currentWriter = (currentWriter + 1) % dataFileWriter.length;
+		}
+	}
+	
+	public void visitVendors(ResourceBatch<Vendor> vendors) throws IOException {
+		for(int i=0;i<vendors.size();i++) {
+			dataFileWriter[currentWriter].append(convertVendor(vendors.get(i)));
+			currentWriter = (currentWriter + 1) % dataFileWriter.length;
+		}
+	}
+	
+	public void visitReviews(ResourceBatch<Review> reviews) throws IOException {
+		for(int i=0;i<reviews.size();i++) {
+			dataFileWriter[currentWriter].append(convertReview(reviews.get(i), reviews.getBundle()));
+			currentWriter = (currentWriter + 1) % dataFileWriter.length;
+		}
+	}
+	
 
 	/*
 	 * Converts the ProductType Object into an TriG String
@@ -232,7 +258,7 @@ public class Turtle implements Serializer {
 				BSBM.prefixed("Offer")));
 		
 		//bsbm:product
-		int productNr = offer.getProduct();
+		long productNr = offer.getProduct();
 		int producerNr = Generator.getProducerOfProduct(productNr); 
 		result.append(createTriplePO(
 				BSBM.prefixed("product"),
@@ -267,7 +293,7 @@ public class Turtle implements Serializer {
 		//bsbm:deliveryDays
 		result.append(createTriplePO(
 				BSBM.prefixed("deliveryDays"),
-				createDataTypeLiteral(offer.getDeliveryDays().toString(), XSD.prefixed("integer"))));
+				createDataTypeLiteral(Integer.toString(offer.getDeliveryDays()), XSD.prefixed("integer"))));
 		
 		//bsbm:offerWebpage
 		result.append(createTriplePO(
@@ -319,13 +345,9 @@ public class Turtle implements Serializer {
 		
 		//bsbm:productType
 		if(forwardChaining) {
-			ProductType pt = product.getProductType();
-			while(pt!=null) {
-				result.append(createTriplePO(
-						RDF.prefixed("type"),
-						pt.getPrefixed()));
-				pt = pt.getParent();
-			}
+			ProductType leaf = product.getProductType();
+			result.append(getTypeClosure(leaf));
+			nrTriples += leaf.getDepth() + 1;
 		}
 		else {
 			result.append(createTriplePO(
@@ -334,14 +356,12 @@ public class Turtle implements Serializer {
 		}
 		
 		//bsbm:productPropertyNumeric
-		Integer[] ppn = product.getProductPropertyNumeric();
-		for(int i=0,j=1;i<ppn.length;i++,j++)
+		for(int i=0,j=1;i<Product.nrOfProductProperties;i++,j++)
 		{
-			Integer value = ppn[i];
-			if(value!=null)
+			if(product.hasProductPropertyNumeric(i))
 				result.append(createTriplePO(
 						BSBM.getProductPropertyNumericPrefix(j),
-						createDataTypeLiteral(value.toString(), XSD.prefixed("integer"))));
+						createDataTypeLiteral(Integer.toString(product.getProductPropertyNumeric(i)), XSD.prefixed("integer"))));
 		}
 
 		//bsbm:productPropertyTextual
@@ -356,10 +376,9 @@ public class Turtle implements Serializer {
 		}
 		
 		//bsbm:productFeature
-		Iterator<Integer> pf = product.getFeatures().iterator();
-		while(pf.hasNext())
+		for(int i=0;i<product.getNrOfFeatures();i++)
 		{
-			Integer value = pf.next();
+			int value = product.getFeature(i);
 			result.append(createTriplePO(
 					BSBM.prefixed("productFeature"),
 					ProductFeature.getPrefixed(value)));
@@ -622,14 +641,12 @@ public class Turtle implements Serializer {
 				createLanguageLiteral(review.getText(),ISO3166.language[review.getLanguage()])));
 		
 		//bsbm:ratingX
-		Integer[] ratings = review.getRatings();
-		for(int i=0,j=1;i<ratings.length;i++,j++)
+		for(int i=0,j=1;i<Review.nrOfRatings;i++,j++)
 		{
-			Integer value = ratings[i];
-			if(value!=null)
+			if(review.hasRating(i))
 				result.append(createTriplePO(
 						BSBM.getRatingPrefix(j),
-						createDataTypeLiteral(value.toString(), XSD.prefixed("integer"))));
+						createDataTypeLiteral(Integer.toString(review.getRating(i)), XSD.prefixed("integer"))));
 		}
 		
 		//bsbm:reviewDate
@@ -691,6 +708,30 @@ public class Turtle implements Serializer {
 	}
 
 	
+	/*
+	 * The rdf:type triples of a product type and all its super types.
+	 * They are rendered once per leaf type.
+	 */
+	private String getTypeClosure(ProductType leaf)
+	{
+		String closure = typeClosures.get(leaf);
+		if(closure==null) {
+			StringBuffer result = new StringBuffer();
+			ProductType pt = leaf;
+			while(pt!=null) {
+				result.append("    ");
+				result.append(RDF.prefixed("type"));
+				result.append(" ");
+				result.append(pt.getPrefixed());
+				result.append(" ;\n");
+				pt = pt.getParent();
+			}
+			closure = result.toString();
+			typeClosures.put(leaf, closure);
+		}
+		return closure;
+	}
+	
 	/*
 	 * Create an abbreviated triple consisting of predicate and object; end with ";"
 	 */
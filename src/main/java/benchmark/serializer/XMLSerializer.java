@@ -1,12 +1,11 @@
 package benchmark.serializer;
 
-import java.io.FileWriter;
+import java.io.Writer;
 import java.io.IOException;
 import java.util.GregorianCalendar;
-import java.util.Iterator;
+import java.util.HashMap;
 
 import benchmark.generator.DateGenerator;
-import benchmark.model.BSBMResource;
 import benchmark.model.Offer;
 import benchmark.model.Person;
 import benchmark.model.Producer;
@@ -19,14 +18,15 @@ import benchmark.vocabulary.ISO3166;
 
 
 public class XMLSerializer implements Serializer {
-	private FileWriter fileWriter;
+	private Writer fileWriter;
 	private boolean forwardChaining;
 	private long nrTriples;
 	private static final String spacePrefix = "  ";
+	private HashMap<ProductType, String> typeClosures = new HashMap<ProductType, String>();
 	
 	public XMLSerializer(String file, boolean forwardChaining) {
 		try{
-			fileWriter = new FileWriter(file);
+			fileWriter = OutputBackend.open(file);
 		} catch(IOException e){
 			System.err.println("Could not open File for writing.");
 			System.err.println(e.getMessage());
@@ -79,8 +79,6 @@ public class XMLSerializer implements Serializer {
 	
 	
 	public void gatherData(ObjectBundle bundle) {
-		Iterator<BSBMResource> it = bundle.iterator();
-
 		String publisherType = getPublisherTypeString(bundle);
 		if(publisherType==null) {
 			System.err.println("Unknown publisher type");
@@ -92,35 +90,7 @@ public class XMLSerializer implements Serializer {
 		try {
 			fileWriter.append(startTagWA(2,publisherType,"id",new Integer(bundle.getPublisherNum()).toString()));
 				
-			while(it.hasNext())
-			{
-				BSBMResource obj = it.next();
-	
-				if(obj instanceof ProductType){
-					fileWriter.append(convertProductType((ProductType)obj));
-				}
-				else if(obj instanceof Offer){
-					fileWriter.append(convertOffer((Offer)obj));
-				}
-				else if(obj instanceof Product){
-					fileWriter.append(convertProduct((Product)obj));
-				}
-				else if(obj instanceof Person){
-					fileWriter.append(convertPerson((Person)obj));
-				}
-				else if(obj instanceof Producer){
-					fileWriter.append(convertProducer((Producer)obj));
-				}
-				else if(obj instanceof ProductFeature){
-					fileWriter.append(convertProductFeature((ProductFeature)obj));
-				}
-				else if(obj instanceof Vendor){
-					fileWriter.append(convertVendor((Vendor)obj));
-				}
-				else if(obj instanceof Review){
-					fileWriter.append(convertReview((Review)obj));
-				}
-			}
+			bundle.visit(this);
 			
 			fileWriter.append(endTag(2,publisherType));
 			
@@ -130,6 +100,46 @@ public class XMLSerializer implements Serializer {
 			System.exit(-1);
 		}
 	}
+	
+	public void visitProductTypes(ResourceBatch<ProductType> productTypes) throws IOException {
+		for(int i=0;i<productTypes.size();i++)
+			fileWriter.append(convertProductType(productTypes.get(i)));
+	}
+	
+	public void visitOffers(ResourceBatch<Offer> offers) throws IOException {
+		for(int i=0;i<offers.size();i++)
+			fileWriter.append(convertOffer(offers.get(i)));
+	}
+	
+	public void visitProducts(ResourceBatch<Product> products) throws IOException {
+		for(int i=0;i<products.size();i++)
+			fileWriter.append(convertProduct(products.get(i)));
+	}
+	
+	public void visitPersons(ResourceBatch<Person> persons) throws IOException {
+		for(int i=0;i<persons.size();i++)
+			fileWriter.append(convertPerson(persons.get(i)));
+	}
+	
+	public void visitProducers(ResourceBatch<Producer> producers) throws IOException {
+		for(int i=0;i<producers.size();i++)
+			fileWriter.append(convertProducer(producers.get(i)));
+	}
+	
+	public void visitProductFeatures(ResourceBatch<ProductFeature> productFeatures) throws IOException {
+		for(int i=0;i<productFeatures.size();i++)
+			fileWriter.append(convertProductFeature(productFeatures.get(i)));
+	}
+	
+	public void visitVendors(ResourceBatch<Vendor> vendors) throws IOException {
+		for(int i=0;i<vendors.size();i++)
+			fileWriter.append(convertVendor(vendors.get(i)));
+	}
+	
+	public void visitReviews(ResourceBatch<Review> reviews) throws IOException {
+		for(int i=0;i<reviews.size();i++)
+			fileWriter.append(convertReview(reviews.get(i)));
+	}
 
 	/*
 	 * Converts the ProductType Object into an N-Triples String
@@ -176,10 +186,10 @@ public class XMLSerializer implements Serializer {
 	{
 		StringBuffer result = new StringBuffer();
 		//First the uriref for the subject
-		result.append(startTagWA(3, "Offer", "id", new Integer(offer.getNr()).toString()));
+		result.append(startTagWA(3, "Offer", "id", Long.toString(offer.getNr())));
 		
 		//bsbm:product
-		result.append(leafTag(4, "product", offer.getProduct().toString()));
+		result.append(leafTag(4, "product", Long.toString(offer.getProduct())));
 				
 		
 		//bsbm:vendor
@@ -201,7 +211,7 @@ public class XMLSerializer implements Serializer {
 		result.append(leafTag(4, "validFrom", validToString));
 		
 		//bsbm:deliveryDays
-		result.append(leafTag(4, "deliveryDays", offer.getDeliveryDays().toString()));
+		result.append(leafTag(4, "deliveryDays", Integer.toString(offer.getDeliveryDays())));
 		
 		//bsbm:offerWebpage
 		result.append(leafTag(4, "offerWebpage", offer.getOfferWebpage()));
@@ -228,7 +238,7 @@ public class XMLSerializer implements Serializer {
 	{
 		StringBuffer result = new StringBuffer();
 		//First the uriref for the subject
-		result.append(startTagWA(3, "Product", "id", new Integer(product.getNr()).toString()));
+		result.append(startTagWA(3, "Product", "id", Long.toString(product.getNr())));
 
 		//rdfs:label
 		result.append(leafTag(4, "label", product.getLabel()));
@@ -238,11 +248,7 @@ public class XMLSerializer implements Serializer {
 		
 		//rdf:type for product types 
 		if(forwardChaining) {
-			ProductType pt = product.getProductType();
-			while(pt!=null) {
-				result.append(leafTag(4, "type", new Integer(pt.getNr()).toString()));
-				pt = pt.getParent();
-			}
+			result.append(getTypeClosure(product.getProductType()));
 		}
 		else {
 			result.append(leafTag(4, "type", new Integer(product.getProductType().getNr()).toString()));
@@ -252,12 +258,10 @@ public class XMLSerializer implements Serializer {
 		result.append(leafTag(4, "producer", new Integer(product.getProducer()).toString()));
 		
 		//bsbm:productPropertyNumeric
-		Integer[] ppn = product.getProductPropertyNumeric();
-		for(Integer i=0,j=1;i<ppn.length;i++,j++)
+		for(int i=0,j=1;i<Product.nrOfProductProperties;i++,j++)
 		{
-			Integer value = ppn[i];
-			if(value!=null)
-				result.append(leafTagWA(4, "ProductPropertyNumeric", value.toString(), "nr", i.toString()));
+			if(product.hasProductPropertyNumeric(i))
+				result.append(leafTagWA(4, "ProductPropertyNumeric", Integer.toString(product.getProductPropertyNumeric(i)), "nr", Integer.toString(i)));
 		}
 		
 		//bsbm:productPropertyTextual
@@ -270,11 +274,10 @@ public class XMLSerializer implements Serializer {
 		}
 		
 		//bsbm:productFeature
-		Iterator<Integer> pf = product.getFeatures().iterator();
-		while(pf.hasNext())
+		for(int i=0;i<product.getNrOfFeatures();i++)
 		{
-			Integer value = pf.next();
-			result.append(leafTag(4, "ProductFeature", value.toString()));
+			int value = product.getFeature(i);
+			result.append(leafTag(4, "ProductFeature", Integer.toString(value)));
 
 		}
 		
@@ -301,7 +304,7 @@ public class XMLSerializer implements Serializer {
 	{
 		StringBuffer result = new StringBuffer();
 		//First the uriref for the subject
-		result.append(startTagWA(3, "Person", "id", new Integer(person.getNr()).toString()));
+		result.append(startTagWA(3, "Person", "id", Long.toString(person.getNr())));
 		
 		//foaf:name
 		result.append(leafTag(4, "name", person.getName()));
@@ -313,7 +316,7 @@ public class XMLSerializer implements Serializer {
 		result.append(leafTag(4, "country", person.getCountryCode()));
 		
 		//dc:publisher
-		result.append(leafTag(4, "publisher", person.getPublisher().toString()));
+		result.append(leafTag(4, "publisher", Integer.toString(person.getPublisher())));
 		
 		//dc:date
 		GregorianCalendar date = new GregorianCalendar();
@@ -380,7 +383,7 @@ public class XMLSerializer implements Serializer {
 
 		
 		//dc:publisher
-		result.append(leafTag(4, "publisher", pf.getPublisher().toString()));
+		result.append(leafTag(4, "publisher", Integer.toString(pf.getPublisher())));
 		
 		//dc:date
 		GregorianCalendar date = new GregorianCalendar();
@@ -438,13 +441,13 @@ public class XMLSerializer implements Serializer {
 	{
 		StringBuffer result = new StringBuffer();
 		//First the uriref for the subject
-		result.append(startTagWA(3, "Review", "id", new Integer(review.getNr()).toString()));
+		result.append(startTagWA(3, "Review", "id", Long.toString(review.getNr())));
 
 		//bsbm:reviewFor
-		result.append(leafTag(4, "reviewfor", review.getProduct().toString()));
+		result.append(leafTag(4, "reviewfor", Long.toString(review.getProduct())));
 		
 		//rev:reviewer
-		result.append(leafTag(4, "reviewer", new Integer(review.getPerson()).toString()));
+		result.append(leafTag(4, "reviewer", Long.toString(review.getPerson())));
 		
 		//bsbm:reviewDate
 		GregorianCalendar reviewDate = new GregorianCalendar();
@@ -459,16 +462,14 @@ public class XMLSerializer implements Serializer {
 		result.append(leafTagWA(4, "text", review.getText(), "lang", ISO3166.language[review.getLanguage()]));
 		
 		//bsbm:ratingX
-		Integer[] ratings = review.getRatings();
-		for(Integer i=0,j=1;i<ratings.length;i++,j++)
+		for(int i=0,j=1;i<Review.nrOfRatings;i++,j++)
 		{
-			Integer value = ratings[i];
-			if(value!=null)
-				result.append(leafTagWA(4, "rating", value.toString(), "nr", j.toString()));
+			if(review.hasRating(i))
+				result.append(leafTagWA(4, "rating", Integer.toString(review.getRating(i)), "nr", Integer.toString(j)));
 		}
 		
 		//dc:publisher
-		result.append(leafTag(4, "publisher", review.getPublisher().toString()));
+		result.append(leafTag(4, "publisher", Integer.toString(review.getPublisher())));
 		
 		//dc:date
 		GregorianCalendar date = new GregorianCalendar();
@@ -518,6 +519,25 @@ public class XMLSerializer implements Serializer {
 		return sb.toString();
 	}
 	
+	/*
+	 * The type tags of a product type and all its super types.
+	 * They are rendered once per leaf type.
+	 */
+	private String getTypeClosure(ProductType leaf) {
+		String closure = typeClosures.get(leaf);
+		if(closure==null) {
+			StringBuffer result = new StringBuffer();
+			ProductType pt = leaf;
+			while(pt!=null) {
+				result.append(leafTag(4, "type", new Integer(pt.getNr()).toString()));
+				pt = pt.getParent();
+			}
+			closure = result.toString();
+			typeClosures.put(leaf, closure);
+		}
+		return closure;
+	}
+	
 	private String leafTag(int indentationSteps, String tag, String content) {
 		StringBuffer sb = new StringBuffer();
 		for(int i=0;i<indentationSteps;i++)
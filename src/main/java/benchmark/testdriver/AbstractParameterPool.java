@@ -4,7 +4,7 @@ import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.ObjectInputStream;
-import java.util.Arrays;
+import java.nio.LongBuffer;
 import java.util.GregorianCalendar;
 import java.util.HashMap;
 import java.util.List;
@@ -14,41 +14,44 @@ import benchmark.generator.Generator;
 import benchmark.generator.RandomBucket;
 import benchmark.generator.ValueGenerator;
 import benchmark.model.ProductType;
+import benchmark.model.TestDriverData;
 
-public abstract class AbstractParameterPool {
+public abstract class AbstractParameterPool implements Cloneable {
 	protected ValueGenerator valueGen;
 	protected ValueGenerator valueGen2;
 	protected RandomBucket countryGen;
 	protected GregorianCalendar currentDate;
 	protected String currentDateString;
 	protected ProductType[] productTypeLeaves;
-	protected HashMap<String,Integer> wordHash;
 	protected String[] wordList;
-	protected Integer[] producerOfProduct;
-	protected Integer[] vendorOfOffer;
-	protected Integer[] ratingsiteOfReview;
-	protected Integer productCount;
-	protected Integer reviewCount;
-	protected Integer offerCount;
+	protected LongBuffer producerOfProduct;
+	protected LongBuffer vendorOfOffer;
+	protected LongBuffer ratingsiteOfReview;
+	protected Long productCount;
+	protected Long reviewCount;
+	protected Long offerCount;
+	private boolean legacyData;//Test driver data with int entity numbers
 	protected int productTypeCount;
 	protected List<Integer> maxProductTypePerLevel;
 	
-	protected Integer scalefactor; 
+	protected Long scalefactor; 
 	
 	public abstract Object[] getParametersForQuery(Query query);
 	
-	public Integer getScalefactor() {
+	public Long getScalefactor() {
 		return scalefactor;
 	}
 	
     protected void init(File resourceDir, long seed) {
-		Random seedGen = new Random(seed);
-		valueGen = new ValueGenerator(seedGen.nextLong());
-
-		countryGen = Generator.createCountryGenerator(seedGen.nextLong());
+		initGenerators(seed);
 		
-		valueGen2 = new ValueGenerator(seedGen.nextLong());
+		File td = new File(resourceDir, TestDriverData.fileName);
+		if(td.exists() && !hasNewerLegacyData(resourceDir, td.lastModified())) {
+			readTestDriverData(td);
+			return;
+		}
     	
+		//Test driver data of older generator versions in serialized objects
 		//Read in the Product Type hierarchy from resourceDir/pth.dat
 		readProductTypeHierarchy(resourceDir);
 
@@ -65,20 +68,82 @@ public abstract class AbstractParameterPool {
 		readDateAndLabelWords(resourceDir);
 	}
 
+	/*
+	 * Data files of an older generator written after td.bin, which is then stale
+	 */
+	private static boolean hasNewerLegacyData(File resourceDir, long modified) {
+		for(String name : TestDriverData.legacyFileNames)
+			if(new File(resourceDir, name).lastModified() > modified)
+				return true;
+		return false;
+	}
+
+	private void initGenerators(long seed) {
+		Random seedGen = new Random(seed);
+		valueGen = new ValueGenerator(seedGen.nextLong());
+
+		countryGen = Generator.createCountryGenerator(seedGen.nextLong());
+		
+		valueGen2 = new ValueGenerator(seedGen.nextLong());
+	}
+
+	/*
+	 * A copy of this pool with its own random generators seeded with seed.
+	 * The copies share the read-only test driver data, so every thread can
+	 * draw parameters from its own copy.
+	 */
+	public AbstractParameterPool derive(long seed) {
+		try {
+			AbstractParameterPool pool = (AbstractParameterPool)clone();
+			pool.initGenerators(seed);
+			return pool;
+		} catch(CloneNotSupportedException e) {
+			throw new IllegalStateException(e.toString());
+		}
+	}
+
+	private void readTestDriverData(File td) {
+		try {
+			TestDriverData data = TestDriverData.open(td);
+			productTypeLeaves = data.getProductTypeLeaves();
+			productTypeCount = data.getProductTypeCount();
+			maxProductTypePerLevel = data.getMaxProductTypePerLevel();
+			producerOfProduct = data.getProducerOfProduct();
+			vendorOfOffer = data.getVendorOfOffer();
+			ratingsiteOfReview = data.getRatingsiteOfReview();
+			scalefactor = producerOfProduct.get(producerOfProduct.limit()-1);
+			productCount = data.getProductCount();
+			reviewCount = data.getReviewCount();
+			offerCount = data.getOfferCount();
+			currentDate = data.getCurrentDate();
+			currentDateString = formatDateString(currentDate);
+			wordList = data.getWordList();
+		} catch(IOException e) {
+			System.err.println("Could not open or process file " + td.getAbsolutePath());
+			System.err.println(e.getMessage());
+			System.exit(-1);
+		}
+	}
+
 	private void readDateAndLabelWords(File resourceDir) {
 		File cdlw = new File(resourceDir, "cdlw.dat");
 		ObjectInputStream currentDateAndLabelWordsInput;
 		try {
 			currentDateAndLabelWordsInput = new ObjectInputStream(new FileInputStream(cdlw));
-			productCount = currentDateAndLabelWordsInput.readInt();
-			reviewCount = currentDateAndLabelWordsInput.readInt();
-			offerCount = currentDateAndLabelWordsInput.readInt();
+			if(legacyData) {
+				productCount = (long) currentDateAndLabelWordsInput.readInt();
+				reviewCount = (long) currentDateAndLabelWordsInput.readInt();
+				offerCount = (long) currentDateAndLabelWordsInput.readInt();
+			} else {
+				productCount = currentDateAndLabelWordsInput.readLong();
+				reviewCount = currentDateAndLabelWordsInput.readLong();
+				offerCount = currentDateAndLabelWordsInput.readLong();
+			}
 			currentDate = (GregorianCalendar) currentDateAndLabelWordsInput.readObject();
 			currentDateString = formatDateString(currentDate);
 			
 			@SuppressWarnings("unchecked")
-			HashMap<String, Integer> x = (HashMap<String, Integer>)currentDateAndLabelWordsInput.readObject();
-			wordHash = x ;
+			HashMap<String, Integer> wordHash = (HashMap<String, Integer>)currentDateAndLabelWordsInput.readObject();
 			wordList = wordHash.keySet().toArray(new String[0]);
 		} catch(IOException e) {
 			System.err.println("Could not open or process file " + cdlw.getAbsolutePath());
@@ -93,7 +158,7 @@ public abstract class AbstractParameterPool {
 		ObjectInputStream reviewRatingsiteInput;
 		try {
 			reviewRatingsiteInput = new ObjectInputStream(new FileInputStream(rr));
-			ratingsiteOfReview = (Integer[]) reviewRatingsiteInput.readObject();
+			ratingsiteOfReview = toLongBuffer(reviewRatingsiteInput.readObject());
 		} catch(IOException e) {
 			System.err.println("Could not open or process file " + rr.getAbsolutePath());
 			System.err.println(e.getMessage());
@@ -107,7 +172,7 @@ public abstract class AbstractParameterPool {
 		ObjectInputStream offerVendorInput;
 		try {
 			offerVendorInput = new ObjectInputStream(new FileInputStream(vo));
-			vendorOfOffer = (Integer[]) offerVendorInput.readObject();
+			vendorOfOffer = toLongBuffer(offerVendorInput.readObject());
 		} catch(IOException e) {
 			System.err.println("Could not open or process file " + pp.getAbsolutePath());
 			System.err.println(e.getMessage());
@@ -120,8 +185,10 @@ public abstract class AbstractParameterPool {
 		ObjectInputStream productProducerInput;
 		try {
 			productProducerInput = new ObjectInputStream(new FileInputStream(pp));
-			producerOfProduct = (Integer[]) productProducerInput.readObject();
-			scalefactor = producerOfProduct[producerOfProduct.length-1];
+			Object data = productProducerInput.readObject();
+			legacyData = data instanceof Integer[];
+			producerOfProduct = toLongBuffer(data);
+			scalefactor = producerOfProduct.get(producerOfProduct.limit()-1);
 		} catch(IOException e) {
 			System.err.println("Could not open or process file " + pp.getAbsolutePath());
 			System.err.println(e.getMessage());
@@ -131,6 +198,17 @@ public abstract class AbstractParameterPool {
 		return pp;
 	}
 
+	/*
+	 * The relationships are stored as Long[], by older generator versions as Integer[]
+	 */
+	private static LongBuffer toLongBuffer(Object data) {
+		Number[] numbers = (Number[]) data;
+		long[] longs = new long[numbers.length];
+		for(int i=0;i<numbers.length;i++)
+			longs[i] = numbers[i].longValue();
+		return LongBuffer.wrap(longs);
+	}
+
 	@SuppressWarnings("unchecked")
 	private void readProductTypeHierarchy(File resourceDir) {
 		ObjectInputStream productTypeInput;
@@ -158,8 +236,8 @@ public abstract class AbstractParameterPool {
 	/*
 	 * Get a random Product URI
 	 */
-	protected Integer getRandomProductNr() {
-		Integer productNr = valueGen.randomInt(1, productCount);
+	protected Long getRandomProductNr() {
+		Long productNr = valueGen.randomLong(1, productCount);
 		
 		return productNr;
 	}
@@ -167,8 +245,8 @@ public abstract class AbstractParameterPool {
 	/*
 	 * Returns the ProducerNr of given Product Nr.
 	 */
-	protected Integer getProducerOfProduct(Integer productNr) {
-		Integer producerNr = Arrays.binarySearch(producerOfProduct, productNr);
+	protected Integer getProducerOfProduct(Long productNr) {
+		Integer producerNr = TestDriverData.binarySearch(producerOfProduct, productNr);
 		if(producerNr<0)
 			producerNr = - producerNr - 1;
 		
@@ -178,8 +256,8 @@ public abstract class AbstractParameterPool {
 	/*
 	 * Returns the ProducerNr of given Product Nr.
 	 */
-	protected Integer getVendorOfOffer(Integer offerNr) {
-		Integer vendorNr = Arrays.binarySearch(vendorOfOffer, offerNr);
+	protected Integer getVendorOfOffer(Long offerNr) {
+		Integer vendorNr = TestDriverData.binarySearch(vendorOfOffer, offerNr);
 		if(vendorNr<0)
 			vendorNr = - vendorNr - 1;
 		
@@ -189,8 +267,8 @@ public abstract class AbstractParameterPool {
 	/*
 	 * Returns the Rating Site Nr of given Review Nr
 	 */
-	protected Integer getRatingsiteOfReviewer(Integer reviewNr) {
-		Integer ratingSiteNr = Arrays.binarySearch(ratingsiteOfReview, reviewNr);
+	protected Integer getRatingsiteOfReviewer(Long reviewNr) {
+		Integer ratingSiteNr = TestDriverData.binarySearch(ratingsiteOfReview, reviewNr);
 		if(ratingSiteNr<0)
 			ratingSiteNr = - ratingSiteNr - 1;
 		
@@ -0,0 +1,75 @@
+package benchmark.testdriver;
+
+import java.util.Random;
+import java.util.concurrent.locks.LockSupport;
+
+/*
+ * Intended start times of the queries of one client in open-loop mode (-rate).
+ * Every client gets the same share of the total arrival rate. With Poisson
+ * arrivals the intervals are exponentially distributed, so all clients
+ * together are a Poisson process with the total rate. With constant arrivals
+ * the clients are staggered evenly.
+ * The schedule does not depend on the response times: a client which falls
+ * behind starts its queries late, and this delay belongs to the latency.
+ */
+public class ArrivalSchedule {
+	private double interval;//Mean interval of this client in ns
+	private boolean poisson;
+	private Random random;
+	private double offset;//Start of the first query after the run start in ns
+	private long start;
+	private double next;//Intended start of the next query in ns after start
+	private boolean started;
+
+	/*
+	 * rate: arrivals per second of all clients together
+	 */
+	public ArrivalSchedule(double rate, int nrClients, int clientNr, boolean poisson, long seed) {
+		interval = 1000000000.0 * nrClients / rate;
+		this.poisson = poisson;
+		if(poisson) {
+			random = new Random(seed + clientNr);
+			offset = nextInterval();
+		}
+		else
+			offset = interval * (clientNr - 1) / nrClients;
+		started = false;
+	}
+
+	/*
+	 * Anchors the schedule at the start of the run (System.nanoTime())
+	 */
+	public void start(long runStart) {
+		start = runStart;
+		next = offset;
+		started = true;
+	}
+
+	public boolean isStarted() {
+		return started;
+	}
+
+	/*
+	 * Waits for the intended start time of the next query and returns how
+	 * long the query is behind it in seconds
+	 */
+	public double awaitNext() throws InterruptedException {
+		long intended = start + (long)next;
+		next += nextInterval();
+
+		long now = System.nanoTime();
+		while(now < intended) {
+			LockSupport.parkNanos(intended - now);
+			if(Thread.interrupted())
+				throw new InterruptedException();
+			now = System.nanoTime();
+		}
+		return (now - intended) / 1000000000.0;
+	}
+
+	private double nextInterval() {
+		if(poisson)
+			return -Math.log(1.0 - random.nextDouble()) * interval;
+		return interval;
+	}
+}
@@ -1,71 +1,149 @@
 package benchmark.testdriver;
 
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+
+/*
+ * Runs the clients through the warmup and the run phase. The phases are
+ * coordinated with latches: the clients count down when they are done with
+ * a phase and wait for the start of the run.
+ */
 public class ClientManager {
-	private int activeThreadsInWarmup;
-	private int activeThreadsInRun;
-	private boolean warmupPhase;
-	private boolean runPhase;
+	private CountDownLatch warmupDone;
+	private CountDownLatch runStarted;
+	private CountDownLatch runDone;
+	private volatile long runStart;
 	private int nrThreads;
 	private int nrWarmup;
 	private QueryMix queryMix;
 	private PreCalcParameterPool pool;
 	protected boolean[] ignoreQueries;
-	private ClientThread[] clients;
+	private Thread[] clients;
 	private TestDriver parent;
+	//Results of the finished clients, merged after the run
+	private ConcurrentLinkedQueue<CompiledQueryMix> finishedMixes;
+	//Thread.ofVirtual() and Thread.Builder.unstarted(), null before Java 21
+	private static Method ofVirtual;
+	private static Method unstarted;
 	
 	ClientManager(AbstractParameterPool pool, TestDriver parent) {
-		activeThreadsInWarmup = 0;
-		activeThreadsInRun = 0;
+		finishedMixes = new ConcurrentLinkedQueue<CompiledQueryMix>();
 		this.parent = parent;
 		this.nrWarmup = parent.warmups;
 		this.nrThreads = parent.nrThreads;
 		this.queryMix = parent.queryMix;
 		this.ignoreQueries = parent.ignoreQueries;
+		warmupDone = new CountDownLatch(nrThreads);
+		runStarted = new CountDownLatch(1);
+		runDone = new CountDownLatch(nrThreads);
 		
-		this.pool = new PreCalcParameterPool(parent.parameterPool, nrWarmup);
+		if(parent.replayTrace!=null)
+			this.pool = new TraceParameterPool(parent.queryTrace, parent.traceOffset, nrWarmup);
+		else if(parent.queryMixBuffer>0)
+			this.pool = new StreamingParameterPool(parent.parameterPool, nrWarmup, parent.queryMixBuffer);
+		else
+			this.pool = new PreCalcParameterPool(parent.parameterPool, nrWarmup, parent.generatorThreads, parent.seed);
 		this.pool.calcQueryMixes(queryMix, parent.nrRuns+nrWarmup);
+		if(parent.recordTrace!=null)
+			recordTrace(parent.recordTrace);
 		queryMix.init();//Reset the Query Mix for further use
 	}
 	
+	private void recordTrace(String fileName) {
+		System.out.print("Recording query trace...");
+		System.out.flush();
+		try {
+			QueryTrace.write(new File(fileName), pool.getRecordedQueryMixes(queryMix), queryMix.getQueries().length,
+					parent.parameterPool.getScalefactor());
+		} catch(IOException e) {
+			System.err.println("Could not write query trace " + fileName + ": " + e.toString());
+			System.exit(-1);
+		}
+		System.out.println("done");
+	}
+	
 	public void createClients() {
-		clients = new ClientThread[nrThreads];
+		if(parent.virtualThreads)
+			initVirtualThreads();
+
+		clients = new Thread[nrThreads];
+		ServerConnection shared = null;
 		for(int i=0;i<nrThreads;i++) {
 			ServerConnection sConn;
 			if(parent.doSQL)
 				sConn = new SQLConnection(parent.sparqlEndpoint, parent.timeout, parent.driverClassName);
+			else if(shared!=null)
+				sConn = shared;
 			else {
 				if(parent.sparqlUpdateEndpoint==null)
 					sConn = new SPARQLConnection(parent.sparqlEndpoint, parent.defaultGraph, parent.timeout);
 				else
 					sConn = new SPARQLConnection(parent.sparqlEndpoint, parent.sparqlUpdateEndpoint, parent.defaultGraph, parent.timeout);
+				//SPARQLConnection has no per query state. Thousands of virtual
+				//clients share one, and so one HTTP client and connection pool.
+				if(parent.virtualThreads)
+					shared = sConn;
 			}
 				
-			clients[i] = new ClientThread(pool, sConn, ignoreQueries.length, this, i+1);
+			ArrivalSchedule schedule = null;
+			if(parent.arrivalRate>0)
+				schedule = new ArrivalSchedule(parent.arrivalRate, nrThreads, i+1, parent.poissonArrivals, parent.seed);
+			ClientThread client = new ClientThread(pool, sConn, ignoreQueries.length, this, i+1, schedule);
+			if(parent.virtualThreads)
+				clients[i] = createVirtualThread(client, "ClientThread-" + (i+1));
+			else
+				clients[i] = new Thread(client, "ClientThread-" + (i+1));
 		}
 		System.out.println("Clients created.");
 		System.out.flush();
 	}
 	
+	/*
+	 * Looks up the virtual thread builder, which only exists since Java 21
+	 */
+	private static void initVirtualThreads() {
+		if(ofVirtual!=null)
+			return;
+		try {
+			ofVirtual = Thread.class.getMethod("ofVirtual");
+			unstarted = Class.forName("java.lang.Thread$Builder").getMethod("unstarted", Runnable.class);
+		} catch(Exception e) {
+			System.err.println("Virtual threads (-vthreads) need Java 21 or newer, running on Java " + System.getProperty("java.version"));
+			System.exit(-1);
+		}
+	}
+
+	private static Thread createVirtualThread(Runnable client, String name) {
+		try {
+			Thread thread = (Thread)unstarted.invoke(ofVirtual.invoke(null), client);
+			thread.setName(name);
+			return thread;
+		} catch(Exception e) {
+			System.err.println("Could not create virtual thread: " + e.toString());
+			e.printStackTrace();
+			System.exit(-1);
+			return null;
+		}
+	}
+	
 	/*
 	 * warmup run
 	 */
 	public void startWarmup() {
-		warmupPhase = true;
-		activeThreadsInWarmup = nrThreads;
 		for(int i=0; i<nrThreads;i++)
 			clients[i].start();
-		while(activeThreadsInWarmup>0) {
-			try {
-				Thread.sleep(10);
-			}
-			catch(InterruptedException e) {
-				System.err.println("Got interrupted. Exit.");
-				return;
-			}
+		try {
+			warmupDone.await();
+		}
+		catch(InterruptedException e) {
+			System.err.println("Got interrupted. Exit.");
+			return;
 		}
 		
 		System.out.println("Warmup phase ended...\n");
-		warmupPhase = false;
 		return;
 	}
 	
@@ -74,26 +152,24 @@ public class ClientManager {
 	 */
 	public void startRun() {
 		System.out.println("Starting actual run...");
-		Long start;
-		activeThreadsInRun = nrThreads;
+		Long start = System.nanoTime();
+		runStart = start;
+		pool.setRunPhase();
+		runStarted.countDown();
 
-		synchronized(pool) {
-			runPhase = true;
-			pool.setRunPhase();
-			start = System.nanoTime();
+		try {
+			runDone.await();
 		}
-
-		while(activeThreadsInRun>0) {
-			try {
-				Thread.sleep(50);
-			}
-			catch(InterruptedException e) {
-				System.err.println("Got interrupted. Exit.");
-				return;
-			}
+		catch(InterruptedException e) {
+			System.err.println("Got interrupted. Exit.");
+			return;
 		}
 		Long stop = System.nanoTime();
 		Double totalRunTimeInSeconds = (stop - start)/(double)1000000000;
+		//Merged by this thread alone instead of by every client under a lock
+		CompiledQueryMix qMix;
+		while((qMix = finishedMixes.poll())!=null)
+			this.queryMix.addCompiledQueryMix(qMix);
 		queryMix.setMultiThreadRuntime(totalRunTimeInSeconds);
 		System.out.println("Benchmark run completed in " + totalRunTimeInSeconds + "s");
 		return;
@@ -102,26 +178,33 @@ public class ClientManager {
 	/*
 	 * If a client has finished its Warmup runs it should call this function
 	 */
-	public synchronized void finishWarmup(ClientThread client) {
+	public void finishWarmup(ClientThread client) {
 		client.getQueryMix().init();
-		activeThreadsInWarmup--;
+		warmupDone.countDown();
+	}
+
+	/*
+	 * Blocks a client until the run phase has started
+	 */
+	public void awaitRunPhase() throws InterruptedException {
+		runStarted.await();
 	}
 
 	/*
 	 * If a client is finished it reports its results to the ClientManager
 	 */
-	public synchronized void finishRun(ClientThread client) {
+	public void finishRun(ClientThread client) {
 		CompiledQueryMix qMix = client.getQueryMix();
 		if(qMix.getQueryMixRuns()>0)
-			this.queryMix.addCompiledQueryMix(qMix);
-		activeThreadsInRun--;
+			finishedMixes.add(qMix);
+		runDone.countDown();
 	}
 
-	public boolean isWarmupPhase() {
-		return warmupPhase;
-	}
-
-	public boolean isRunPhase() {
-		return runPhase;
+	/*
+	 * System.nanoTime() at the start of the run, the open-loop schedules
+	 * start from here
+	 */
+	public long getRunStart() {
+		return runStart;
 	}
 }
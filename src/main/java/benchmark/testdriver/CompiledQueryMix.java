@@ -13,6 +13,14 @@ public class CompiledQueryMix {
 	private int[] maxResults;
 	private int[] runsPerQuery;//Runs Per Query
 	private int[] timeoutsPerQuery;
+	//Open loop: latencies from the intended start time of the query
+	private double[] aqetc;
+	private double[] qmaxc;
+	private double scheduleDelay;//of the current query in seconds
+	private boolean openLoop;
+	private LatencyHistogram[] histograms;//per query
+	private LatencyHistogram[] correctedHistograms;//per query, open loop only
+	private LatencyHistogram queryMixHistogram;
 	private int run;//run: negative values are warm up runs
 	
 	private int currentQueryIndex;//Index of current query for queryMix
@@ -64,6 +72,13 @@ public class CompiledQueryMix {
 		
 		runsPerQuery = new int[queryNr];
 		timeoutsPerQuery = new int[queryNr];
+		aqetc = new double[queryNr];
+		qmaxc = new double[queryNr];
+		scheduleDelay = 0;
+		openLoop = false;
+		histograms = new LatencyHistogram[queryNr];
+		correctedHistograms = new LatencyHistogram[queryNr];
+		queryMixHistogram = new LatencyHistogram();
 		
 		currentQueryIndex = 0;
 		queryMixRuns = 0;
@@ -109,6 +124,7 @@ public class CompiledQueryMix {
 			
 			queryMixGeoMean += Math.log10(queryMixRuntime);
 			totalRuntime += queryMixRuntime;
+			queryMixHistogram.record(queryMixRuntime);
 		}
 		
 		//Reset queryMixRuntime
@@ -147,6 +163,15 @@ public class CompiledQueryMix {
 			if(timeInSeconds > qmax[queryNr])
 				qmax[queryNr] = timeInSeconds;
 			
+			double corrected = timeInSeconds + scheduleDelay;
+			aqetc[queryNr] = (aqetc[queryNr] * nrRuns + corrected) / (nrRuns+1);
+			if(corrected > qmaxc[queryNr])
+				qmaxc[queryNr] = corrected;
+			
+			histogram(histograms, queryNr).record(timeInSeconds);
+			if(openLoop)
+				histogram(correctedHistograms, queryNr).record(corrected);
+			
 			if(numberResults < minResults[queryNr])
 				minResults[queryNr] = numberResults;
 			
@@ -156,9 +181,30 @@ public class CompiledQueryMix {
 			queryMixRuntime += timeInSeconds;
 		}
 		
+		scheduleDelay = 0;
 		currentQueryIndex++;
 	}
 	
+	/*
+	 * How long the current query started after its intended start time
+	 */
+	public void setScheduleDelay(double delayInSeconds) {
+		scheduleDelay = delayInSeconds;
+		openLoop = true;
+	}
+
+	/*
+	 * The histograms of queries which never ran stay null
+	 */
+	private static LatencyHistogram histogram(LatencyHistogram[] histograms, int queryNr) {
+		LatencyHistogram histogram = histograms[queryNr];
+		if(histogram==null) {
+			histogram = new LatencyHistogram();
+			histograms[queryNr] = histogram;
+		}
+		return histogram;
+	}
+	
 
 	public double[] getAqet() {
 		return aqet;
@@ -247,4 +293,24 @@ public class CompiledQueryMix {
 	public int[] getTimeoutsPerQuery() {
 		return timeoutsPerQuery;
 	}
+
+	public double[] getCorrectedAqet() {
+		return aqetc;
+	}
+
+	public double[] getCorrectedQmax() {
+		return qmaxc;
+	}
+
+	public LatencyHistogram[] getHistograms() {
+		return histograms;
+	}
+
+	public LatencyHistogram[] getCorrectedHistograms() {
+		return correctedHistograms;
+	}
+
+	public LatencyHistogram getQueryMixHistogram() {
+		return queryMixHistogram;
+	}
 }
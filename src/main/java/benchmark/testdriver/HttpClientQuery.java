@@ -0,0 +1,114 @@
+package benchmark.testdriver;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UnsupportedEncodingException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.time.Duration;
+
+/*
+ * Query over a java.net.http.HttpClient. The client belongs to one
+ * SPARQLConnection and keeps its connections open between the queries,
+ * so a client thread does not pay for a new TCP (and TLS) handshake per
+ * query like with HttpURLConnection.
+ * The timeout covers the time until the response headers arrive.
+ */
+public class HttpClientQuery extends NetQuery {
+	private HttpClient client;
+	private HttpRequest request;
+	private InputStream body;
+
+	protected HttpClientQuery(HttpClient client, HttpEndpoint endpoint, String query, byte queryType, String defaultGraph, int timeout, byte resultFormat) {
+		this.client = client;
+		queryString = query;
+		try {
+			HttpRequest.Builder builder;
+			if(queryType==Query.UPDATE_TYPE) {
+				StringBuffer form = new StringBuffer();
+				form.append(TestDriver.sparqlUpdateQueryParameter).append('=');
+				form.append(URLEncoder.encode(query, "UTF-8"));
+				if(defaultGraph!=null)
+					form.append("&default-graph-uri=").append(defaultGraph);
+				builder = HttpRequest.newBuilder(URI.create(endpoint.getURL()))
+						.header("Content-Type", "application/x-www-form-urlencoded")
+						.POST(HttpRequest.BodyPublishers.ofString(form.toString()));
+			}
+			else {
+				StringBuffer url = new StringBuffer(endpoint.getURL());
+				url.append(endpoint.getDelimiter()).append("query=");
+				url.append(URLEncoder.encode(query, "UTF-8"));
+				if(defaultGraph!=null)
+					url.append("&default-graph-uri=").append(defaultGraph);
+				builder = HttpRequest.newBuilder(URI.create(url.toString())).GET();
+			}
+
+			if(queryType==Query.DESCRIBE_TYPE || queryType==Query.CONSTRUCT_TYPE)
+				builder.header("Accept", "application/rdf+xml");
+			else
+				builder.header("Accept", ResultCounter.getMediaType(resultFormat));
+			if(endpoint.getAuthorization()!=null)
+				builder.header("Authorization", endpoint.getAuthorization());
+			if(timeout>0)
+				builder.timeout(Duration.ofMillis(timeout));
+
+			request = builder.build();
+		} catch(UnsupportedEncodingException e) {
+			System.err.println(e.toString());
+			e.printStackTrace();
+			System.exit(-1);
+		} catch(IllegalArgumentException e) {
+			System.err.println(e.toString() + " for URL: " + endpoint.getURL());
+			e.printStackTrace();
+			System.exit(-1);
+		}
+	}
+
+	protected InputStream exec() {
+		try {
+			start = System.nanoTime();
+			HttpResponse<InputStream> response = client.send(request, HttpResponse.BodyHandlers.ofInputStream());
+			int rc = response.statusCode();
+			if(rc < 200 || rc >= 300) {
+				System.err.println("Query execution: Received error code " + rc + " from server");
+				System.err.println("Error message: " + rc + "\n\nFor query: \n");
+				System.err.println(queryString + "\n");
+				//HttpURLConnection has no body to read for these
+				if(rc >= 400)
+					throw new IOException("Server returned HTTP response code: " + rc);
+			}
+			body = response.body();
+			return body;
+		} catch(HttpTimeoutException e) {
+			return null;
+		} catch(IOException e) {
+			System.err.println("Query execution error:");
+			e.printStackTrace();
+			System.exit(-1);
+			return null;
+		} catch(InterruptedException e) {
+			System.err.println("Query execution interrupted");
+			System.exit(-1);
+			return null;
+		}
+	}
+
+	/*
+	 * Closing the fully read body gives the connection back to the client
+	 */
+	protected void close() {
+		if(body!=null) {
+			try {
+				body.close();
+			} catch(IOException e) {
+				//The connection gets dropped instead of reused
+			}
+			body = null;
+		}
+		request = null;
+	}
+}
@@ -0,0 +1,49 @@
+package benchmark.testdriver;
+
+import java.net.URI;
+import java.net.URISyntaxException;
+import org.apache.commons.codec.binary.Base64;
+
+/*
+ * A SPARQL service URL prepared once for all its queries: the user info is
+ * taken out of the URL and turned into the Authorization header, and the
+ * delimiter for appending the query parameters is known in advance.
+ */
+class HttpEndpoint {
+	private String url;
+	private char delim;
+	private String authorization;
+
+	HttpEndpoint(String serviceURL) {
+		try {
+			url = serviceURL;
+			//Sent as it appears in the URL, like HttpURLConnection did
+			String userInfo = new URI(serviceURL).getRawUserInfo();
+			if(userInfo!=null) {
+				int start = url.indexOf("//") + 2;
+				url = url.substring(0, start) + url.substring(start + userInfo.length() + 1);
+				authorization = "Basic " + new String(Base64.encodeBase64(userInfo.getBytes()));
+			}
+		} catch(URISyntaxException e) {
+			System.err.println(e.toString() + " for URL: " + serviceURL);
+			e.printStackTrace();
+			System.exit(-1);
+		}
+		delim = url.indexOf('?')==-1 ? '?' : '&';
+	}
+
+	String getURL() {
+		return url;
+	}
+
+	char getDelimiter() {
+		return delim;
+	}
+
+	/*
+	 * The value of the Authorization header, null without user info
+	 */
+	String getAuthorization() {
+		return authorization;
+	}
+}
@@ -0,0 +1,147 @@
+package benchmark.testdriver;
+
+import java.util.Arrays;
+
+/*
+ * Latency histogram with logarithmic buckets in the style of HdrHistogram.
+ * The values are recorded in microseconds. Below 256us every value has its own
+ * bucket, above every power of two range is split into 128 buckets, so a
+ * percentile is accurate to two significant digits (< 0.8%).
+ * Only the range of buckets between the smallest and largest recorded value
+ * is allocated. Once it covers the values, recording neither allocates nor
+ * does more than a few shifts and an increment.
+ * Not thread safe, every client records into its own histograms, which get
+ * merged afterwards.
+ */
+public class LatencyHistogram {
+	private static final int subBucketBits = 8;
+	private static final int subBucketCount = 1 << subBucketBits;
+	private static final int subBucketHalfCount = subBucketCount >> 1;
+	//Extra buckets allocated when the range has to grow
+	private static final int growth = subBucketHalfCount;
+
+	private int[] counts;
+	private int offset;//Bucket index of counts[0]
+	private long totalCount;
+	private long maxValue;//in us
+
+	public LatencyHistogram() {
+		counts = null;
+		offset = 0;
+		totalCount = 0;
+		maxValue = 0;
+	}
+
+	/*
+	 * Record a latency in seconds
+	 */
+	public void record(double timeInSeconds) {
+		long value = (long)(timeInSeconds * 1000000 + 0.5);
+		if(value < 0)
+			value = 0;
+		int index = bucketIndex(value);
+		if(counts==null || index < offset || index >= offset + counts.length)
+			cover(index);
+		counts[index - offset]++;
+		totalCount++;
+		if(value > maxValue)
+			maxValue = value;
+	}
+
+	/*
+	 * Bucket of a value: the value itself below subBucketCount, above
+	 * the exponent and the 7 bits below the highest bit
+	 */
+	static int bucketIndex(long value) {
+		if(value < subBucketCount)
+			return (int)value;
+		int shift = 63 - Long.numberOfLeadingZeros(value) - (subBucketBits - 1);
+		return shift * subBucketHalfCount + (int)(value >>> shift);
+	}
+
+	/*
+	 * Highest value which falls into the bucket
+	 */
+	static long highestValue(int index) {
+		if(index < subBucketCount)
+			return index;
+		int shift = index / subBucketHalfCount - 1;
+		long subBucket = index - shift * subBucketHalfCount;
+		return ((subBucket + 1) << shift) - 1;
+	}
+
+	/*
+	 * Grows the allocated range of buckets to include index
+	 */
+	private void cover(int index) {
+		if(counts==null) {
+			offset = Math.max(0, index - growth / 2);
+			counts = new int[growth];
+			return;
+		}
+		int from = Math.min(offset, Math.max(0, index - growth));
+		int to = Math.max(offset + counts.length, index + growth);
+		int[] newCounts = new int[to - from];
+		System.arraycopy(counts, 0, newCounts, offset - from, counts.length);
+		counts = newCounts;
+		offset = from;
+	}
+
+	/*
+	 * Adds the values of another histogram
+	 */
+	public void add(LatencyHistogram other) {
+		if(other==null || other.counts==null)
+			return;
+		for(int i=0;i<other.counts.length;i++) {
+			int count = other.counts[i];
+			if(count>0) {
+				int index = other.offset + i;
+				if(counts==null || index < offset || index >= offset + counts.length)
+					cover(index);
+				counts[index - offset] += count;
+			}
+		}
+		totalCount += other.totalCount;
+		if(other.maxValue > maxValue)
+			maxValue = other.maxValue;
+	}
+
+	public long getTotalCount() {
+		return totalCount;
+	}
+
+	/*
+	 * The latency in seconds which percentile percent of the values
+	 * do not exceed, 0 if nothing was recorded
+	 */
+	public double getPercentile(double percentile) {
+		if(totalCount==0)
+			return 0.0;
+		long target = (long)Math.ceil(percentile / 100 * totalCount);
+		if(target < 1)
+			target = 1;
+
+		long sum = 0;
+		for(int i=0;i<counts.length;i++) {
+			sum += counts[i];
+			if(sum >= target)
+				return Math.min(highestValue(offset + i), maxValue) / 1000000.0;
+		}
+		return getMax();
+	}
+
+	/*
+	 * The largest recorded latency in seconds
+	 */
+	public double getMax() {
+		return maxValue / 1000000.0;
+	}
+
+	public void reset() {
+		if(counts!=null)
+			Arrays.fill(counts, 0);
+		totalCount = 0;
+		maxValue = 0;
+	}
+}
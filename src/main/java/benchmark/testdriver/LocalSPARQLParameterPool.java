@@ -110,7 +110,7 @@ public class LocalSPARQLParameterPool extends AbstractParameterPool {
 	 * Get a random Product URI
 	 */
 	private String getRandomProductURI() {
-		Integer productNr = getRandomProductNr();
+		Long productNr = getRandomProductNr();
 		Integer producerNr = getProducerOfProduct(productNr);
 		
 		return Product.getURIref(productNr, producerNr);
@@ -120,7 +120,7 @@ public class LocalSPARQLParameterPool extends AbstractParameterPool {
 	 * Get a random Offer URI
 	 */
 	private String getRandomOfferURI() {
-		Integer offerNr = valueGen.randomInt(1, offerCount);
+		Long offerNr = valueGen.randomLong(1, offerCount);
 		Integer vendorNr = getVendorOfOffer(offerNr);
 		
 		return Offer.getURIref(offerNr, vendorNr);
@@ -130,7 +130,7 @@ public class LocalSPARQLParameterPool extends AbstractParameterPool {
 	 * Get a random Review URI
 	 */
 	private String getRandomReviewURI() {
-		Integer reviewNr = valueGen.randomInt(1, reviewCount);
+		Long reviewNr = valueGen.randomLong(1, reviewCount);
 		Integer ratingSiteNr = getRatingsiteOfReviewer(reviewNr);
 		
 		return Review.getURIref(reviewNr, ratingSiteNr);
@@ -140,7 +140,7 @@ public class LocalSPARQLParameterPool extends AbstractParameterPool {
 	 * Get a random producer URI
 	 */
 	private String getRandomProducerURI() {
-		Integer producerNr = valueGen.randomInt(1, producerOfProduct.length-1);
+		Integer producerNr = valueGen.randomInt(1, producerOfProduct.limit()-1);
 		
 		return Producer.getURIref(producerNr);
 	}
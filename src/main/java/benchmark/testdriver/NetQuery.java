@@ -12,7 +12,20 @@ public class NetQuery {
 	Long end;
 	String queryString;
 	
+	/*
+	 * For subclasses with another transport
+	 */
+	protected NetQuery() {
+	}
+
 	protected NetQuery(String serviceURL, String query, byte queryType, String defaultGraph, int timeout) {
+		this(serviceURL, query, queryType, defaultGraph, timeout, ResultCounter.XML);
+	}
+
+	/*
+	 * resultFormat: the format of SELECT results, see ResultCounter
+	 */
+	protected NetQuery(String serviceURL, String query, byte queryType, String defaultGraph, int timeout, byte resultFormat) {
 		String urlString = null;
 		try {
 			queryString = query;
@@ -29,7 +42,7 @@ public class NetQuery {
 			URL url = new URL(urlString);
 			conn = (HttpURLConnection)url.openConnection();
 
-			configureConnection(query, queryType, timeout, defaultGraph);
+			configureConnection(query, queryType, timeout, defaultGraph, resultFormat);
 		} catch(UnsupportedEncodingException e) {
 			System.err.println(e.toString());
 			e.printStackTrace();
@@ -46,7 +59,7 @@ public class NetQuery {
 		}
 	}
 
-	private void configureConnection(String query, byte queryType, int timeout, String defaultGraph)
+	private void configureConnection(String query, byte queryType, int timeout, String defaultGraph, byte resultFormat)
 			throws ProtocolException, IOException{
 		if(queryType==Query.UPDATE_TYPE)
 			conn.setRequestMethod("POST");
@@ -67,7 +80,7 @@ public class NetQuery {
 		if(queryType==Query.DESCRIBE_TYPE || queryType==Query.CONSTRUCT_TYPE)
 			conn.setRequestProperty("Accept", "application/rdf+xml");
 		else
-			conn.setRequestProperty("Accept", "application/sparql-results+xml");
+			conn.setRequestProperty("Accept", ResultCounter.getMediaType(resultFormat));
 		
 		if(queryType==Query.UPDATE_TYPE) {
 			conn.setRequestProperty("Content-Type", "application/x-www-form-urlencoded");
@@ -1,19 +1,36 @@
 package benchmark.testdriver;
 
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+
 public class PreCalcParameterPool {
 	AbstractParameterPool parameterPool;
 	private CompiledQuery queryMixes[][];
-	private int queryMixNr;
-	private int warmups;
-	private boolean warmupPhase;
-	private boolean runPhase;
+	protected int nrQueryMixes;
+	private AtomicInteger cursor;//Next query mix to hand out
+	protected int warmups;
+	private volatile boolean runPhase;
+	private int threads;//Parallel precomputation, 0: sequential
+	private long seed;
 	
 	PreCalcParameterPool(AbstractParameterPool parameterPool, int warmups) {
+		this(parameterPool, warmups, 0, 0L);
+	}
+	
+	/*
+	 * threads: precompute the query mixes in parallel with this many threads,
+	 * every query mix draws its parameters with a seed derived from seed.
+	 * 0 keeps the sequential generation.
+	 */
+	PreCalcParameterPool(AbstractParameterPool parameterPool, int warmups, int threads, long seed) {
 		this.parameterPool = parameterPool;
 		this.warmups = warmups;
-		warmupPhase = true;
+		this.threads = threads;
+		this.seed = seed;
 		runPhase = false;
-		queryMixNr = 0;
+		cursor = new AtomicInteger(0);
 	}
 	
 	/*
@@ -22,64 +39,161 @@ public class PreCalcParameterPool {
 	public void calcQueryMixes(QueryMix queryMix, int times) {
 		System.out.print("Generating queries...");
 		System.out.flush();
-		queryMixes = new CompiledQuery[times][queryMix.queryMix.length];
+		queryMixes = new CompiledQuery[times][];
 		
-		for(int nrRun=0;nrRun<times;nrRun++) {
-			queryMix.setRun(nrRun);
-			int i=0;
-			while(queryMix.hasNext()) {
-				Query next = queryMix.getNext();
-				//Don't create queries for the warm-up phase
-				if(nrRun < warmups && next.getQueryType()==Query.UPDATE_TYPE) {
-					queryMixes[nrRun][i++] = null;
-					queryMix.setCurrent(0, -1.0);
-					continue;
-				}
-				Object[] queryParameters = parameterPool.getParametersForQuery(next);
-				next.setParameters(queryParameters);
-				
-				queryMixes[nrRun][i++] = new CompiledQuery(next.getQueryString(), next.getQueryType(), next.getNr());
-				
-				queryMix.setCurrent(0, -1.0);
-			}
-			queryMix.finishRun();
+		if(threads>0)
+			calcQueryMixesInParallel(queryMix, times);
+		else {
+			for(int nrRun=0;nrRun<times;nrRun++)
+				queryMixes[nrRun] = generateQueryMix(queryMix, nrRun, parameterPool, true);
 		}
+		nrQueryMixes = times;
 		System.out.println("done");
 	}
 	
-	public synchronized CompiledQuery[] getNextQueryMix() {
-		if(queryMixNr==warmups)
-			warmupPhase = false;
+	/*
+	 * Every query mix gets its own copy of the parameter pool with a seed
+	 * derived from the seed and its number, so the query mixes do not depend
+	 * on each other or on the number of threads.
+	 * The update queries read the update dataset one transaction after the
+	 * other, they are filled in afterwards in the order of the query mixes.
+	 */
+	private void calcQueryMixesInParallel(final QueryMix queryMix, int times) {
+		ForkJoinPool forkJoinPool = new ForkJoinPool(threads);
+		forkJoinPool.invoke(new GenerateTask(queryMix, 0, times));
+		forkJoinPool.shutdown();
+
+		Query[] queries = queryMix.getQueries();
+		Integer[] queryNrs = queryMix.queryMix;
+		for(int nrRun=warmups;nrRun<times;nrRun++) {
+			for(int i=0;i<queryNrs.length;i++) {
+				Query next = queries[queryNrs[i]];
+				if(next.getQueryType()==Query.UPDATE_TYPE)
+					queryMixes[nrRun][i] = compile(next, parameterPool);
+			}
+		}
+	}
+	
+	/*
+	 * Seed of the parameters of query mix nrRun
+	 */
+	private long getQueryMixSeed(int nrRun) {
+		return new Random(seed ^ (nrRun * 0x9E3779B97F4A7C15L)).nextLong();
+	}
+	
+	/*
+	 * Generates the query mixes from start to end, splits large ranges
+	 */
+	private class GenerateTask extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+		private static final int leafSize = 32;
+		private QueryMix queryMix;
+		private int start;
+		private int end;
 		
-		if(!warmupPhase && !runPhase) {
-			return null;
+		GenerateTask(QueryMix queryMix, int start, int end) {
+			this.queryMix = queryMix;
+			this.start = start;
+			this.end = end;
 		}
 		
-		if(queryMixNr >= queryMixes.length)
-			return null;
-		else {
-			return queryMixes[queryMixNr++];
+		@Override
+		protected void compute() {
+			if(end-start <= leafSize) {
+				for(int nrRun=start;nrRun<end;nrRun++)
+					queryMixes[nrRun] = generateQueryMix(queryMix, nrRun, parameterPool.derive(getQueryMixSeed(nrRun)), false);
+				return;
+			}
+			int middle = (start+end) >>> 1;
+			invokeAll(new GenerateTask(queryMix, start, middle), new GenerateTask(queryMix, middle, end));
 		}
 	}
-	public synchronized boolean getNextQueryMix(CompiledQueryMix queryMix) {
-		if(queryMixNr==warmups)
-			warmupPhase = false;
-		
-		if(!warmupPhase && !runPhase) {
-			return false;
+	
+	/*
+	 * Generates the queries of the query mix nrRun. With one parameter pool
+	 * the query mixes have to be generated in order, because they draw from
+	 * it one after the other. The state of queryMix and its queries is not
+	 * touched. Without updates the update queries are left null.
+	 */
+	protected CompiledQuery[] generateQueryMix(QueryMix queryMix, int nrRun, AbstractParameterPool parameters, boolean withUpdates) {
+		Query[] queries = queryMix.getQueries();
+		Integer[] queryNrs = queryMix.queryMix;
+		CompiledQuery[] compiledQueries = new CompiledQuery[queryNrs.length];
+		for(int i=0;i<queryNrs.length;i++) {
+			Query next = queries[queryNrs[i]];
+			//Don't create queries for the warm-up phase
+			if((nrRun < warmups || !withUpdates) && next.getQueryType()==Query.UPDATE_TYPE) {
+				compiledQueries[i] = null;
+				continue;
+			}
+			compiledQueries[i] = compile(next, parameters);
 		}
-		
-		if(queryMixNr >= queryMixes.length)
+		return compiledQueries;
+	}
+	
+	private static CompiledQuery compile(Query query, AbstractParameterPool parameters) {
+		Object[] queryParameters = parameters.getParametersForQuery(query);
+		return new CompiledQuery(query.getQueryString(queryParameters), query.getQueryType(), query.getNr());
+	}
+	
+	/*
+	 * Hands out the next query mix: the warmup mixes until they are used up,
+	 * then the run mixes once the run phase started. Without locking, the
+	 * clients only compete for the cursor.
+	 */
+	public CompiledQuery[] getNextQueryMix() throws InterruptedException {
+		int nr = claimNextQueryMix();
+		if(nr<0)
+			return null;
+		return queryMixes[nr];
+	}
+
+	public boolean getNextQueryMix(CompiledQueryMix queryMix) throws InterruptedException {
+		int nr = claimNextQueryMix();
+		if(nr<0)
 			return false;
-		else {
-			queryMix.setRun(queryMixNr-warmups);
-			queryMix.setNewCompiledQueryMix(queryMixes[queryMixNr++]);
-			return true;
+		queryMix.setRun(nr-warmups);
+		queryMix.setNewCompiledQueryMix(queryMixes[nr]);
+		return true;
+	}
+
+	/*
+	 * Index of the claimed query mix, -1 if there is none in this phase
+	 */
+	protected int claimNextQueryMix() {
+		while(true) {
+			int nr = cursor.get();
+			int limit = runPhase ? nrQueryMixes : warmups;
+			if(nr >= limit)
+				return -1;
+			if(cursor.compareAndSet(nr, nr+1))
+				return nr;
+		}
+	}
+
+	/*
+	 * The precomputed query mixes for recording them. The warmup query mixes
+	 * get their update queries too, in case they are replayed as run mixes.
+	 * These are generated after all other queries, so the run query mixes
+	 * are the same as without recording.
+	 */
+	CompiledQuery[][] getRecordedQueryMixes(QueryMix queryMix) {
+		CompiledQuery[][] recorded = queryMixes.clone();
+		Query[] queries = queryMix.getQueries();
+		Integer[] queryNrs = queryMix.queryMix;
+		for(int nrRun=0;nrRun<warmups && nrRun<nrQueryMixes;nrRun++) {
+			recorded[nrRun] = recorded[nrRun].clone();
+			for(int i=0;i<queryNrs.length;i++) {
+				Query next = queries[queryNrs[i]];
+				if(next.getQueryType()==Query.UPDATE_TYPE)
+					recorded[nrRun][i] = compile(next, parameterPool);
+			}
 		}
+		return recorded;
 	}
 
 	public boolean isWarmupPhase() {
-		return warmupPhase;
+		return !runPhase && cursor.get() < warmups;
 	}
 
 	public void setRunPhase() {
@@ -333,6 +333,14 @@ public class Query {
 	 * returns a String of the Query with query parameters filled in.
 	 */
 	public String getQueryString() {
+		return getQueryString(parameters);
+	}
+
+	/*
+	 * returns a String of the Query with the given parameters filled in,
+	 * without changing the parameters of the Query.
+	 */
+	public String getQueryString(Object[] parameters) {
 		StringBuilder s = new StringBuilder();
 
 		s.append(queryStrings.get(0));
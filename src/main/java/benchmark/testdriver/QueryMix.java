@@ -13,6 +13,12 @@ public class QueryMix {
 	private int[] maxResults;
 	private int[] runsPerQuery;//Runs Per Query
 	private int[] timeoutsPerQuery;
+	//Open loop: latencies from the intended start time of the query
+	private double[] aqetc;
+	private double[] qmaxc;
+	private LatencyHistogram[] histograms;//per query
+	private LatencyHistogram[] correctedHistograms;//per query, open loop only
+	private LatencyHistogram queryMixHistogram;
 	private int run;//run: negative values are warm up runs
 	
 	private int currentQueryIndex;//Index of current query for queryMix
@@ -64,6 +70,11 @@ public class QueryMix {
 		
 		runsPerQuery = new int[queries.length];
 		timeoutsPerQuery = new int[queries.length];
+		aqetc = new double[queries.length];
+		qmaxc = new double[queries.length];
+		histograms = new LatencyHistogram[queries.length];
+		correctedHistograms = new LatencyHistogram[queries.length];
+		queryMixHistogram = new LatencyHistogram();
 		
 		currentQueryIndex = 0;
 		queryMixRuns = 0;
@@ -100,6 +111,10 @@ public class QueryMix {
 		int[] cMinResults = cqMix.getMinResults();
 		int[] cMaxResults = cqMix.getMaxResults();
 		int[] cTimeouts = cqMix.getTimeoutsPerQuery();
+		double[] cAqetc = cqMix.getCorrectedAqet();
+		double[] cQmaxc = cqMix.getCorrectedQmax();
+		LatencyHistogram[] cHistograms = cqMix.getHistograms();
+		LatencyHistogram[] cCorrectedHistograms = cqMix.getCorrectedHistograms();
 		double cTotalRuntime = cqMix.getTotalRuntime();
 		double cMinQueryMixRuntime = cqMix.getMinQueryMixRuntime();
 		double cMaxQueryMixRuntime = cqMix.getMaxQueryMixRuntime();
@@ -111,6 +126,7 @@ public class QueryMix {
 				
 				
 				aqet[i] = (aqet[i]*runsPerQuery[i] + cAqet[i]*cNrRuns)/(runsPerQuery[i]+cNrRuns);
+				aqetc[i] = (aqetc[i]*runsPerQuery[i] + cAqetc[i]*cNrRuns)/(runsPerQuery[i]+cNrRuns);
 				aqetg[i] += cAqetg[i];
 				avgResults[i] = (avgResults[i]*runsPerQuery[i] + cAvgResults[i]*cNrRuns)/(runsPerQuery[i]+cNrRuns);
 				timeoutsPerQuery[i] += cTimeouts[i];
@@ -121,6 +137,14 @@ public class QueryMix {
 				if(cQmax[i] > qmax[i])
 					qmax[i] = cQmax[i];
 				
+				if(cQmaxc[i] > qmaxc[i])
+					qmaxc[i] = cQmaxc[i];
+				
+				if(cHistograms[i]!=null)
+					histogram(histograms, i).add(cHistograms[i]);
+				if(cCorrectedHistograms[i]!=null)
+					histogram(correctedHistograms, i).add(cCorrectedHistograms[i]);
+				
 				if(cMinResults[i] < minResults[i])
 					minResults[i] = cMinResults[i];
 				
@@ -134,6 +158,7 @@ public class QueryMix {
 		totalRuntime+=cTotalRuntime;
 		queryMixGeoMean += cQueryMixGeoMean;
 		queryMixRuns+=cQueryMixRuns;
+		queryMixHistogram.add(cqMix.getQueryMixHistogram());
 		
 		if(cMinQueryMixRuntime < minQueryMixRuntime)
 			minQueryMixRuntime = cMinQueryMixRuntime;
@@ -164,6 +189,7 @@ public class QueryMix {
 			
 			queryMixGeoMean += Math.log10(queryMixRuntime);
 			totalRuntime += queryMixRuntime;
+			queryMixHistogram.record(queryMixRuntime);
 		}
 		
 		//Reset queryMixRuntime
@@ -203,6 +229,8 @@ public class QueryMix {
 			if(timeInSeconds > qmax[queryNr])
 				qmax[queryNr] = timeInSeconds;
 			
+			histogram(histograms, queryNr).record(timeInSeconds);
+			
 			if(numberResults < minResults[queryNr])
 				minResults[queryNr] = numberResults;
 			
@@ -307,4 +335,42 @@ public class QueryMix {
 	public int[] getTimeoutsPerQuery() {
 		return timeoutsPerQuery;
 	}
+
+	/*
+	 * Open loop: mean and maximum latency from the intended start times
+	 */
+	public double[] getCorrectedAqet() {
+		return aqetc;
+	}
+
+	public double[] getCorrectedQmax() {
+		return qmaxc;
+	}
+
+	/*
+	 * Latency histograms per query, null for queries which never ran
+	 */
+	public LatencyHistogram[] getHistograms() {
+		return histograms;
+	}
+
+	public LatencyHistogram[] getCorrectedHistograms() {
+		return correctedHistograms;
+	}
+
+	public LatencyHistogram getQueryMixHistogram() {
+		return queryMixHistogram;
+	}
+
+	/*
+	 * The histograms of queries which never ran stay null
+	 */
+	private static LatencyHistogram histogram(LatencyHistogram[] histograms, int queryNr) {
+		LatencyHistogram histogram = histograms[queryNr];
+		if(histogram==null) {
+			histogram = new LatencyHistogram();
+			histograms[queryNr] = histogram;
+		}
+		return histogram;
+	}
 }
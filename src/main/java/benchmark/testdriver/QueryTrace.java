@@ -0,0 +1,158 @@
+package benchmark.testdriver;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+
+/*
+ * Binary file with the compiled query mixes of a run (-recordTrace), which
+ * can be replayed later or on other hosts without generating the queries
+ * again (-replayTrace).
+ * Layout, big endian:
+ *   header: magic "BSMT", version, number of queries of the use case,
+ *           number of query mixes, scale factor of the Test Driver data
+ *           (long), position of the index (long)
+ *   query mixes: number of queries, then per query its type (-1: no query),
+ *           number, length of the UTF-8 query text and the text
+ *   index: position of every query mix (long), and the end of the last one
+ * The warmup query mixes are recorded with their update queries, the replay
+ * leaves them out as long as they are warmup query mixes.
+ * For replay the file is memory-mapped and a query mix is only decoded when
+ * a client takes it, so it can be up to 2GB large.
+ */
+public class QueryTrace {
+	private static final int magic = 0x42534D54;//"BSMT"
+	private static final int version = 2;
+	private static final int headerSize = 32;
+
+	private MappedByteBuffer data;
+	private int nrQueries;
+	private int nrQueryMixes;
+	private long scalefactor;
+	private int indexPosition;
+
+	private QueryTrace(MappedByteBuffer data) throws IOException {
+		this.data = data;
+		if(data.capacity()<headerSize || data.getInt(0)!=magic)
+			throw new IOException("Not a query trace");
+		if(data.getInt(4)!=version)
+			throw new IOException("Unsupported query trace version: " + data.getInt(4));
+		nrQueries = data.getInt(8);
+		nrQueryMixes = data.getInt(12);
+		scalefactor = data.getLong(16);
+		long index = data.getLong(24);
+		if(nrQueryMixes<0 || index<headerSize || index+8L*(nrQueryMixes+1)>data.capacity())
+			throw new IOException("Corrupt query trace index");
+		indexPosition = (int)index;
+	}
+
+	/*
+	 * Maps the trace file
+	 */
+	public static QueryTrace open(File file) throws IOException {
+		RandomAccessFile raf = new RandomAccessFile(file, "r");
+		try {
+			FileChannel channel = raf.getChannel();
+			if(channel.size()>Integer.MAX_VALUE)
+				throw new IOException("Query trace larger than 2GB: " + file);
+			//The mapping stays valid after closing the channel
+			return new QueryTrace(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+		} finally {
+			raf.close();
+		}
+	}
+
+	/*
+	 * Writes the query mixes, nrQueries is the number of queries of the use case
+	 */
+	public static void write(File file, CompiledQuery[][] queryMixes, int nrQueries, long scalefactor) throws IOException {
+		FileOutputStream fileOut = new FileOutputStream(file);
+		DataOutputStream out = new DataOutputStream(new BufferedOutputStream(fileOut, 65536));
+		try {
+			long[] positions = new long[queryMixes.length+1];
+			long position = headerSize;
+			out.writeInt(magic);
+			out.writeInt(version);
+			out.writeInt(nrQueries);
+			out.writeInt(queryMixes.length);
+			out.writeLong(scalefactor);
+			out.writeLong(0);//Index position, set at the end
+
+			for(int i=0;i<queryMixes.length;i++) {
+				positions[i] = position;
+				out.writeInt(queryMixes[i].length);
+				position += 4;
+				for(CompiledQuery query : queryMixes[i]) {
+					if(query==null) {
+						out.writeByte(-1);
+						out.writeInt(0);
+						out.writeInt(0);
+					}
+					else {
+						byte[] text = query.getQueryString().getBytes(StandardCharsets.UTF_8);
+						out.writeByte(query.getQueryType());
+						out.writeInt(query.getNr());
+						out.writeInt(text.length);
+						out.write(text);
+						position += text.length;
+					}
+					position += 9;
+				}
+			}
+			positions[queryMixes.length] = position;
+
+			for(long p : positions)
+				out.writeLong(p);
+			out.flush();
+
+			ByteBuffer index = ByteBuffer.allocate(8);
+			index.putLong(0, position);
+			fileOut.getChannel().write(index, 24);
+		} finally {
+			out.close();
+		}
+	}
+
+	public int getNrQueries() {
+		return nrQueries;
+	}
+
+	public int getNrQueryMixes() {
+		return nrQueryMixes;
+	}
+
+	public long getScalefactor() {
+		return scalefactor;
+	}
+
+	/*
+	 * Decodes query mix nr. Without updates the update queries are left
+	 * null, like in the warmup of a generated run.
+	 * Thread safe, every call reads from its own view of the mapping.
+	 */
+	public CompiledQuery[] getQueryMix(int nr, boolean withUpdates) {
+		ByteBuffer view = data.duplicate();
+		int start = (int)view.getLong(indexPosition + 8*nr);
+		view.position(start);
+		CompiledQuery[] queryMix = new CompiledQuery[view.getInt()];
+		for(int i=0;i<queryMix.length;i++) {
+			byte queryType = view.get();
+			int queryNr = view.getInt();
+			byte[] text = new byte[view.getInt()];
+			view.get(text);
+			if(queryType<0 || (!withUpdates && queryType==Query.UPDATE_TYPE))
+				continue;
+			if(queryNr<1 || queryNr>nrQueries)
+				throw new IllegalStateException("Query number " + queryNr + " out of range in query mix " + nr);
+			queryMix[i] = new CompiledQuery(new String(text, StandardCharsets.UTF_8), queryType, queryNr);
+		}
+		return queryMix;
+	}
+}
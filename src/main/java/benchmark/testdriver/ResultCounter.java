@@ -0,0 +1,244 @@
+package benchmark.testdriver;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/*
+ * Counts the results of a SELECT query while streaming over the bytes of the
+ * response, instead of running an XML parser over it. Every thread has its
+ * own counter with a reused buffer, so counting allocates nothing.
+ * Supported are the SPARQL XML, JSON, TSV and CSV result formats:
+ *   - XML: the result elements
+ *   - JSON: the objects in the bindings array
+ *   - TSV: the lines after the header line
+ *   - CSV: the records after the header, line breaks in quoted values
+ *     do not end a record
+ */
+public class ResultCounter {
+	public static final byte XML = 0;
+	public static final byte JSON = 1;
+	public static final byte TSV = 2;
+	public static final byte CSV = 3;
+
+	private static final String[] names = { "xml", "json", "tsv", "csv" };
+	private static final String[] mediaTypes = {
+		"application/sparql-results+xml",
+		"application/sparql-results+json",
+		"text/tab-separated-values",
+		"text/csv"
+	};
+
+	private static final byte[] resultTag = { '<', 'r', 'e', 's', 'u', 'l', 't' };
+	private static final byte[] bindingsKey = { 'b', 'i', 'n', 'd', 'i', 'n', 'g', 's' };
+
+	private static final ThreadLocal<ResultCounter> counters = new ThreadLocal<ResultCounter>() {
+		@Override
+		protected ResultCounter initialValue() {
+			return new ResultCounter();
+		}
+	};
+
+	private byte[] buffer = new byte[8192];
+
+	//XML state
+	private int tagMatch;//Bytes of resultTag matched so far
+
+	//JSON state
+	private int depth;
+	private boolean inString;
+	private boolean escaped;
+	private int keyMatch;//Bytes of bindingsKey matched in the current string, -1: mismatch
+	private boolean bindingsKeyRead;//"bindings" was the last string
+	private boolean expectBindings;//"bindings": was read
+	private int bindingsDepth;//Depth inside the bindings array, 0: not inside
+
+	//TSV and CSV state
+	private boolean inQuotes;
+	private boolean lineStarted;
+
+	private ResultCounter() {
+	}
+
+	/*
+	 * The counter of the calling thread
+	 */
+	public static ResultCounter get() {
+		return counters.get();
+	}
+
+	/*
+	 * Format for a -resultFormat value, -1 if unknown
+	 */
+	public static byte getFormat(String name) {
+		for(byte i=0;i<names.length;i++)
+			if(names[i].equals(name))
+				return i;
+		return -1;
+	}
+
+	public static String getName(byte format) {
+		return names[format];
+	}
+
+	/*
+	 * The value of the Accept header for the format
+	 */
+	public static String getMediaType(byte format) {
+		return mediaTypes[format];
+	}
+
+	/*
+	 * Number of results in the response
+	 */
+	public int countResults(InputStream in, byte format) throws IOException {
+		reset();
+		int count = 0;
+		int len;
+		while((len=in.read(buffer))!=-1) {
+			if(format==XML)
+				count += countXML(len);
+			else if(format==JSON)
+				count += countJSON(len);
+			else
+				count += countLines(len, format==CSV);
+		}
+
+		//TSV and CSV: the last line may lack the line break
+		if(format==TSV || format==CSV) {
+			if(lineStarted)
+				count++;
+			//Without results only the header line is there
+			if(count>0)
+				count--;
+		}
+		return count;
+	}
+
+	/*
+	 * Number of bytes in the response
+	 */
+	public int countBytes(InputStream in) throws IOException {
+		int nrBytes = 0;
+		int len;
+		while((len=in.read(buffer))!=-1)
+			nrBytes += len;
+		return nrBytes;
+	}
+
+	private void reset() {
+		tagMatch = 0;
+		depth = 0;
+		inString = false;
+		escaped = false;
+		keyMatch = -1;
+		bindingsKeyRead = false;
+		expectBindings = false;
+		bindingsDepth = 0;
+		inQuotes = false;
+		lineStarted = false;
+	}
+
+	/*
+	 * Counts "<result" followed by whitespace, '>' or '/', which leaves
+	 * out "<results"
+	 */
+	private int countXML(int len) {
+		int count = 0;
+		for(int i=0;i<len;i++) {
+			byte b = buffer[i];
+			if(tagMatch==resultTag.length) {
+				if(b=='>' || b=='/' || b==' ' || b=='\t' || b=='\n' || b=='\r')
+					count++;
+				tagMatch = 0;
+			}
+			if(b==resultTag[tagMatch])
+				tagMatch++;
+			else
+				tagMatch = b=='<' ? 1 : 0;
+		}
+		return count;
+	}
+
+	private int countJSON(int len) {
+		int count = 0;
+		for(int i=0;i<len;i++) {
+			byte b = buffer[i];
+			if(inString) {
+				if(escaped)
+					escaped = false;
+				else if(b=='\\') {
+					escaped = true;
+					keyMatch = -1;
+				}
+				else if(b=='"') {
+					inString = false;
+					bindingsKeyRead = keyMatch==bindingsKey.length;
+				}
+				else if(keyMatch>=0 && keyMatch<bindingsKey.length && b==bindingsKey[keyMatch])
+					keyMatch++;
+				else
+					keyMatch = -1;
+				continue;
+			}
+
+			switch(b) {
+			case ' ': case '\t': case '\n': case '\r':
+				continue;
+			case '"':
+				inString = true;
+				keyMatch = 0;
+				expectBindings = false;
+				continue;
+			case ':':
+				expectBindings = bindingsKeyRead;
+				break;
+			case '[':
+				depth++;
+				if(expectBindings && bindingsDepth==0)
+					bindingsDepth = depth;
+				expectBindings = false;
+				break;
+			case '{':
+				depth++;
+				if(bindingsDepth>0 && depth==bindingsDepth+1)
+					count++;
+				expectBindings = false;
+				break;
+			case ']':
+				if(depth==bindingsDepth)
+					bindingsDepth = -1;//Done, later arrays are not counted
+				depth--;
+				expectBindings = false;
+				break;
+			case '}':
+				depth--;
+				expectBindings = false;
+				break;
+			default:
+				expectBindings = false;
+			}
+			bindingsKeyRead = false;
+		}
+		return count;
+	}
+
+	/*
+	 * Counts the line breaks, in CSV only those outside of quoted values
+	 */
+	private int countLines(int len, boolean csv) {
+		int count = 0;
+		for(int i=0;i<len;i++) {
+			byte b = buffer[i];
+			if(csv && b=='"')
+				inQuotes = !inQuotes;
+			else if(b=='\n' && !inQuotes) {
+				count++;
+				lineStarted = false;
+				continue;
+			}
+			if(b!='\r')
+				lineStarted = true;
+		}
+		return count;
+	}
+}
@@ -2,9 +2,7 @@ package benchmark.testdriver;
 
 import java.io.*;
 import java.net.SocketTimeoutException;
-import javax.xml.parsers.*;
-import org.xml.sax.*;
-import org.xml.sax.helpers.DefaultHandler;
+import java.net.http.HttpClient;
 import org.jdom.*;
 import org.jdom.input.SAXBuilder;
 import org.jdom.output.XMLOutputter;
@@ -22,11 +20,13 @@ public class SPARQLConnection implements ServerConnection{
 	private String defaultGraph;
 	private static Logger logger = Logger.getLogger( SPARQLConnection.class );
 	private int timeout;
+	//Only used with the "client" HTTP transport
+	private HttpClient client;
+	private HttpEndpoint endpoint;
+	private HttpEndpoint updateEndpoint;
 	
 	public SPARQLConnection(String serviceURL, String defaultGraph, int timeout) {
-		this.serviceURL = serviceURL;
-		this.defaultGraph = defaultGraph;
-		this.timeout = timeout;
+		this(serviceURL, null, defaultGraph, timeout);
 	}
 	
 	public SPARQLConnection(String serviceURL, String updateServiceURL, String defaultGraph, int timeout) {
@@ -34,6 +34,32 @@ public class SPARQLConnection implements ServerConnection{
 		this.serviceURL = serviceURL;
 		this.defaultGraph = defaultGraph;
 		this.timeout = timeout;
+
+		if(TestDriver.httpTransport.equals("client")) {
+			//One client per connection, so every client thread has its own pool
+			client = HttpClient.newBuilder()
+					.version(TestDriver.http2 ? HttpClient.Version.HTTP_2 : HttpClient.Version.HTTP_1_1)
+					.followRedirects(HttpClient.Redirect.NORMAL)
+					.build();
+			if(serviceURL!=null)
+				endpoint = new HttpEndpoint(serviceURL);
+			if(updateServiceURL!=null)
+				updateEndpoint = new HttpEndpoint(updateServiceURL);
+		}
+	}
+	
+	/*
+	 * Creates the query for the selected HTTP transport
+	 */
+	private NetQuery createQuery(String queryString, byte queryType, int timeout, byte resultFormat) {
+		if(client!=null) {
+			HttpEndpoint target = queryType==Query.UPDATE_TYPE ? updateEndpoint : endpoint;
+			return new HttpClientQuery(client, target, queryString, queryType, defaultGraph, timeout, resultFormat);
+		}
+		if(queryType==Query.UPDATE_TYPE)
+			return new NetQuery(updateServiceURL, queryString, queryType, defaultGraph, timeout, resultFormat);
+		else
+			return new NetQuery(serviceURL, queryString, queryType, defaultGraph, timeout, resultFormat);
 	}
 	
 	/*
@@ -49,11 +75,7 @@ public class SPARQLConnection implements ServerConnection{
 	private void executeQuery(String queryString, byte queryType, int queryNr, QueryMix queryMix) {
 		double timeInSeconds;
 
-		NetQuery qe;
-		if(queryType==Query.UPDATE_TYPE)
-			qe = new NetQuery(updateServiceURL, queryString, queryType, defaultGraph, timeout);
-		else
-			qe = new NetQuery(serviceURL, queryString, queryType, defaultGraph, timeout);
+		NetQuery qe = createQuery(queryString, queryType, timeout, TestDriver.resultFormat);
 		int queryMixRun = queryMix.getRun() + 1;
 
 		InputStream is = qe.exec();
@@ -98,11 +120,7 @@ public class SPARQLConnection implements ServerConnection{
 		byte queryType = query.getQueryType();
 		int queryNr = query.getNr();
 		
-		NetQuery qe;
-		if(query.getQueryType()==Query.UPDATE_TYPE)
-			qe = new NetQuery(updateServiceURL, queryString, queryType, defaultGraph, timeout);
-		else
-			qe = new NetQuery(serviceURL, queryString, queryType, defaultGraph, timeout);
+		NetQuery qe = createQuery(queryString, queryType, timeout, TestDriver.resultFormat);
 
 		int queryMixRun = queryMix.getRun() + 1;
 
@@ -146,25 +164,14 @@ public class SPARQLConnection implements ServerConnection{
 	}
 	
 
-private int countBytes(InputStream is) {
-	int nrBytes=0;
-	byte[] buf = new byte[10000];
-	int len=0;
-//	StringBuffer sb = new StringBuffer(1000);
-	try {
-		while((len=is.read(buf))!=-1) {
-			nrBytes += len;//resultCount counts the returned bytes
-//			String temp = new String(buf,0,len);
-//			temp = "\n\n" + temp + "\n\n";
-//			logger.log(Level.ALL, temp);
-//			sb.append(temp);
+	private int countBytes(InputStream is) {
+		try {
+			return ResultCounter.get().countBytes(is);//resultCount counts the returned bytes
+		} catch(IOException e) {
+			System.err.println("Could not read result from input stream");
+			return 0;
 		}
-	} catch(IOException e) {
-		System.err.println("Could not read result from input stream");
 	}
-//	System.out.println(sb.toString());
-	return nrBytes;
-}
 	
 	private void logResultInfo(int queryNr, int queryMixRun, double timeInSeconds,
 			                   String queryString, byte queryType,
@@ -189,42 +196,18 @@ private int countBytes(InputStream is) {
 		logger.log(Level.ALL, sb.toString());
 	}
 	
+	/*
+	 * Counts the results in the -resultFormat while streaming the response
+	 */
 	private int countResults(InputStream s) throws SocketTimeoutException {
-		ResultHandler handler = new ResultHandler();
-		int count=0;
 		try {
-		  SAXParser saxParser = SAXParserFactory.newInstance().newSAXParser();
-//		  ByteArrayInputStream bis = new ByteArrayInputStream(s.getBytes("UTF-8"));
-	      saxParser.parse( s, handler );
-	      count = handler.getCount();
-		} catch(SocketTimeoutException e) { throw new SocketTimeoutException(); }
-		  catch(Exception e) {
-			System.err.println("SAX Error");
+			return ResultCounter.get().countResults(s, TestDriver.resultFormat);
+		} catch(SocketTimeoutException e) { throw e; }
+		  catch(IOException e) {
+			System.err.println("Could not read result from input stream");
 			e.printStackTrace();
 			return -1;
 		}
-		return count;
-	}
-	
-	private static class ResultHandler extends DefaultHandler {
-		private int count;
-		
-		ResultHandler() {
-			count = 0;
-		}
-		
-		@Override
-        public void startElement( String namespaceURI,
-                String localName,   // local name
-                String qName,       // qualified name
-                Attributes attrs ) {
-			if(qName.equals("result"))
-				count++;
-		}
-
-		public int getCount() {
-			return count;
-		}
 	}
 	
 	public void close() {
@@ -243,11 +226,8 @@ private int countBytes(InputStream is) {
 		boolean sorted = queryString.toLowerCase().contains("order by");
 		QueryResult queryResult = null;
 
-		NetQuery qe;
-		if(queryType==Query.UPDATE_TYPE)
-			qe = new NetQuery(updateServiceURL, queryString, queryType, defaultGraph, 0);
-		else
-			qe = new NetQuery(serviceURL, queryString, queryType, defaultGraph, 0);
+		//The validation reads the results with an XML parser
+		NetQuery qe = createQuery(queryString, queryType, 0, ResultCounter.XML);
 
 		InputStream is = qe.exec();
 		
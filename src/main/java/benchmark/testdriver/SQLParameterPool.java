@@ -92,22 +92,22 @@ public class SQLParameterPool extends AbstractParameterPool {
 	/*
 	 * Get a random Product URI
 	 */
-	private Integer getRandomProductURI() {
-		return valueGen.randomInt(1, productCount);
+	private Long getRandomProductURI() {
+		return valueGen.randomLong(1, productCount);
 	}
 	
 	/*
 	 * Get a random Offer URI
 	 */
-	private Integer getRandomOfferURI() {
-		return valueGen.randomInt(1, offerCount);
+	private Long getRandomOfferURI() {
+		return valueGen.randomLong(1, offerCount);
 	}
 	
 	/*
 	 * Get a random Review URI
 	 */
-	private Integer getRandomReviewURI() {
-		return valueGen.randomInt(1, reviewCount);
+	private Long getRandomReviewURI() {
+		return valueGen.randomLong(1, reviewCount);
 	}
 	
 	
@@ -0,0 +1,77 @@
+package benchmark.testdriver;
+
+import java.util.concurrent.ArrayBlockingQueue;
+
+/*
+ * Query mix pool which generates the query mixes during the run instead of all
+ * of them before the warmup. A producer thread generates them in the same
+ * order as PreCalcParameterPool, so a seed gives the same queries, and stays
+ * at most bufferSize query mixes ahead of the clients. The memory needed does
+ * not grow with the number of runs.
+ */
+public class StreamingParameterPool extends PreCalcParameterPool {
+	private ArrayBlockingQueue<Entry> buffer;
+
+	StreamingParameterPool(AbstractParameterPool parameterPool, int warmups, int bufferSize) {
+		super(parameterPool, warmups);
+		buffer = new ArrayBlockingQueue<Entry>(bufferSize);
+	}
+
+	/*
+	 * Starts the producer thread
+	 */
+	@Override
+	public void calcQueryMixes(final QueryMix queryMix, final int times) {
+		System.out.println("Generating queries during the run, up to " + buffer.remainingCapacity() + " query mixes ahead");
+		nrQueryMixes = times;
+		Thread producer = new Thread("QueryMix-Producer") {
+			@Override
+			public void run() {
+				try {
+					for(int nrRun=0;nrRun<times;nrRun++)
+						buffer.put(new Entry(nrRun, generateQueryMix(queryMix, nrRun, parameterPool, true)));
+				} catch(InterruptedException e) {
+					//The test driver is shutting down
+				} catch(RuntimeException e) {
+					System.err.println("Could not generate query mixes: " + e.toString());
+					e.printStackTrace();
+					System.exit(-1);
+				}
+			}
+		};
+		producer.setDaemon(true);
+		producer.start();
+	}
+
+	/*
+	 * The claimed query mixes are taken from the buffer in order. Several
+	 * clients can take them in another order than they claimed them, so
+	 * every entry knows its run number.
+	 */
+	@Override
+	public CompiledQuery[] getNextQueryMix() throws InterruptedException {
+		if(claimNextQueryMix()<0)
+			return null;
+		return buffer.take().queryMix;
+	}
+
+	@Override
+	public boolean getNextQueryMix(CompiledQueryMix queryMix) throws InterruptedException {
+		if(claimNextQueryMix()<0)
+			return false;
+		Entry entry = buffer.take();
+		queryMix.setRun(entry.nr-warmups);
+		queryMix.setNewCompiledQueryMix(entry.queryMix);
+		return true;
+	}
+
+	private static class Entry {
+		final int nr;
+		final CompiledQuery[] queryMix;
+
+		Entry(int nr, CompiledQuery[] queryMix) {
+			this.nr = nr;
+			this.queryMix = queryMix;
+		}
+	}
+}
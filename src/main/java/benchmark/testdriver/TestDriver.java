@@ -60,6 +60,15 @@ public class TestDriver {
 	protected String sparqlEndpoint = null;
 	protected String sparqlUpdateEndpoint = null;
 	protected static String sparqlUpdateQueryParameter = TestDriverDefaultValues.updateQueryParameter;
+	protected static String httpTransport = TestDriverDefaultValues.httpTransport;
+	protected static boolean http2 = false;
+	protected static byte resultFormat = ResultCounter.XML;
+	protected int queryMixBuffer = 0;// Query mixes generated ahead, 0: all before the run
+	protected int generatorThreads = 0;// Parallel precomputation, 0: sequential
+	protected String recordTrace = null;// Query trace file to write
+	protected String replayTrace = null;// Query trace file to replay
+	protected int traceOffset = 0;// First query mix to replay
+	protected QueryTrace queryTrace = null;// The trace of -replayTrace
 	protected String defaultGraph = TestDriverDefaultValues.defaultGraph;
 	protected String resourceDir = TestDriverDefaultValues.resourceDir;// Where
 																		// to
@@ -76,6 +85,12 @@ public class TestDriver {
 	protected boolean doSQL = false;
 	protected boolean multithreading = false;
 	protected int nrThreads;
+	protected boolean virtualThreads = false;
+	protected double arrivalRate = 0;// Open loop: queries per second, 0: closed loop
+	protected boolean poissonArrivals = true;
+	protected static final double[] percentiles = { 50, 90, 95, 99, 99.9 };
+	protected static final String[] percentileTags = { "p50", "p90", "p95",
+			"p99", "p999" };
 	protected int timeout = TestDriverDefaultValues.timeoutInMs;
 	protected String driverClassName = TestDriverDefaultValues.driverClassName;
 	protected boolean qualification = TestDriverDefaultValues.qualification;
@@ -106,19 +121,24 @@ public class TestDriver {
 
 	public TestDriver(String[] args) {
 		processProgramParameters(args);
-		System.out.print("Reading Test Driver data...");
-		System.out.flush();
-		if (doSQL)
-			parameterPool = new SQLParameterPool(new File(resourceDir), seed);
-		else {
-			if (updateFile == null)
-				parameterPool = new LocalSPARQLParameterPool(new File(
-						resourceDir), seed);
-			else
-				parameterPool = new LocalSPARQLParameterPool(new File(
-						resourceDir), seed, new File(updateFile));
+		if (replayTrace != null) {
+			// The queries come from the trace, no Test Driver data needed
+			queryTrace = openTrace(replayTrace);
+		} else {
+			System.out.print("Reading Test Driver data...");
+			System.out.flush();
+			if (doSQL)
+				parameterPool = new SQLParameterPool(new File(resourceDir), seed);
+			else {
+				if (updateFile == null)
+					parameterPool = new LocalSPARQLParameterPool(new File(
+							resourceDir), seed);
+				else
+					parameterPool = new LocalSPARQLParameterPool(new File(
+							resourceDir), seed, new File(updateFile));
+			}
+			System.out.println("done");
 		}
-		System.out.println("done");
 
 		if (sparqlEndpoint != null && !multithreading) {
 			if (doSQL)
@@ -138,6 +158,26 @@ public class TestDriver {
 		Runtime.getRuntime().addShutdownHook(tds);
 	}
 
+	private static QueryTrace openTrace(String fileName) {
+		try {
+			return QueryTrace.open(new File(fileName));
+		} catch (IOException e) {
+			System.err.println("Could not open query trace " + fileName + ": "
+					+ e.toString());
+			System.exit(-1);
+			return null;
+		}
+	}
+
+	/*
+	 * The scale factor of the Test Driver data or of the replayed trace
+	 */
+	private Long getScalefactor() {
+		if (queryTrace != null)
+			return queryTrace.getScalefactor();
+		return parameterPool.getScalefactor();
+	}
+
 	/*
 	 * Read which query mixes (directories) are used in the use case
 	 */
@@ -556,7 +596,8 @@ public class TestDriver {
 					new FileOutputStream(file, false));
 			objectOutput.writeInt(queryMix.getQueries().length);
 			objectOutput.writeLong(seed);
-			objectOutput.writeInt(parameterPool.getScalefactor());
+			//The qualification file format has an int scale factor
+			objectOutput.writeInt(parameterPool.getScalefactor().intValue());
 			objectOutput.writeInt(nrRuns);
 			objectOutput.writeObject(queryMix.getQueryMix());
 			objectOutput.writeObject(ignoreQueries);
@@ -776,6 +817,54 @@ public class TestDriver {
 					usecaseFile = new File(args[i++ + 1]);
 				} else if (args[i].equals("-uqp")) {
 					sparqlUpdateQueryParameter = args[i++ + 1];
+				} else if (args[i].equals("-http")) {
+					httpTransport = args[i++ + 1];
+					if (!httpTransport.equals("client")
+							&& !httpTransport.equals("legacy"))
+						throw new Exception("Unknown HTTP transport: "
+								+ httpTransport);
+				} else if (args[i].equals("-rate")) {
+					String rate = args[i++ + 1];
+					if (rate.endsWith("/s"))
+						rate = rate.substring(0, rate.length() - 2);
+					arrivalRate = Double.parseDouble(rate);
+					if (arrivalRate <= 0)
+						throw new Exception("The arrival rate must be positive: "
+								+ args[i]);
+				} else if (args[i].equals("-arrival")) {
+					String arrival = args[i++ + 1];
+					if (arrival.equals("poisson"))
+						poissonArrivals = true;
+					else if (arrival.equals("constant"))
+						poissonArrivals = false;
+					else
+						throw new Exception("Unknown arrival distribution: "
+								+ arrival);
+				} else if (args[i].equals("-recordTrace")) {
+					recordTrace = args[i++ + 1];
+				} else if (args[i].equals("-replayTrace")) {
+					replayTrace = args[i++ + 1];
+				} else if (args[i].equals("-traceOffset")) {
+					traceOffset = Integer.parseInt(args[i++ + 1]);
+				} else if (args[i].equals("-gthreads")) {
+					generatorThreads = Integer.parseInt(args[i++ + 1]);
+					if (generatorThreads < 0)
+						throw new Exception("The number of generator threads must not be negative: "
+								+ args[i]);
+				} else if (args[i].equals("-qmbuffer")) {
+					queryMixBuffer = Integer.parseInt(args[i++ + 1]);
+					if (queryMixBuffer < 0)
+						throw new Exception("The query mix buffer must not be negative: "
+								+ args[i]);
+				} else if (args[i].equals("-vthreads")) {
+					virtualThreads = true;
+				} else if (args[i].equals("-resultFormat")) {
+					resultFormat = ResultCounter.getFormat(args[i++ + 1]);
+					if (resultFormat < 0)
+						throw new Exception("Unknown result format: "
+								+ args[i]);
+				} else if (args[i].equals("-http2")) {
+					http2 = true;
 				} else if (!args[i].startsWith("-")) {
 					sparqlEndpoint = args[i];
 				} else {
@@ -794,6 +883,50 @@ public class TestDriver {
 				System.exit(-1);
 			}
 		}
+
+		if (virtualThreads && !multithreading) {
+			System.err.println("-vthreads needs -mt <number of clients>");
+			printUsageInfos();
+			System.exit(-1);
+		}
+
+		if (queryMixBuffer > 0 && !multithreading) {
+			System.err.println("-qmbuffer needs -mt <number of clients>");
+			printUsageInfos();
+			System.exit(-1);
+		}
+
+		if (generatorThreads > 0 && !multithreading) {
+			System.err.println("-gthreads needs -mt <number of clients>");
+			printUsageInfos();
+			System.exit(-1);
+		}
+
+		if (generatorThreads > 0 && queryMixBuffer > 0) {
+			System.err.println("-gthreads precomputes all query mixes before the run,"
+					+ " it cannot be combined with -qmbuffer");
+			printUsageInfos();
+			System.exit(-1);
+		}
+
+		if (arrivalRate > 0 && !multithreading) {
+			System.err.println("-rate needs -mt <number of clients>");
+			printUsageInfos();
+			System.exit(-1);
+		}
+
+		if ((recordTrace != null || replayTrace != null) && !multithreading) {
+			System.err.println("-recordTrace and -replayTrace need -mt <number of clients>");
+			printUsageInfos();
+			System.exit(-1);
+		}
+
+		if (recordTrace != null && (replayTrace != null || queryMixBuffer > 0)) {
+			System.err.println("-recordTrace needs all query mixes generated before the run,"
+					+ " it cannot be combined with -replayTrace or -qmbuffer");
+			printUsageInfos();
+			System.exit(-1);
+		}
 	}
 
 	/*
@@ -803,11 +936,16 @@ public class TestDriver {
 		StringBuffer sb = new StringBuffer(100);
 		double singleMultiRatio = 0.0;
 
-		sb.append("Scale factor:           " + parameterPool.getScalefactor()
+		sb.append("Scale factor:           " + getScalefactor()
 				+ "\n");
 		sb.append("Number of warmup runs:  " + warmups + "\n");
 		if (multithreading)
 			sb.append("Number of clients:      " + nrThreads + "\n");
+		if (arrivalRate > 0)
+			sb.append("Arrival rate:           "
+					+ String.format(Locale.US, "%.2f", arrivalRate)
+					+ " queries per second ("
+					+ (poissonArrivals ? "poisson" : "constant") + ")\n");
 		sb.append("Seed:                   " + seed + "\n");
 		sb.append("Number of query mix runs (without warmups): "
 				+ queryMix.getQueryMixRuns() + " times\n");
@@ -845,6 +983,7 @@ public class TestDriver {
 				+ String.format(Locale.US, "%.5f", queryMix
 						.getQueryMixGeometricMean())
 				+ " seconds geometric mean runtime of query mix\n");
+		appendPercentiles(sb, "Querymix ", "", queryMix.getQueryMixHistogram());
 
 		if (all) {
 			sb.append("\n");
@@ -859,6 +998,11 @@ public class TestDriver {
 			int[] minResults = queryMix.getMinResults();
 			int[] maxResults = queryMix.getMaxResults();
 			int[] nrq = queryMix.getRunsPerQuery();
+			double[] qavgc = queryMix.getCorrectedAqet();
+			double[] qmaxc = queryMix.getCorrectedQmax();
+			LatencyHistogram[] histograms = queryMix.getHistograms();
+			LatencyHistogram[] correctedHistograms = queryMix
+					.getCorrectedHistograms();
 			for (int i = 0; i < qmin.length; i++) {
 				if (queries[i] != null) {
 					sb.append("Metrics for Query:      " + (i + 1) + "\n");
@@ -889,6 +1033,18 @@ public class TestDriver {
 									+ String
 											.format(Locale.US, "%.8fs", qmax[i])
 									+ "\n");
+					if (arrivalRate > 0) {
+						sb.append("AQET (corrected):       "
+								+ String.format(Locale.US, "%.6f", qavgc[i])
+								+ " seconds (from intended start)\n");
+						sb.append("maxQET (corrected):     "
+								+ String.format(Locale.US, "%.8fs", qmaxc[i])
+								+ "\n");
+					}
+					appendPercentiles(sb, "", "", histograms[i]);
+					if (arrivalRate > 0)
+						appendPercentiles(sb, "", " (corr.)",
+								correctedHistograms[i]);
 					if (queries[i].getQueryType() == Query.SELECT_TYPE) {
 						sb.append("Average result count:   "
 								+ String.format(Locale.US, "%.2f",
@@ -922,11 +1078,19 @@ public class TestDriver {
 		sb.append("<?xml version=\"1.0\"?>");
 		sb.append("<bsbm>\n");
 		sb.append("  <querymix>\n");
-		sb.append("     <scalefactor>" + parameterPool.getScalefactor()
+		sb.append("     <scalefactor>" + getScalefactor()
 				+ "</scalefactor>\n");
 		sb.append("     <warmups>" + warmups + "</warmups>\n");
 		if (multithreading)
 			sb.append("     <nrthreads>" + nrThreads + "</nrthreads>\n");
+		if (arrivalRate > 0) {
+			sb.append("     <arrivalrate>"
+					+ String.format(Locale.US, "%.2f", arrivalRate)
+					+ "</arrivalrate>\n");
+			sb.append("     <arrivals>"
+					+ (poissonArrivals ? "poisson" : "constant")
+					+ "</arrivals>\n");
+		}
 		sb.append("     <seed>" + seed + "</seed>\n");
 		sb.append("     <querymixruns>" + queryMix.getQueryMixRuns()
 				+ "</querymixruns>\n");
@@ -967,6 +1131,8 @@ public class TestDriver {
 		sb.append("     <cqetg>"
 				+ String.format(Locale.US, "%.5f", queryMix
 						.getQueryMixGeometricMean()) + "</cqetg>\n");
+		appendXMLPercentiles(sb, "     ", "querymixpercentiles", queryMix
+				.getQueryMixHistogram());
 		sb.append("  </querymix>\n");
 
 		if (all) {
@@ -982,6 +1148,11 @@ public class TestDriver {
 			int[] minResults = queryMix.getMinResults();
 			int[] maxResults = queryMix.getMaxResults();
 			int[] nrq = queryMix.getRunsPerQuery();
+			double[] qavgc = queryMix.getCorrectedAqet();
+			double[] qmaxc = queryMix.getCorrectedQmax();
+			LatencyHistogram[] histograms = queryMix.getHistograms();
+			LatencyHistogram[] correctedHistograms = queryMix
+					.getCorrectedHistograms();
 			for (int i = 0; i < qmin.length; i++) {
 				if (queries[i] != null) {
 					sb.append("    <query nr=\"" + (i + 1) + "\">\n");
@@ -1002,6 +1173,19 @@ public class TestDriver {
 					sb.append("      <maxqet>"
 							+ String.format(Locale.US, "%.8f", qmax[i])
 							+ "</maxqet>\n");
+					if (arrivalRate > 0) {
+						sb.append("      <aqetcorrected>"
+								+ String.format(Locale.US, "%.6f", qavgc[i])
+								+ "</aqetcorrected>\n");
+						sb.append("      <maxqetcorrected>"
+								+ String.format(Locale.US, "%.8f", qmaxc[i])
+								+ "</maxqetcorrected>\n");
+					}
+					appendXMLPercentiles(sb, "      ", "percentiles",
+							histograms[i]);
+					if (arrivalRate > 0)
+						appendXMLPercentiles(sb, "      ",
+								"correctedpercentiles", correctedHistograms[i]);
 					sb.append("      <avgresults>"
 							+ String.format(Locale.US, "%.2f", avgResults[i])
 							+ "</avgresults>\n");
@@ -1025,6 +1209,43 @@ public class TestDriver {
 		return sb.toString();
 	}
 
+	/*
+	 * Latency percentiles of a histogram for the text results, null
+	 * stands for a query which never ran
+	 */
+	private static void appendPercentiles(StringBuffer sb, String prefix,
+			String suffix, LatencyHistogram histogram) {
+		if (histogram == null)
+			histogram = new LatencyHistogram();
+		sb.append(String.format(Locale.US, "%-24s%.6fs / %.6fs / %.6fs\n",
+				prefix + "p50/p90/p95" + suffix + ":", histogram
+						.getPercentile(50), histogram.getPercentile(90),
+				histogram.getPercentile(95)));
+		sb.append(String.format(Locale.US, "%-24s%.6fs / %.6fs / %.6fs\n",
+				prefix + "p99/p99.9/max" + suffix + ":", histogram
+						.getPercentile(99), histogram.getPercentile(99.9),
+				histogram.getMax()));
+	}
+
+	/*
+	 * Latency percentiles of a histogram for the XML results
+	 */
+	private static void appendXMLPercentiles(StringBuffer sb, String indent,
+			String tag, LatencyHistogram histogram) {
+		if (histogram == null)
+			histogram = new LatencyHistogram();
+		sb.append(indent + "<" + tag + ">\n");
+		for (int i = 0; i < percentiles.length; i++)
+			sb.append(indent + "  <" + percentileTags[i] + ">"
+					+ String.format(Locale.US, "%.6f", histogram
+							.getPercentile(percentiles[i])) + "</"
+					+ percentileTags[i] + ">\n");
+		sb.append(indent + "  <max>"
+				+ String.format(Locale.US, "%.6f", histogram.getMax())
+				+ "</max>\n");
+		sb.append(indent + "</" + tag + ">\n");
+	}
+
 	/*
 	 * print command line options
 	 */
@@ -1063,6 +1284,42 @@ public class TestDriver {
 				+ "\t-mt <Number of clients>\n"
 				+ "\t\tRun multiple clients concurrently.\n"
 				+ "\t\tdefault: not set\n"
+				+ "\t-rate <queries per second>[/s]\n"
+				+ "\t\tOpen loop: the -mt clients start the queries of the run at\n"
+				+ "\t\tscheduled times instead of after the previous query.\n"
+				+ "\t\tLatencies are also reported from the intended start time.\n"
+				+ "\t\tdefault: not set (closed loop)\n"
+				+ "\t-arrival <poisson|constant>\n"
+				+ "\t\tDistribution of the intervals between the -rate arrivals.\n"
+				+ "\t\tdefault: poisson\n"
+				+ "\t-gthreads <number of threads>\n"
+				+ "\t\tWith -mt, precompute the query mixes in parallel. Every query mix\n"
+				+ "\t\tdraws its parameters with its own seed derived from -seed, so the\n"
+				+ "\t\tqueries differ from the sequential generation, but not between\n"
+				+ "\t\truns with the same seed.\n"
+				+ "\t\tdefault: 0 (sequential)\n"
+				+ "\t-qmbuffer <number of query mixes>\n"
+				+ "\t\tWith -mt, generate the query mixes during the run, at most this\n"
+				+ "\t\tmany ahead, instead of all before the warmup. Same queries.\n"
+				+ "\t\tdefault: 0 (all before the warmup)\n"
+				+ "\t-recordTrace <trace file>\n"
+				+ "\t\tWith -mt, write the generated query mixes (warmup and run) to a\n"
+				+ "\t\tbinary query trace. The warmup query mixes are recorded with\n"
+				+ "\t\ttheir update queries, which run if they are replayed as run mixes.\n"
+				+ "\t\tdefault: not set\n"
+				+ "\t-replayTrace <trace file>\n"
+				+ "\t\tWith -mt, run the query mixes of a recorded query trace instead of\n"
+				+ "\t\tgenerating them. -seed, -gthreads, -qmbuffer, -idir and -udataset\n"
+				+ "\t\thave no effect.\n"
+				+ "\t\tdefault: not set\n"
+				+ "\t-traceOffset <query mix number>\n"
+				+ "\t\tFirst query mix of the trace to replay, so several test drivers\n"
+				+ "\t\tcan replay disjoint slices of one trace.\n"
+				+ "\t\tdefault: 0\n"
+				+ "\t-vthreads\n"
+				+ "\t\tRun the -mt clients as virtual threads (Java 21 or newer),\n"
+				+ "\t\tfor thousands of concurrent clients.\n"
+				+ "\t\tdefault: not set\n"
 				+ "\t-seed <Long Integer>\n"
 				+ "\t\tInit the Test Driver with another seed than the default.\n"
 				+ "\t\tdefault: "
@@ -1097,7 +1354,19 @@ public class TestDriver {
 				+ "\t\tThe forms parameter name for the query string.\n"
 				+ "\t\tdefault: "
 				+ TestDriverDefaultValues.updateQueryParameter
-				+ "\n";
+				+ "\n"
+				+ "\t-http <client|legacy>\n"
+				+ "\t\tclient: java.net.http client, keeps the connections of a client open.\n"
+				+ "\t\tlegacy: HttpURLConnection, one connection per query.\n"
+				+ "\t\tdefault: "
+				+ TestDriverDefaultValues.httpTransport
+				+ "\n"
+				+ "\t-http2\n"
+				+ "\t\tUse HTTP/2 with the client transport if the server supports it.\n"
+				+ "\t\tdefault: HTTP/1.1\n"
+				+ "\t-resultFormat <xml|json|tsv|csv>\n"
+				+ "\t\tThe SPARQL result format requested for SELECT queries.\n"
+				+ "\t\tdefault: xml\n";
 
 		System.out.print(output);
 	}
@@ -19,4 +19,5 @@ public class TestDriverDefaultValues {
 	public static double percentDifference = 0.0;
 	public static int nrOfPeriods = 5;
 	public static String updateQueryParameter = "update"; 
+	public static String httpTransport = "legacy";
 }
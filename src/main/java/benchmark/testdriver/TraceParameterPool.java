@@ -0,0 +1,55 @@
+package benchmark.testdriver;
+
+/*
+ * Query mix pool which replays the query mixes of a recorded query trace
+ * (-replayTrace) instead of generating them. The query mixes are taken from
+ * the trace starting at offset, so several test drivers can replay disjoint
+ * slices of the same trace. Like for generated runs, the warmup query mixes
+ * run without their update queries.
+ */
+public class TraceParameterPool extends PreCalcParameterPool {
+	private QueryTrace trace;
+	private int offset;
+
+	TraceParameterPool(QueryTrace trace, int offset, int warmups) {
+		super(null, warmups);
+		this.trace = trace;
+		this.offset = offset;
+	}
+
+	/*
+	 * Only checks that the trace fits the use case and holds enough query mixes
+	 */
+	@Override
+	public void calcQueryMixes(QueryMix queryMix, int times) {
+		if(trace.getNrQueries()!=queryMix.getQueries().length) {
+			System.err.println("The query trace was recorded for " + trace.getNrQueries() + " queries, the use case has " + queryMix.getQueries().length);
+			System.exit(-1);
+		}
+		if(offset<0 || offset+times>trace.getNrQueryMixes()) {
+			System.err.println("The query trace holds " + trace.getNrQueryMixes() + " query mixes, "
+					+ times + " are needed from offset " + offset);
+			System.exit(-1);
+		}
+		System.out.println("Replaying query mixes " + offset + " to " + (offset+times-1) + " of the query trace");
+		nrQueryMixes = times;
+	}
+
+	@Override
+	public CompiledQuery[] getNextQueryMix() throws InterruptedException {
+		int nr = claimNextQueryMix();
+		if(nr<0)
+			return null;
+		return trace.getQueryMix(offset+nr, nr>=warmups);
+	}
+
+	@Override
+	public boolean getNextQueryMix(CompiledQueryMix queryMix) throws InterruptedException {
+		int nr = claimNextQueryMix();
+		if(nr<0)
+			return false;
+		queryMix.setRun(nr-warmups);
+		queryMix.setNewCompiledQueryMix(trace.getQueryMix(offset+nr, nr>=warmups));
+		return true;
+	}
+}